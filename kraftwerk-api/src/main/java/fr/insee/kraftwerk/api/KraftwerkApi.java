@@ -3,8 +3,12 @@ package fr.insee.kraftwerk.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.context.event.EventListener;
+
+import fr.insee.kraftwerk.core.vtl.VtlEngineProvider;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan
@@ -19,4 +23,10 @@ public class KraftwerkApi extends SpringBootServletInitializer {
 	public static void main(String[] args) {
 		SpringApplication.run(KraftwerkApi.class, args);
 	}
+
+	/** Load the VTL engine classes at startup, so that the first processing doesn't pay this cost. */
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUpVtlEngine() {
+		VtlEngineProvider.warmUp();
+	}
 }
@@ -70,12 +70,17 @@ public class MainProcessing {
 	public void runMain() throws KraftwerkException {
 		init();
 		if (Boolean.TRUE.equals(fileByFile)) { //iterate on files
+			Map<String, VariablesMap> readMetadataVariables = metadataVariables;
 			for (UserInputs userInputsFile : userInputsList) {
 				userInputs = userInputsFile;
 				vtlBindings = new VtlBindings();
+				// Variables added or removed while processing a file are not seen by the next ones
+				metadataVariables = MetadataUtils.overlay(readMetadataVariables);
 				unimodalProcess();
 				multimodalProcess();
 				outputFileWriter();
+				// The maximum lengths are those of all the files read
+				MetadataUtils.mergeMaxLengthsData(readMetadataVariables, metadataVariables);
 			}
 		} else {
 			unimodalProcess();
@@ -104,7 +109,7 @@ public class MainProcessing {
 	private void unimodalProcess() throws NullException {
 		BuildBindingsSequence buildBindingsSequence = new BuildBindingsSequence(withAllReportingData);
 		for (String dataMode : userInputs.getModeInputsMap().keySet()) {
-			buildBindingsSequence.buildVtlBindings(userInputs, dataMode, vtlBindings, metadataVariables, withDDI);
+			buildBindingsSequence.buildVtlBindings(userInputs, dataMode, vtlBindings, metadataVariables, withDDI, errors);
 			UnimodalSequence unimodal = new UnimodalSequence();
 			unimodal.applyUnimodalSequence(userInputs, dataMode, vtlBindings, errors, metadataVariables);
 		}
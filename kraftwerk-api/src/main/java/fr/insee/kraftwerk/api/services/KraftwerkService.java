@@ -33,6 +33,15 @@ public class KraftwerkService {
 	
 	@Value("${fr.insee.postcollecte.files}")
 	protected String defaultDirectory;
+
+	@Value("${fr.insee.kraftwerk.data.parsing.threads:1}")
+	private int dataParsingThreads;
+
+	@Value("${fr.insee.kraftwerk.metadata.cache.folder:}")
+	private String metadataCacheFolder;
+
+	@Value("${fr.insee.kraftwerk.metadata.cache.size:16}")
+	private int metadataCacheSize;
 	
 	protected ControlInputSequence controlInputSequence ;
 	
@@ -41,6 +50,11 @@ public class KraftwerkService {
 		if (StringUtils.isNotEmpty(csvOutputsQuoteChar)) {
 			Constants.setCsvOutputQuoteChar(csvOutputsQuoteChar.trim().charAt(0));
 		}
+		Constants.setDataParsingThreads(dataParsingThreads);
+		if (StringUtils.isNotBlank(metadataCacheFolder)) {
+			Constants.setMetadataCacheFolder(Path.of(metadataCacheFolder.trim()));
+		}
+		Constants.setMetadataCacheSize(metadataCacheSize);
 		controlInputSequence = new ControlInputSequence(defaultDirectory);
 	}
 	
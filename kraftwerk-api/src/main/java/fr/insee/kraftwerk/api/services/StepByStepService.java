@@ -58,16 +58,18 @@ public class StepByStepService extends KraftwerkService {
 		//Process
 		BuildBindingsSequence buildBindingsSequence = new BuildBindingsSequence(withAllReportingData);
 		VtlReaderWriterSequence vtlWriterSequence = new VtlReaderWriterSequence();
+		List<KraftwerkError> errors = new ArrayList<>();
 
 		for (String dataMode : mp.getUserInputs().getModeInputsMap().keySet()) {
 			try {
-				buildBindingsSequence.buildVtlBindings(mp.getUserInputs(), dataMode, mp.getVtlBindings(),mp.getMetadataVariables(), withDDI );
+				buildBindingsSequence.buildVtlBindings(mp.getUserInputs(), dataMode, mp.getVtlBindings(),mp.getMetadataVariables(), withDDI, errors);
 			} catch (NullException e) {
 				return ResponseEntity.status(e.getStatus()).body(e.getMessage());
 			}
 			
 			vtlWriterSequence.writeTempBindings(mp.getInDirectory(), dataMode, mp.getVtlBindings(), StepEnum.BUILD_BINDINGS);
 		}
+		TextFileWriter.writeErrorsFile(mp.getInDirectory(), errors);
 		
 		return ResponseEntity.ok(inDirectoryParam);
 
@@ -94,14 +96,16 @@ public class StepByStepService extends KraftwerkService {
 		
 		//Process
 		BuildBindingsSequence buildBindingsSequence = new BuildBindingsSequence(withAllReportingData);
+		List<KraftwerkError> errors = new ArrayList<>();
 		try {
-			buildBindingsSequence.buildVtlBindings(mp.getUserInputs(), dataMode, mp.getVtlBindings(), mp.getMetadataVariables(), withDDI);
+			buildBindingsSequence.buildVtlBindings(mp.getUserInputs(), dataMode, mp.getVtlBindings(), mp.getMetadataVariables(), withDDI, errors);
 		} catch (NullException e) {
 			return ResponseEntity.status(e.getStatus()).body(e.getMessage());
 		}
 		
 		VtlReaderWriterSequence vtlWriterSequence = new VtlReaderWriterSequence();
 		vtlWriterSequence.writeTempBindings(mp.getInDirectory(), dataMode, mp.getVtlBindings(), StepEnum.BUILD_BINDINGS);
+		TextFileWriter.writeErrorsFile(mp.getInDirectory(), errors);
 		
 		return ResponseEntity.ok(inDirectoryParam+ " - "+dataMode);
 
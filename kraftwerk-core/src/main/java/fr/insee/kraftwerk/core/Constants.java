@@ -43,6 +43,16 @@ public final class Constants {
 	public static final char CSV_OUTPUTS_SEPARATOR = ';'; //TODO: get it from properties
 	private static char csvOutputQuoteChar = '"';
 
+	// ----- Parsing parameters
+	/** Number of threads used to parse the files of a data folder (1 means sequential parsing). */
+	private static int dataParsingThreads = 1;
+
+	// ----- Metadata parameters
+	/** Folder in which the metadata read from the DDI and Lunatic files is cached (null means memory cache only). */
+	private static Path metadataCacheFolder = null;
+	/** Number of metadata entries kept in memory. */
+	private static int metadataCacheSize = 16;
+
 	// ----- Fixed parameters
 	public static final String ROOT_GROUP_NAME = "RACINE";
 	public static final String ROOT_IDENTIFIER_NAME = "IdUE";
@@ -52,6 +62,8 @@ public final class Constants {
 	public static final String FILTER_RESULT_PREFIX = "FILTER_RESULT_";
 	public static final String MISSING_SUFFIX = "_MISSING";
 	public static final String COLLECTED = "COLLECTED";
+	public static final String EXTERNAL = "EXTERNAL";
+	public static final String CALCULATED = "CALCULATED";
 	private static final String[] ENO_VARIABLES = {"COMMENT_QE","COMMENT_UE","HEURE_REMPL","MIN_REMPL"};
 
 
@@ -226,6 +238,30 @@ public final class Constants {
 		return csvOutputQuoteChar;
 	}
 
+	public static void setDataParsingThreads(int dataParsingThreads) {
+		Constants.dataParsingThreads = Math.max(1, dataParsingThreads);
+	}
+
+	public static int getDataParsingThreads() {
+		return dataParsingThreads;
+	}
+
+	public static void setMetadataCacheFolder(Path metadataCacheFolder) {
+		Constants.metadataCacheFolder = metadataCacheFolder;
+	}
+
+	public static Path getMetadataCacheFolder() {
+		return metadataCacheFolder;
+	}
+
+	public static void setMetadataCacheSize(int metadataCacheSize) {
+		Constants.metadataCacheSize = Math.max(1, metadataCacheSize);
+	}
+
+	public static int getMetadataCacheSize() {
+		return metadataCacheSize;
+	}
+
 
 	public static String[] getEnoVariables() {
 		return ENO_VARIABLES;
@@ -0,0 +1,96 @@
+package fr.insee.kraftwerk.core.dataprocessing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import fr.insee.kraftwerk.core.metadata.CalculatedVariables;
+
+/**
+ * Dependency graph of the calculated variables, built from their dependant variables.
+ * <p>
+ * The calculated variables are sorted in levels (Kahn's algorithm): the variables of a level only depend on
+ * variables of the previous levels, or on variables that are not calculated. The variables of a level can then be
+ * calculated together. Within a level, the variables are in the order of the CalculatedVariables map.
+ * <p>
+ * The variables that are in a dependency cycle, or that depend on a variable in a cycle, can't be sorted:
+ * they are the unresolved variables.
+ */
+class CalculatedDependencyGraph {
+
+	/** Calculated variables that depend on each variable (calculated or not). */
+	private final Map<String, Set<String>> dependants = new LinkedHashMap<>();
+	private final List<List<String>> levels = new ArrayList<>();
+	private final Set<String> unresolved = new LinkedHashSet<>();
+
+	CalculatedDependencyGraph(CalculatedVariables calculatedVariables) {
+		// Number of calculated variables each calculated variable is waiting for
+		Map<String, Integer> inDegrees = new LinkedHashMap<>();
+		for (String calculatedName : calculatedVariables.keySet()) {
+			int inDegree = 0;
+			for (String variableName : new LinkedHashSet<>(calculatedVariables.getDependantVariables(calculatedName))) {
+				dependants.computeIfAbsent(variableName, name -> new LinkedHashSet<>()).add(calculatedName);
+				if (calculatedVariables.containsKey(variableName)) {
+					inDegree++;
+				}
+			}
+			inDegrees.put(calculatedName, inDegree);
+		}
+		// Levels
+		List<String> level = inDegrees.entrySet().stream()
+				.filter(entry -> entry.getValue() == 0).map(Map.Entry::getKey).toList();
+		while (!level.isEmpty()) {
+			levels.add(level);
+			Set<String> nextLevel = new LinkedHashSet<>();
+			for (String calculatedName : level) {
+				for (String dependantName : dependants.getOrDefault(calculatedName, Set.of())) {
+					if (inDegrees.merge(dependantName, -1, Integer::sum) == 0) {
+						nextLevel.add(dependantName);
+					}
+				}
+			}
+			// Order of the map within a level
+			level = inDegrees.keySet().stream().filter(nextLevel::contains).toList();
+		}
+		inDegrees.forEach((calculatedName, inDegree) -> {
+			if (inDegree > 0) {
+				unresolved.add(calculatedName);
+			}
+		});
+	}
+
+	/** Return the calculated variables sorted in levels. The unresolved variables are not in the levels. */
+	List<List<String>> getLevels() {
+		return levels;
+	}
+
+	/** Return the calculated variables that can't be sorted, because of a dependency cycle. */
+	Set<String> getUnresolved() {
+		return unresolved;
+	}
+
+	/**
+	 * Return the calculated variables that depend, directly or not, on at least one of the given variables.
+	 * @param variableNames Names of variables (calculated or not).
+	 * @return The dependant calculated variables, in no specific order.
+	 */
+	Set<String> getDependants(Collection<String> variableNames) {
+		Set<String> result = new LinkedHashSet<>();
+		Deque<String> toVisit = new ArrayDeque<>(variableNames);
+		while (!toVisit.isEmpty()) {
+			for (String dependantName : dependants.getOrDefault(toVisit.pop(), Set.of())) {
+				if (result.add(dependantName)) {
+					toVisit.push(dependantName);
+				}
+			}
+		}
+		return result;
+	}
+
+}
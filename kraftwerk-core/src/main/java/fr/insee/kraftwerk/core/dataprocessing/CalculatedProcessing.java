@@ -1,27 +1,31 @@
 package fr.insee.kraftwerk.core.dataprocessing;
 
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import fr.insee.kraftwerk.core.KraftwerkError;
 import fr.insee.kraftwerk.core.metadata.CalculatedVariables;
+import fr.insee.kraftwerk.core.metadata.ErrorCalculatedCycle;
+import fr.insee.kraftwerk.core.utils.TextFileReader;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.kraftwerk.core.vtl.VtlScript;
+import fr.insee.kraftwerk.core.vtl.VtlScriptAnalyzer;
 import lombok.extern.log4j.Log4j2;
 ;
 
 @Log4j2
 public class CalculatedProcessing extends DataProcessing {
 
-    /** Maximal number of iterations to resolve the order of execution of VTL expressions. */
-    public static final int MAXIMAL_RESOLVING_ITERATIONS = 100;
     private CalculatedVariables calculatedVariables;
+    /** Order of execution of the VTL expressions. */
+    private CalculatedDependencyGraph dependencyGraph;
 
     public CalculatedProcessing(VtlBindings vtlBindings,  CalculatedVariables calculatedVariables) {
         super(vtlBindings);
         this.calculatedVariables = calculatedVariables;
+        this.dependencyGraph = new CalculatedDependencyGraph(calculatedVariables);
     }
 
     @Override
@@ -35,8 +39,9 @@ public class CalculatedProcessing extends DataProcessing {
         String automatedVtlInstructions = applyAutomatedVtlInstructions(bindingName, errors);
         // Second step
         if(userVtlInstructionsPath != null) {
-            applyUserVtlInstructions(userVtlInstructionsPath, errors);
-            applyAutomatedVtlInstructions(bindingName, errors);
+            String userVtlScript = TextFileReader.readFromPath(userVtlInstructionsPath);
+            applyUserVtlInstructions(userVtlScript, errors);
+            reapplyCalculatedVtlInstructions(bindingName, userVtlScript, errors);
         } else {
             log.info(String.format("No user VTL instructions given for dataset named %s (step %s).",
                     bindingName, getStepName()));
@@ -44,6 +49,43 @@ public class CalculatedProcessing extends DataProcessing {
         return automatedVtlInstructions;
     }
 
+    /**
+     * Calculate again the variables that depend on the variables modified by the user VTL script.
+     * The calculated variables modified by the script are calculated again too.
+     * If the script can't be analyzed, all the variables are calculated again.
+     */
+    private void reapplyCalculatedVtlInstructions(String bindingName, String userVtlScript, List<KraftwerkError> errors) {
+        if (userVtlScript == null || userVtlScript.isBlank()) {
+            return;
+        }
+        Set<String> modifiedVariables = VtlScriptAnalyzer.modifiedVariables(userVtlScript, bindingName);
+        if (modifiedVariables == null) {
+            applyAutomatedVtlInstructions(bindingName, errors);
+            return;
+        }
+        Set<String> calculatedNames = dependencyGraph.getDependants(modifiedVariables);
+        modifiedVariables.stream().filter(calculatedVariables::isCalculated).forEach(calculatedNames::add);
+        log.info(String.format("%d calculated variables calculated again after the user VTL instructions (dataset %s).",
+                calculatedNames.size(), bindingName));
+        if (!calculatedNames.isEmpty()) {
+            vtlExecute.evalVtlScript(generateVtlInstructions(bindingName, calculatedNames::contains), vtlBindings, errors);
+        }
+    }
+
+    /** The calculated variables in a dependency cycle are reported as an error, and are not calculated. */
+    @Override
+    protected String applyAutomatedVtlInstructions(String bindingName, List<KraftwerkError> errors) {
+        if (!dependencyGraph.getUnresolved().isEmpty()) {
+            log.warn("Following calculated variables could not be resolved and will not be calculated: ");
+            log.warn(dependencyGraph.getUnresolved().toString());
+            KraftwerkError error = new ErrorCalculatedCycle(dependencyGraph.getUnresolved(), bindingName);
+            if (!errors.contains(error)) {
+                errors.add(error);
+            }
+        }
+        return super.applyAutomatedVtlInstructions(bindingName, errors);
+    }
+
     /**
      * Return the VTL instruction for each calculated variable registered in the CalculatedVariables object given.
      * FILTER_RESULT variables are added in the given variables map.
@@ -51,75 +93,31 @@ public class CalculatedProcessing extends DataProcessing {
      * @param objects  Objects expected here are:
      *                - a CalculatedVariables instance,
      *                - the corresponding VariablesMap object (used to get fully qualified name).
-     * @return a VtlScript with one instruction for each "calculated" variable.
+     * @return a VtlScript with one instruction for each "calculated" variable, sorted by dependency level.
+     * The instructions of a level are fused into a single calc when the script is evaluated.
      */
     @Override
     protected VtlScript generateVtlInstructions(String bindingName) {
+        return generateVtlInstructions(bindingName, calculatedName -> true);
+    }
 
-        List<String> orderedCalculatedNames = resolveCalculated(calculatedVariables);
+    /** Return the VTL instructions of the calculated variables accepted by the given filter. */
+    private VtlScript generateVtlInstructions(String bindingName, Predicate<String> calculatedFilter) {
 
         VtlScript vtlScript = new VtlScript();
 
-        for (String calculatedName : orderedCalculatedNames) {
-
-            String vtlExpression = calculatedVariables.getVtlExpression(calculatedName);
-            if (vtlExpression != null && !vtlExpression.equals("")) {
-                vtlScript.add(String.format("%s := %s [calc %s := %s];",
-                        bindingName, bindingName, calculatedName, vtlExpression));
-            }
-
-        }
-
-        return vtlScript;
-    }
+        for (List<String> level : dependencyGraph.getLevels()) {
+            for (String calculatedName : level.stream().filter(calculatedFilter).toList()) {
 
-    /** Return a list of calculated variable names, in such an order that the evaluation of VTL expressions
-     * can be performed. */
-    private List<String> resolveCalculated(CalculatedVariables calculatedVariables) {
-        // Init result
-        List<String> resolved = new ArrayList<>();
-
-        // Create a shallow copy of the calculated variables map
-        CalculatedVariables unresolved = shallowCopy(calculatedVariables);
-
-        // Resolve
-        int counter = 0;
-        while (!unresolved.isEmpty() && counter < MAXIMAL_RESOLVING_ITERATIONS) {
-            for (Iterator<String> iterator = unresolved.keySet().iterator(); iterator.hasNext();) {
-                String calculatedName = iterator.next();
-                if (isResolved(unresolved, calculatedName)) {
-                    iterator.remove(); // ( => unresolved.remove(calculatedName); )
-                    resolved.add(calculatedName);
+                String vtlExpression = calculatedVariables.getVtlExpression(calculatedName);
+                if (vtlExpression != null && !vtlExpression.equals("")) {
+                    vtlScript.add(String.format("%s := %s [calc %s := %s];",
+                            bindingName, bindingName, calculatedName, vtlExpression));
                 }
-            }
-            counter++;
-        }
 
-        // In case sequence break due to counter (should not happen if the lunatic questionnaire given is consistent)
-        if (!unresolved.isEmpty()) {
-            log.warn("Following calculated variables could not be resolved and will not be calculated: ");
-            log.warn(unresolved.keySet().toString());
-        }
-
-        return resolved;
-    }
-
-    /** Return a shallow copy of the given CalculatedVariables object.
-     * https://www.javaallin.com/code/java-super-clone-method-and-inheritance.html
-     * https://www.baeldung.com/java-copy-hashmap
-     * */
-    private CalculatedVariables shallowCopy(CalculatedVariables calculatedVariables) {
-        CalculatedVariables res = new CalculatedVariables();
-        res.putAll(calculatedVariables);
-        return res;
-    }
-
-    private boolean isResolved(CalculatedVariables calculatedVariables, String calculatedName) {
-        for (String variableName : calculatedVariables.getDependantVariables(calculatedName)) {
-            if (calculatedVariables.containsKey(variableName)) {
-                return false;
             }
         }
-        return true;
+
+        return vtlScript;
     }
 }
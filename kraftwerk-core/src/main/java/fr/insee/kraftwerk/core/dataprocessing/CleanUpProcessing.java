@@ -9,7 +9,6 @@ import java.util.StringJoiner;
 import java.util.stream.Collectors;
 
 import fr.insee.kraftwerk.core.KraftwerkError;
-import fr.insee.kraftwerk.core.metadata.PaperUcq;
 import fr.insee.kraftwerk.core.metadata.VariablesMap;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.kraftwerk.core.vtl.VtlScript;
@@ -86,7 +85,7 @@ public class CleanUpProcessing extends DataProcessing {
     /** Remove PaperUcq variables from concerned VariablesMap */
     private void removePaperUcqVariables() {
         for (VariablesMap variablesMap : metadataVariables.values()) {
-            variablesMap.getVariables().values().removeIf(PaperUcq.class::isInstance);
+            variablesMap.getPaperUcq().forEach(paperUcq -> variablesMap.removeVariable(paperUcq.getName()));
         }
     }
 
@@ -5,6 +5,7 @@ import java.util.List;
 
 import fr.insee.kraftwerk.core.KraftwerkError;
 import fr.insee.kraftwerk.core.utils.TextFileReader;
+import fr.insee.kraftwerk.core.vtl.Deduplication;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.kraftwerk.core.vtl.VtlExecute;
 import fr.insee.kraftwerk.core.vtl.VtlScript;
@@ -61,13 +62,36 @@ public abstract class DataProcessing {
         VtlScript automatedInstructions = generateVtlInstructions(bindingName);
         log.debug(String.format("Automated VTL instructions generated for step %s: see temp file", getStepName()));
         if (!(automatedInstructions.isEmpty() || automatedInstructions.toString().contentEquals(""))) {
-        	vtlExecute.evalVtlScript(automatedInstructions, vtlBindings, errors);
+        	// Instructions are fused during the evaluation: the script given back is the one evaluated
+        	automatedInstructions = vtlExecute.evalVtlScript(automatedInstructions, vtlBindings, errors);
         }
+        removeDuplicates(getDatasetsToDeduplicate(bindingName));
         return automatedInstructions.toString();
     }
 
+    /**
+     * Return the names of the datasets in which duplicated rows are removed, after the automated instructions.
+     * None by default.
+     *
+     * @param bindingName The name of the concerned dataset.
+     */
+    protected List<String> getDatasetsToDeduplicate(String bindingName) {
+        return List.of();
+    }
+
+    private void removeDuplicates(List<String> datasetNames) {
+        for (String datasetName : datasetNames) {
+            if (vtlBindings.containsKey(datasetName)) {
+                vtlBindings.put(datasetName, Deduplication.removeDuplicates(vtlBindings.getDataset(datasetName)));
+            }
+        }
+    }
+
     protected void applyUserVtlInstructions(Path userVtlInstructionsPath, List<KraftwerkError> errors){
-        String vtlScript = TextFileReader.readFromPath(userVtlInstructionsPath);
+        applyUserVtlInstructions(TextFileReader.readFromPath(userVtlInstructionsPath), errors);
+    }
+
+    protected void applyUserVtlInstructions(String vtlScript, List<KraftwerkError> errors){
         log.info(String.format("User VTL instructions read for step %s:%n%s", getStepName(),
                 vtlScript));
         if (! (vtlScript == null || vtlScript.isEmpty() || vtlScript.contentEquals("")) ) {
@@ -0,0 +1,15 @@
+package fr.insee.kraftwerk.core.dataprocessing;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dataset of an information level (the root or a group), created from the multimode dataset.
+ *
+ * @param name            Name of the dataset.
+ * @param groupIdentifier Identifier of the group, null for the root: rows with an empty value are not in the dataset.
+ * @param keptNames       Names of the multimode dataset components kept in the dataset.
+ * @param newNames        Keys: fully qualified name of a variable. Values: its name in the dataset.
+ */
+record InformationLevel(String name, String groupIdentifier, List<String> keptNames, Map<String, String> newNames) {
+}
@@ -1,18 +1,23 @@
 package fr.insee.kraftwerk.core.dataprocessing;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.KraftwerkError;
 import fr.insee.kraftwerk.core.metadata.VariablesMap;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.kraftwerk.core.vtl.VtlMacros;
 import fr.insee.kraftwerk.core.vtl.VtlScript;
+import fr.insee.vtl.model.Dataset;
+import lombok.extern.log4j.Log4j2;
 
 /**
  * This processing class is designed to create one dataset per group existing in metadata.
  */
+@Log4j2
 public class InformationLevelsProcessing extends DataProcessing {
 
     public InformationLevelsProcessing(VtlBindings vtlBindings) {
@@ -24,6 +29,24 @@ public class InformationLevelsProcessing extends DataProcessing {
         return "INFORMATION LEVELS";
     }
 
+	/**
+	 * The datasets are created without the VTL engine when possible (see InformationLevelsSplitter),
+	 * with the VTL instructions otherwise.
+	 */
+	@Override
+	protected String applyAutomatedVtlInstructions(String bindingName, List<KraftwerkError> errors) {
+		List<InformationLevel> informationLevels = getInformationLevels(bindingName);
+		Map<String, Dataset> datasets = new InformationLevelsSplitter(vtlBindings.getDataset(bindingName))
+				.split(informationLevels);
+		if (datasets == null) {
+			log.info("Information levels can't be split without the VTL engine, VTL instructions used instead.");
+			return super.applyAutomatedVtlInstructions(bindingName, errors);
+		}
+		vtlBindings.putAll(datasets);
+		return String.format("/* %s: information levels %s split without the VTL engine */",
+				bindingName, String.join(", ", datasets.keySet()));
+	}
+
 	/**
 	 * The binding name is the multimode dataset.
 	 * The method generates VTL instructions to create one dataset per group of variables.
@@ -34,53 +57,63 @@ public class InformationLevelsProcessing extends DataProcessing {
     protected VtlScript generateVtlInstructions(String bindingName) {
 
     	VtlScript vtlScript = new VtlScript();
-		
-		VariablesMap multimodeVariablesMap = vtlBindings.getDatasetVariablesMap(bindingName);
-
-		// Root dataset
-		StringBuilder rootInstructions = new StringBuilder();
-
-		String rootMeasures = VtlMacros.toVtlSyntax(multimodeVariablesMap.getGroupVariableNames(Constants.ROOT_GROUP_NAME));
-		rootInstructions.append(String.format("%s := %s [keep %s, %s, %s];",
-				Constants.ROOT_GROUP_NAME, bindingName, Constants.ROOT_IDENTIFIER_NAME, rootMeasures, Constants.MODE_VARIABLE_NAME));
-
-		vtlScript.add(rootInstructions.toString());
 
-		// To delete duplicates, to be eventually reviewed with a better VTL solution
-		vtlScript.add(Constants.ROOT_GROUP_NAME + " := union(" + Constants.ROOT_GROUP_NAME + ", " + Constants.ROOT_GROUP_NAME +");");
-		 
-		// Group datasets
-		for (String groupName : multimodeVariablesMap.getSubGroupNames()) {
-			StringBuilder groupInstructions = new StringBuilder();
-
-			// First init the dataset using measure names, that are fully qualified name
-			List<String> groupVariableNames = new ArrayList<>(multimodeVariablesMap.getGroupVariableNames(groupName));
-			List<String> groupMeasureNames = groupVariableNames.stream()
-					.map(multimodeVariablesMap::getFullyQualifiedName).collect(Collectors.toList());
+		for (InformationLevel informationLevel : getInformationLevels(bindingName)) {
+			String datasetName = informationLevel.name();
+			vtlScript.add(String.format("%s := %s [keep %s];",
+					datasetName, bindingName, VtlMacros.toVtlSyntax(informationLevel.keptNames())));
 
-			String groupMeasures = VtlMacros.toVtlSyntax(groupMeasureNames);
-			groupInstructions.append(String.format("%s := %s [keep %s, %s, %s, %s];",
-					groupName, bindingName, Constants.ROOT_IDENTIFIER_NAME, groupName, groupMeasures, Constants.MODE_VARIABLE_NAME));
 			// Epmpty lines are created to produce group level tables and need to be removed
-			groupInstructions.append(String.format("%s := %s [filter %s<>\"\"];",
-					groupName, groupName, groupName));
-
-
-			vtlScript.add(groupInstructions.toString());
-
-			// To delete duplicates
-			vtlScript.add(String.format("%1$s := union(%1$s,%1$s);",groupName));
+			if (informationLevel.groupIdentifier() != null) {
+				vtlScript.add(String.format("%s := %s [filter %s<>\"\"];",
+						datasetName, datasetName, informationLevel.groupIdentifier()));
+			}
 
 			// Then rename fully qualified names into simple names
-			for (int j=0; j< groupVariableNames.size(); j++) {
-				String variableName = groupVariableNames.get(j);
-				String fullyQualifiedName = groupMeasureNames.get(j);
+			informationLevel.newNames().forEach((fullyQualifiedName, variableName) ->
 				vtlScript.add(String.format("%s := %s [rename %s to %s];",
-						groupName, groupName, fullyQualifiedName, variableName));
-			}
+						datasetName, datasetName, fullyQualifiedName, variableName)));
 		}
 
 		return vtlScript;
     }
 
+	/** Return the root dataset and the group datasets to be created from the multimode dataset. */
+	private List<InformationLevel> getInformationLevels(String bindingName) {
+		List<InformationLevel> informationLevels = new ArrayList<>();
+		VariablesMap multimodeVariablesMap = vtlBindings.getDatasetVariablesMap(bindingName);
+
+		// Root dataset
+		List<String> rootNames = new ArrayList<>();
+		rootNames.add(Constants.ROOT_IDENTIFIER_NAME);
+		rootNames.addAll(multimodeVariablesMap.getGroupVariableNames(Constants.ROOT_GROUP_NAME));
+		rootNames.add(Constants.MODE_VARIABLE_NAME);
+		informationLevels.add(new InformationLevel(Constants.ROOT_GROUP_NAME, null, rootNames, Map.of()));
+
+		// Group datasets: variables are kept using their fully qualified names, then renamed
+		for (String groupName : multimodeVariablesMap.getSubGroupNames()) {
+			List<String> groupNames = new ArrayList<>();
+			groupNames.add(Constants.ROOT_IDENTIFIER_NAME);
+			groupNames.add(groupName);
+			Map<String, String> newNames = new LinkedHashMap<>();
+			for (String variableName : multimodeVariablesMap.getGroupVariableNames(groupName)) {
+				String fullyQualifiedName = multimodeVariablesMap.getFullyQualifiedName(variableName);
+				groupNames.add(fullyQualifiedName);
+				newNames.put(fullyQualifiedName, variableName);
+			}
+			groupNames.add(Constants.MODE_VARIABLE_NAME);
+			informationLevels.add(new InformationLevel(groupName, groupName, groupNames, newNames));
+		}
+		return informationLevels;
+	}
+
+	/** Duplicated rows are removed from the root and group datasets. */
+	@Override
+	protected List<String> getDatasetsToDeduplicate(String bindingName) {
+		List<String> datasetNames = new ArrayList<>();
+		datasetNames.add(Constants.ROOT_GROUP_NAME);
+		datasetNames.addAll(vtlBindings.getDatasetVariablesMap(bindingName).getSubGroupNames());
+		return datasetNames;
+	}
+
 }
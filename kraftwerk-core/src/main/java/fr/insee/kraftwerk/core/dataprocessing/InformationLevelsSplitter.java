@@ -0,0 +1,191 @@
+package fr.insee.kraftwerk.core.dataprocessing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.vtl.ColumnarDataset;
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.Dataset.Role;
+import fr.insee.vtl.model.Structured.Component;
+import fr.insee.vtl.model.Structured.DataPoint;
+import fr.insee.vtl.model.Structured.DataStructure;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Split of the multimode dataset into the information levels datasets without the VTL engine.
+ * <p>
+ * Each dataset is the same as the one produced by the VTL instructions of InformationLevelsProcessing
+ * (keep, filter on the group identifier, removal of the duplicates and rename). The multimode dataset is
+ * read once: each row is routed to the datasets it belongs to. The datasets are then built concurrently,
+ * on at most as many threads as the data parsing threads setting (see Constants.getDataParsingThreads).
+ * <p>
+ * If a rename can't be done (unknown variable, or name already used in the dataset), or if a group identifier
+ * is not in the multimode dataset, the split is not done here.
+ */
+@Log4j2
+class InformationLevelsSplitter {
+
+	private final Dataset multimodeDataset;
+	private final ColumnarDataset columnarDataset;
+	private final List<DataPoint> dataPoints;
+	private final int rowsCount;
+
+	InformationLevelsSplitter(Dataset multimodeDataset) {
+		this.multimodeDataset = multimodeDataset;
+		this.columnarDataset = multimodeDataset instanceof ColumnarDataset columnar ? columnar : null;
+		this.dataPoints = columnarDataset == null ? multimodeDataset.getDataPoints() : null;
+		this.rowsCount = columnarDataset != null ? columnarDataset.getRowsCount() : dataPoints.size();
+	}
+
+	/**
+	 * Return the information levels datasets.
+	 * @param informationLevels Information levels to be created.
+	 * @return A map with the name of the datasets as keys, null if the split can't be done without the VTL engine.
+	 */
+	Map<String, Dataset> split(List<InformationLevel> informationLevels) {
+		List<LevelSplit> levelSplits = new ArrayList<>();
+		for (InformationLevel informationLevel : informationLevels) {
+			LevelSplit levelSplit = new LevelSplit(informationLevel);
+			if (!levelSplit.isValid()) {
+				log.debug("Information level {} can't be created without the VTL engine", informationLevel.name());
+				return null;
+			}
+			levelSplits.add(levelSplit);
+		}
+		// Routing of the rows
+		for (int row = 0; row < rowsCount; row++) {
+			for (LevelSplit levelSplit : levelSplits) {
+				levelSplit.route(row);
+			}
+		}
+		// Datasets
+		int threads = Math.min(Constants.getDataParsingThreads(), levelSplits.size());
+		if (threads <= 1) {
+			Map<String, Dataset> datasets = new LinkedHashMap<>();
+			levelSplits.forEach(levelSplit -> datasets.put(levelSplit.informationLevel.name(), levelSplit.build()));
+			return datasets;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Dataset>> futures = new ArrayList<>();
+			for (LevelSplit levelSplit : levelSplits) {
+				futures.add(executor.submit(levelSplit::build));
+			}
+			Map<String, Dataset> datasets = new LinkedHashMap<>();
+			for (int i = 0; i < levelSplits.size(); i++) {
+				datasets.put(levelSplits.get(i).informationLevel.name(), futures.get(i).get());
+			}
+			return datasets;
+		} catch (InterruptedException e) {
+			log.error("Split of the information levels has been interrupted");
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			log.error("Unexpected error when splitting the information levels", e.getCause());
+			return null;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Object value(int row, int index) {
+		return columnarDataset != null ? columnarDataset.getColumn(index).get(row) : dataPoints.get(row).get(index);
+	}
+
+	/** Positions of the components of an information level in the multimode dataset, and the rows routed to it. */
+	private class LevelSplit {
+
+		private final InformationLevel informationLevel;
+		private final List<String> keptNames = new ArrayList<>();
+		private final List<Component> components = new ArrayList<>();
+		private final int[] keptIndexes;
+		private final int[] keyIndexes;
+		private final int groupIdentifierIndex;
+		private final Set<List<Object>> keys = new HashSet<>();
+		private int[] rows = new int[16];
+		private int routedCount = 0;
+
+		private LevelSplit(InformationLevel informationLevel) {
+			this.informationLevel = informationLevel;
+			DataStructure dataStructure = multimodeDataset.getDataStructure();
+			// As the VTL keep: components in the order of the dataset, unknown names are ignored
+			List<Integer> indexes = new ArrayList<>();
+			List<Integer> identifierIndexes = new ArrayList<>();
+			int index = 0;
+			for (Component component : dataStructure.values()) {
+				if (informationLevel.keptNames().contains(component.getName())) {
+					keptNames.add(component.getName());
+					String newName = informationLevel.newNames().getOrDefault(component.getName(), component.getName());
+					components.add(new Component(newName, component.getType(), component.getRole(), component.getNullable()));
+					indexes.add(index);
+					if (component.getRole() == Role.IDENTIFIER) {
+						identifierIndexes.add(index);
+					}
+				}
+				index++;
+			}
+			keptIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+			// Duplicates are found on the identifiers, on the whole rows if there is no identifier
+			keyIndexes = (identifierIndexes.isEmpty() ? indexes : identifierIndexes).stream()
+					.mapToInt(Integer::intValue).toArray();
+			groupIdentifierIndex = informationLevel.groupIdentifier() != null ?
+					dataStructure.indexOfKey(informationLevel.groupIdentifier()) : -1;
+		}
+
+		private boolean isValid() {
+			if (informationLevel.groupIdentifier() != null && groupIdentifierIndex < 0) {
+				return false;
+			}
+			Set<String> names = new HashSet<>();
+			components.forEach(component -> names.add(component.getName()));
+			return keptNames.containsAll(informationLevel.newNames().keySet()) && names.size() == components.size();
+		}
+
+		/** Add the row to the dataset, unless its group identifier is empty or its identifiers are already in. */
+		private void route(int row) {
+			if (groupIdentifierIndex >= 0) {
+				Object groupIdentifier = value(row, groupIdentifierIndex);
+				if (groupIdentifier == null || "".equals(groupIdentifier)) {
+					return;
+				}
+			}
+			Object[] key = new Object[keyIndexes.length];
+			for (int i = 0; i < key.length; i++) {
+				key[i] = value(row, keyIndexes[i]);
+			}
+			if (keys.add(Arrays.asList(key))) {
+				if (routedCount == rows.length) {
+					rows = Arrays.copyOf(rows, rows.length * 2);
+				}
+				rows[routedCount++] = row;
+			}
+		}
+
+		private Dataset build() {
+			int[] routedRows = Arrays.copyOf(rows, routedCount);
+			if (columnarDataset != null) {
+				return columnarDataset.keep(keptNames).selectRows(routedRows).rename(informationLevel.newNames());
+			}
+			ColumnarDataset.Builder builder = ColumnarDataset.builder(components);
+			for (int row : routedRows) {
+				Object[] values = new Object[keptIndexes.length];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = value(row, keptIndexes[i]);
+				}
+				builder.addRow(values);
+			}
+			return builder.build();
+		}
+	}
+
+}
@@ -0,0 +1,235 @@
+package fr.insee.kraftwerk.core.dataprocessing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import fr.insee.kraftwerk.core.vtl.ColumnarDataset;
+import fr.insee.kraftwerk.core.vtl.DatasetColumn;
+import fr.insee.kraftwerk.core.vtl.VtlBindings;
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.Dataset.Role;
+import fr.insee.vtl.model.Structured.Component;
+import fr.insee.vtl.model.Structured.DataStructure;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Reconciliation of the unimodal datasets without the VTL engine.
+ * <p>
+ * The multimode dataset is the same as the one produced by the VTL instructions of ReconciliationProcessing:
+ * <ul>
+ *     <li>the rows are the rows of the union of the unimodal datasets on their common measures (integer measures
+ *     being cast into numbers). As in the VTL union, a row whose identifiers are already in a previous dataset
+ *     is ignored;</li>
+ *     <li>the mode specific variables are then joined on the identifiers (as the VTL left joins, the mode
+ *     is not part of the join).</li>
+ * </ul>
+ * Each unimodal dataset is indexed once on its identifiers, and the rows of the multimode dataset are found in a
+ * single pass. The multimode dataset is made of the rows selected in the unimodal datasets (see
+ * ColumnarDataset.selectRows and concat): the values shared by the unimodal datasets (e.g. the root variables of
+ * normalized datasets) are still shared, and the integer common measures are converted when they are read.
+ * <p>
+ * The datasets for which the VTL instructions would fail or give a specific structure (different identifiers,
+ * incompatible types, variable specific to several modes, duplicated identifiers...) are not reconciled here.
+ * The unimodal datasets are not modified.
+ */
+@Log4j2
+class NativeReconciliation {
+
+	private final VtlBindings vtlBindings;
+	private final String modeVariableIdentifier;
+
+	NativeReconciliation(VtlBindings vtlBindings, String modeVariableIdentifier) {
+		this.vtlBindings = vtlBindings;
+		this.modeVariableIdentifier = modeVariableIdentifier;
+	}
+
+	/**
+	 * Return the multimode dataset.
+	 *
+	 * @param datasetNames   Names of the unimodal datasets, in the order of the union.
+	 * @param identifiers    Identifiers of the unimodal datasets.
+	 * @param commonMeasures Measures that are in every unimodal dataset.
+	 *
+	 * @return The multimode dataset, null if the datasets can't be reconciled without the VTL engine.
+	 */
+	Dataset reconcile(List<String> datasetNames, Set<String> identifiers, Set<String> commonMeasures) {
+		List<UnimodalDataset> unimodalDatasets = new ArrayList<>();
+		for (String datasetName : datasetNames) {
+			unimodalDatasets.add(new UnimodalDataset(datasetName, vtlBindings.getDataset(datasetName)));
+		}
+		// Components of the multimode dataset
+		DataStructure firstStructure = unimodalDatasets.get(0).dataset.getDataStructure();
+		List<Component> components = new ArrayList<>();
+		List<String> identifierNames = new ArrayList<>();
+		List<String> commonMeasureNames = new ArrayList<>();
+		for (Component component : firstStructure.values()) {
+			if (identifiers.contains(component.getName())) {
+				identifierNames.add(component.getName());
+				components.add(component);
+			} else if (commonMeasures.contains(component.getName())) {
+				commonMeasureNames.add(component.getName());
+				components.add(new Component(component.getName(), numberType(component.getType()),
+						component.getRole(), component.getNullable()));
+			}
+		}
+		components.add(new Component(modeVariableIdentifier, String.class, Role.IDENTIFIER));
+		Set<String> otherMeasureNames = new HashSet<>();
+		for (UnimodalDataset unimodalDataset : unimodalDatasets) {
+			for (Component component : unimodalDataset.dataset.getDataStructure().values()) {
+				String name = component.getName();
+				if (!identifiers.contains(name) && !commonMeasures.contains(name)) {
+					if (!otherMeasureNames.add(name)) {
+						log.debug("Variable {} is specific to several modes", name);
+						return null;
+					}
+					unimodalDataset.otherMeasureNames.add(name);
+					components.add(component);
+				}
+			}
+		}
+		// Checks and indexes
+		for (UnimodalDataset unimodalDataset : unimodalDatasets) {
+			if (!unimodalDataset.isCompatible(firstStructure, identifierNames, commonMeasureNames)
+					|| !unimodalDataset.index(identifierNames, commonMeasureNames)) {
+				log.debug("Dataset {} can't be reconciled without the VTL engine", unimodalDataset.name);
+				return null;
+			}
+		}
+		// Union and joins: rows of each unimodal dataset in the multimode dataset, and the joined rows
+		Set<List<Object>> unionKeys = new HashSet<>();
+		List<ColumnarDataset> parts = new ArrayList<>();
+		for (UnimodalDataset unimodalDataset : unimodalDatasets) {
+			int[] unionRows = new int[unimodalDataset.rowsCount];
+			int[][] joinedRows = new int[unimodalDatasets.size()][unimodalDataset.rowsCount];
+			int unionCount = 0;
+			for (int row = 0; row < unimodalDataset.rowsCount; row++) {
+				List<Object> key = unimodalDataset.key(row);
+				if (unionKeys.add(key)) {
+					unionRows[unionCount] = row;
+					for (int i = 0; i < unimodalDatasets.size(); i++) {
+						Integer joinedRow = unimodalDatasets.get(i).rowsIndex.get(key);
+						joinedRows[i][unionCount] = joinedRow != null ? joinedRow : -1;
+					}
+					unionCount++;
+				}
+			}
+			parts.add(multimodePart(unimodalDataset, Arrays.copyOf(unionRows, unionCount),
+					joinedRows, unionCount, unimodalDatasets, components));
+		}
+		return ColumnarDataset.concat(components, parts);
+	}
+
+	/**
+	 * Return the rows of the multimode dataset from the given unimodal dataset.
+	 * @param unionRows  Rows of the unimodal dataset in the union.
+	 * @param joinedRows For each unimodal dataset, the row joined to each row of the union (-1 if none).
+	 */
+	private ColumnarDataset multimodePart(UnimodalDataset unimodalDataset, int[] unionRows, int[][] joinedRows,
+										  int rowsCount, List<UnimodalDataset> unimodalDatasets, List<Component> components) {
+		ColumnarDataset unionDataset = unimodalDataset.dataset.selectRows(unionRows);
+		ColumnarDataset part = unionDataset.keep(Set.of());
+		int i = 0;
+		for (String identifierName : unimodalDataset.identifierNames) {
+			part = part.withColumn(components.get(i++), unionDataset.getColumn(identifierName));
+		}
+		for (String measureName : unimodalDataset.commonMeasureNames) {
+			ColumnarDataset measureDataset = unionDataset.getDataStructure().get(measureName).getType() == Long.class ?
+					unionDataset.castToNumber(measureName) : unionDataset;
+			part = part.withColumn(components.get(i++), measureDataset.getColumn(measureName));
+		}
+		part = part.withConstant(components.get(i++), unimodalDataset.name);
+		for (int j = 0; j < unimodalDatasets.size(); j++) {
+			UnimodalDataset joinedDataset = unimodalDatasets.get(j);
+			if (joinedDataset.otherMeasureNames.isEmpty()) {
+				continue;
+			}
+			ColumnarDataset joinedPart = joinedDataset == unimodalDataset ? unionDataset :
+					joinedDataset.dataset.keep(joinedDataset.otherMeasureNames)
+							.selectRows(Arrays.copyOf(joinedRows[j], rowsCount));
+			for (String measureName : joinedDataset.otherMeasureNames) {
+				part = part.withColumn(components.get(i++), joinedPart.getColumn(measureName));
+			}
+		}
+		return part;
+	}
+
+	/** Type of a common measure in the multimode dataset: integer measures are cast into numbers. */
+	private static Class<?> numberType(Class<?> type) {
+		return type == Long.class ? Double.class : type;
+	}
+
+	/** Unimodal dataset, with its identifier columns and the index of the rows on the identifiers. */
+	private class UnimodalDataset {
+
+		private final String name;
+		/** The unimodal dataset, copied in columns if it is not a columnar dataset. */
+		private final ColumnarDataset dataset;
+		private final int rowsCount;
+		private final List<String> otherMeasureNames = new ArrayList<>();
+		private List<String> identifierNames;
+		private List<String> commonMeasureNames;
+		private DatasetColumn[] identifierColumns;
+		private final Map<List<Object>, Integer> rowsIndex = new HashMap<>();
+
+		private UnimodalDataset(String name, Dataset dataset) {
+			this.name = name;
+			this.dataset = ColumnarDataset.copyOf(dataset);
+			this.rowsCount = this.dataset.getRowsCount();
+		}
+
+		/** Check that the components have the same roles and types (after the casts) in the datasets. */
+		private boolean isCompatible(DataStructure firstStructure, List<String> identifierNames, List<String> commonMeasureNames) {
+			DataStructure dataStructure = dataset.getDataStructure();
+			if (dataStructure.containsKey(modeVariableIdentifier)) {
+				return false;
+			}
+			for (Component component : dataStructure.values()) {
+				if (component.getRole() != Role.IDENTIFIER && component.getRole() != Role.MEASURE) {
+					return false;
+				}
+			}
+			for (String identifierName : identifierNames) {
+				Component component = dataStructure.get(identifierName);
+				if (component == null || component.getRole() != Role.IDENTIFIER
+						|| component.getType() != firstStructure.get(identifierName).getType()) {
+					return false;
+				}
+			}
+			for (String measureName : commonMeasureNames) {
+				if (numberType(dataStructure.get(measureName).getType())
+						!= numberType(firstStructure.get(measureName).getType())) {
+					return false;
+				}
+			}
+			return dataStructure.values().stream().filter(component -> component.getRole() == Role.IDENTIFIER)
+					.count() == identifierNames.size();
+		}
+
+		/** Index the rows on the identifiers. Return false if some identifiers are duplicated. */
+		private boolean index(List<String> identifierNames, List<String> commonMeasureNames) {
+			this.identifierNames = identifierNames;
+			this.commonMeasureNames = commonMeasureNames;
+			identifierColumns = identifierNames.stream().map(dataset::getColumn).toArray(DatasetColumn[]::new);
+			for (int row = 0; row < rowsCount; row++) {
+				if (rowsIndex.put(key(row), row) != null) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private List<Object> key(int row) {
+			Object[] key = new Object[identifierColumns.length];
+			for (int i = 0; i < key.length; i++) {
+				key[i] = identifierColumns[i].get(row);
+			}
+			return Arrays.asList(key);
+		}
+	}
+
+}
@@ -8,9 +8,11 @@ import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.KraftwerkError;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.kraftwerk.core.vtl.VtlMacros;
 import fr.insee.kraftwerk.core.vtl.VtlScript;
+import fr.insee.vtl.model.Dataset;
 import fr.insee.vtl.model.Dataset.Role;
 import fr.insee.vtl.model.Structured;
 import lombok.extern.log4j.Log4j2;
@@ -19,6 +21,8 @@ import lombok.extern.log4j.Log4j2;
 public class ReconciliationProcessing extends DataProcessing {
 
 	private final String modeVariableIdentifier;
+	/** If true, the multimode dataset is built without the VTL engine when possible (see NativeReconciliation). */
+	private boolean nativeReconciliation = false;
 
 	/** Return processing instance with default mode variable name. */
 	public ReconciliationProcessing(VtlBindings vtlBindings) {
@@ -26,6 +30,12 @@ public class ReconciliationProcessing extends DataProcessing {
 		this.modeVariableIdentifier = Constants.MODE_VARIABLE_NAME;
 	}
 
+	/** Return processing instance with default mode variable name, using the native reconciliation if asked. */
+	public ReconciliationProcessing(VtlBindings vtlBindings, boolean nativeReconciliation) {
+		this(vtlBindings);
+		this.nativeReconciliation = nativeReconciliation;
+	}
+
 	/** Return processing instance with mode variable name given. */
 	public ReconciliationProcessing(VtlBindings vtlBindings, String modeVariableName) {
 		super(vtlBindings);
@@ -37,6 +47,25 @@ public class ReconciliationProcessing extends DataProcessing {
 		return "RECONCILIATION";
 	}
 
+	/**
+	 * With the native reconciliation, the multimode dataset is built without the VTL engine when there are several
+	 * modes. The VTL instructions are used otherwise, or if the datasets can't be reconciled natively.
+	 */
+	@Override
+	protected String applyAutomatedVtlInstructions(String bindingName, List<KraftwerkError> errors) {
+		List<String> datasetNames = vtlBindings.getDatasetNames();
+		if (nativeReconciliation && datasetNames.size() > 1) {
+			Dataset multimodeDataset = new NativeReconciliation(vtlBindings, modeVariableIdentifier)
+					.reconcile(datasetNames, getIdentifiers(), getCommonMeasures());
+			if (multimodeDataset != null) {
+				vtlBindings.put(bindingName, multimodeDataset);
+				return String.format("/* %s: native reconciliation of %s */", bindingName, String.join(", ", datasetNames));
+			}
+			log.info("Native reconciliation not possible on these datasets, VTL instructions used instead.");
+		}
+		return super.applyAutomatedVtlInstructions(bindingName, errors);
+	}
+
 	/**
 	 * Generate VTL instructions to aggregate all the unimodal datasets. The binding
 	 * name here is the name of the dataset that will be created, which is the
@@ -1,5 +1,7 @@
 package fr.insee.kraftwerk.core.dataprocessing;
 
+import java.util.List;
+
 import fr.insee.kraftwerk.core.metadata.VariablesMap;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.kraftwerk.core.vtl.VtlScript;
@@ -27,4 +29,10 @@ public abstract class UnimodalDataProcessing extends DataProcessing {
      * @return a String of VTL instructions
      */
     public abstract VtlScript generateVtlInstructions(String bindingName);
+
+    /** Duplicated rows are removed from the unimodal dataset. */
+    @Override
+    protected List<String> getDatasetsToDeduplicate(String bindingName) {
+        return List.of(bindingName);
+    }
 }
@@ -19,18 +19,14 @@ public class XformsDataProcessing extends UnimodalDataProcessing {
     }
 
     /**
-     * There is only the removal of duplicates as VTL automated data processing for data that comes from Coleman at the moment.
+     * There is no VTL automated data processing for data that comes from Coleman at the moment
+     * (duplicates are removed without VTL, see UnimodalDataProcessing).
      *
      * @param bindingName The name of the dataset in the bindings.
      *
      * @return ""
      */
     public VtlScript generateVtlInstructions(String bindingName) {
-        // Write the VTL instructions
-        VtlScript vtlScript = new VtlScript();
-
-        // To delete duplicates, to be eventually reviewed with a better VTL solution
-        vtlScript.add(String.format("%1$s := union(%1$s,%1$s);",bindingName));
-        return vtlScript;
+        return new VtlScript();
     }
 }
@@ -1,65 +1,69 @@
 package fr.insee.kraftwerk.core.extradata.reportingdata;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
-import com.opencsv.CSVParser;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvValidationException;
 
+import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.exceptions.NullException;
 import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+import fr.insee.kraftwerk.core.utils.CsvChunkReader;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
 public class CSVReportingDataParser extends ReportingDataParser {
 
-	private CSVReader csvReader;
-
 	public void parseReportingData(ReportingData reportingData, SurveyRawData data, boolean withAllReportingData) throws NullException {
 		Path filePath = reportingData.getFilepath();
-	    try{
-	    	readFile(filePath);
-	    } catch (NullPointerException e) {
-	    	throw new NullException();
-	    }
-	    
-		try {
-			String[] header = this.csvReader.readNext();
-			if (controlHeader(header)) {
-				String[] nextRecord;
-				while ((nextRecord = this.csvReader.readNext()) != null) {
-					String rowIdentifier = nextRecord[2];
-					String rowState = nextRecord[0];
-					String rowTimestamp = nextRecord[1];
-					State state = new State(rowState, convertToTimestamp(rowTimestamp));
-					if (reportingData.containsReportingDataUE(rowIdentifier)) {
-						ReportingDataUE reportingDataUE1 = reportingData.getListReportingDataUE().stream().filter(
-								reportingDataUEToSearch -> rowIdentifier.equals(reportingDataUEToSearch.getIdentifier()))
-								.findAny().orElse(null);
-						if (reportingDataUE1 != null) {
-							reportingDataUE1.addState(state);
-							reportingDataUE1.sortStates();
-						}
+		if (filePath == null) {
+			throw new NullException();
+		}
+
+		try (CsvChunkReader csvChunkReader = new CsvChunkReader(filePath, ',', Charset.defaultCharset(),
+				Constants.getDataParsingThreads())) {
+			String[] header = csvChunkReader.readHeader();
+			if (header != null && controlHeader(header)) {
+				// Rows are converted concurrently, then added in file order
+				List<Map.Entry<String, State>> rowStates = csvChunkReader.readRecords(
+						nextRecord -> Map.entry(nextRecord[2], new State(nextRecord[0], convertToTimestamp(nextRecord[1]))));
+				Map<String, ReportingDataUE> reportingDataUEById = new HashMap<>();
+				for (ReportingDataUE reportingDataUE : reportingData.getListReportingDataUE()) {
+					reportingDataUEById.putIfAbsent(reportingDataUE.getIdentifier(), reportingDataUE);
+				}
+				Set<ReportingDataUE> reportingDataUEsToSort = new LinkedHashSet<>();
+				for (Map.Entry<String, State> rowState : rowStates) {
+					String rowIdentifier = rowState.getKey();
+					ReportingDataUE reportingDataUE = reportingDataUEById.get(rowIdentifier);
+					if (reportingDataUE != null) {
+						reportingDataUE.addState(rowState.getValue());
+						reportingDataUEsToSort.add(reportingDataUE);
 						continue;
 					}
-					ReportingDataUE reportingDataUE = new ReportingDataUE(rowIdentifier);
-					reportingDataUE.addState(state);
+					reportingDataUE = new ReportingDataUE(rowIdentifier);
+					reportingDataUE.addState(rowState.getValue());
 					reportingData.addReportingDataUE(reportingDataUE);
+					reportingDataUEById.put(rowIdentifier, reportingDataUE);
 				}
+				reportingDataUEsToSort.forEach(ReportingDataUE::sortStates);
 				integrateReportingDataIntoUE(data, reportingData, withAllReportingData);
 			} else {
 				log.error("Following CSV file is malformed : {}", filePath);
 			}
+		} catch (NoSuchFileException e) {
+			log.error("Unable to find the file {}, NoSuchFileException {}", filePath, e);
 		} catch (CsvValidationException e) {
 			log.error("Following CSV file is malformed : {}, CsvValidationException {} ", filePath, e.getMessage());
 		} catch (IOException e) {
@@ -89,15 +93,4 @@ public class CSVReportingDataParser extends ReportingDataParser {
 				&& header[4].contentEquals("nom") && header[5].contentEquals("prenom")
 				&& header[6].contentEquals("adresse") && header[7].contentEquals("numeroDeLot"));
 	}
-
-	private void readFile(Path filePath) {
-		try {
-			FileReader filereader = new FileReader(filePath.toString());
-			this.csvReader = new CSVReader(filereader);
-			CSVParser parser = (new CSVParserBuilder()).withSeparator(',').build();
-			this.csvReader = (new CSVReaderBuilder(filereader)).withCSVParser(parser).build();
-		} catch (FileNotFoundException e) {
-			log.error("Unable to find the file {}, FileNotFoundException {}", filePath, e);
-		}
-	}
 }
@@ -48,6 +48,12 @@ public class UserInputs {
 	@Getter
 	@Setter
 	private Path vtlInformationLevelsFile;
+	@Getter
+	@Setter
+	private boolean nativeReconciliation;
+	@Getter
+	@Setter
+	private boolean normalizedDatasets;
 
 	private final Set<String> mandatoryFields = Set.of("survey_data", "data_mode", "data_file", 			"data_format", "multimode_dataset_name");
 
@@ -95,6 +101,8 @@ public class UserInputs {
 			vtlReconciliationFile = convertToPath(readField(userInputs, "reconciliation_specifications"));
 			vtlTransformationsFile = convertToPath(readField(userInputs, "transformation_specifications"));
 			vtlInformationLevelsFile = convertToPath(readField(userInputs, "information_levels_specifications"));
+			nativeReconciliation = Boolean.parseBoolean(readField(userInputs, "native_reconciliation"));
+			normalizedDatasets = Boolean.parseBoolean(readField(userInputs, "normalized_datasets"));
 
 		} catch (IOException e) {
 			log.error("Unable to read user input file: {} , {}", userInputFile, e);
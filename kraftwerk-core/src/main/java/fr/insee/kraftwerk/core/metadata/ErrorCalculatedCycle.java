@@ -0,0 +1,39 @@
+package fr.insee.kraftwerk.core.metadata;
+
+import fr.insee.kraftwerk.core.KraftwerkError;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Objects;
+import java.util.Set;
+
+@AllArgsConstructor
+public class ErrorCalculatedCycle extends KraftwerkError {
+
+    @Getter
+    @Setter
+    private Set<String> unresolvedVariables;
+
+    @Getter
+    @Setter
+    private String dataMode;
+
+    @Override
+    public String toString() {
+        return  String.format("Warning : Calculated variables %s (DataMode: %s) depend on each other and will not be calculated",unresolvedVariables,dataMode) + "\n";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ErrorCalculatedCycle that = (ErrorCalculatedCycle) o;
+        return Objects.equals(unresolvedVariables, that.unresolvedVariables) && Objects.equals(dataMode, that.dataMode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(unresolvedVariables, dataMode);
+    }
+}
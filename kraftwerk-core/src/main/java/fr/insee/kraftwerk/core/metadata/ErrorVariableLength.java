@@ -14,6 +14,10 @@ public class ErrorVariableLength extends KraftwerkError {
     @Setter
     private Variable variable;
 
+    @Getter
+    @Setter
+    private int maxLengthData;
+
     @Getter
     @Setter
     private String dataMode;
@@ -21,7 +25,7 @@ public class ErrorVariableLength extends KraftwerkError {
     @Override
     public String toString() {
         return  String.format("Warning : The maximum length read for variable %s (DataMode: %s) exceed expected length",variable.getName(),dataMode) + "\n" +
-                String.format("Expected: %s but received: %d",variable.getExpectedLength(),variable.getMaxLengthData()) + "\n";
+                String.format("Expected: %s but received: %d",variable.getExpectedLength(),maxLengthData) + "\n";
     }
 
     @Override
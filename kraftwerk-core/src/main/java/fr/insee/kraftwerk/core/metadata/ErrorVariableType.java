@@ -0,0 +1,47 @@
+package fr.insee.kraftwerk.core.metadata;
+
+import fr.insee.kraftwerk.core.KraftwerkError;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Objects;
+
+@AllArgsConstructor
+public class ErrorVariableType extends KraftwerkError {
+
+    @Getter
+    @Setter
+    private Variable variable;
+
+    @Getter
+    @Setter
+    private String dataMode;
+
+    @Getter
+    @Setter
+    private int invalidValuesCount;
+
+    @Getter
+    @Setter
+    private String invalidValueExample;
+
+    @Override
+    public String toString() {
+        return  String.format("Warning : %d values read for variable %s (DataMode: %s) can't be converted to type %s",invalidValuesCount,variable.getName(),dataMode,variable.getType()) + "\n" +
+                String.format("Example of invalid value: \"%s\"",invalidValueExample) + "\n";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ErrorVariableType that = (ErrorVariableType) o;
+        return Objects.equals(variable.getName(), that.variable.getName()) && Objects.equals(dataMode, that.dataMode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(variable.getName(), dataMode);
+    }
+}
@@ -1,5 +1,7 @@
 package fr.insee.kraftwerk.core.metadata;
 
+import java.io.Serializable;
+
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -11,7 +13,9 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 @Getter
 @Setter
-public class Group {
+public class Group implements Serializable {
+
+    private static final long serialVersionUID = 2617328446962738185L;
 
     protected String name;
     protected String parentName;
@@ -0,0 +1,190 @@
+package fr.insee.kraftwerk.core.metadata;
+
+import static fr.insee.kraftwerk.core.Constants.FILTER_RESULT_PREFIX;
+import static fr.insee.kraftwerk.core.Constants.MISSING_SUFFIX;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.metadata.CalculatedVariables.CalculatedVariable;
+import fr.insee.kraftwerk.core.utils.JsonFileReader;
+
+/**
+ * Lunatic questionnaire, read once and shared by the readers of the questionnaire (see LunaticReader).
+ * <p>
+ * The views of the questionnaire are computed from the json tree when the questionnaire is built, and the tree
+ * is not kept. The questionnaire is immutable: the lists returned are unmodifiable, and the maps
+ * (calculated variables, variables) are new objects at each call, that the caller can modify.
+ * A view that can't be read from the questionnaire doesn't prevent the others from being read:
+ * its getter throws the exception thrown when reading it.
+ */
+public class LunaticQuestionnaire {
+
+	private static final String BINDING_DEPENDENCIES = "bindingDependencies";
+	private static final String VARIABLES = "variables";
+
+	private final Supplier<String> questionnaireModelId;
+	private final Supplier<List<String>> variableNames;
+	private final Supplier<List<CalculatedVariable>> calculatedVariables;
+	private final Supplier<VariablesMap> variablesMap;
+
+	LunaticQuestionnaire(JsonNode rootNode) {
+		questionnaireModelId = view(() -> rootNode.get("id").asText());
+		variableNames = view(() -> readVariableNames(rootNode));
+		calculatedVariables = view(() -> readCalculatedVariables(rootNode));
+		variablesMap = view(() -> readVariablesMap(rootNode, variableNames.get()));
+	}
+
+	/** Read a view of the questionnaire, return a supplier of the view or of the exception thrown. */
+	private static <T> Supplier<T> view(Supplier<T> reader) {
+		try {
+			T value = reader.get();
+			return () -> value;
+		} catch (RuntimeException e) {
+			return () -> {
+				throw e;
+			};
+		}
+	}
+
+	/** Return the questionnaire model id. */
+	public String getQuestionnaireModelId() {
+		return questionnaireModelId.get();
+	}
+
+	/** Return the names of all the variables of the questionnaire, in the order of the questionnaire. */
+	public List<String> getVariableNames() {
+		return variableNames.get();
+	}
+
+	/** Return the names of the _MISSING variables and the collected variables added by Eno. */
+	public List<String> getMissingVariables() {
+		List<String> varsEno = Arrays.asList(Constants.getEnoVariables());
+		return getVariableNames().stream()
+				.filter(varToRead -> varToRead.endsWith(MISSING_SUFFIX) || varsEno.contains(varToRead)).toList();
+	}
+
+	/** Return the names of the FILTER_RESULT variables. */
+	public List<String> getFilterResults() {
+		return getVariableNames().stream().filter(variable -> variable.startsWith(FILTER_RESULT_PREFIX)).toList();
+	}
+
+	/** Return the VTL expression and the dependencies of the calculated variables. */
+	public CalculatedVariables getCalculatedVariables() {
+		CalculatedVariables calculatedVariablesMap = new CalculatedVariables();
+		calculatedVariables.get().forEach(calculatedVariable -> calculatedVariablesMap.putVariable(
+				new CalculatedVariable(calculatedVariable.getName(), calculatedVariable.getVtlExpression(),
+						new ArrayList<>(calculatedVariable.getDependantVariables()))));
+		return calculatedVariablesMap;
+	}
+
+	/** Return the variables of the questionnaire, in groups built from the loops. */
+	public VariablesMap getVariablesMap() {
+		return variablesMap.get().overlay();
+	}
+
+	private static List<String> readVariableNames(JsonNode rootNode) {
+		List<String> variables = new ArrayList<>();
+		JsonNode variablesNode = rootNode.get(VARIABLES);
+		variablesNode.forEach(variableNode -> variables.add(variableNode.get("name").asText()));
+		return List.copyOf(variables);
+	}
+
+	private static List<CalculatedVariable> readCalculatedVariables(JsonNode rootNode) {
+		String lunaticModelVersion = rootNode.get("lunaticModelVersion").toString();
+		boolean isLunaticV2 = JsonFileReader.compareVersions(lunaticModelVersion.replace("\"", ""), "2.3.0") > 0;
+
+		List<CalculatedVariable> calculatedVariablesList = new ArrayList<>();
+
+		JsonNode variablesNode = rootNode.get(VARIABLES);
+		variablesNode.forEach(variableNode -> {
+			if (variableNode.get("variableType").asText().equals("CALCULATED")) {
+				String formula = isLunaticV2 ? variableNode.get("expression").get("value").asText()
+						: variableNode.get("expression").asText();
+				List<String> dependantVariables = new ArrayList<>();
+				JsonNode dependantVariablesNode = variableNode.get(BINDING_DEPENDENCIES);
+				if (dependantVariablesNode != null) {
+					dependantVariablesNode.forEach(name -> dependantVariables.add(name.asText()));
+				}
+				calculatedVariablesList.add(new CalculatedVariable(variableNode.get("name").asText(), formula,
+						List.copyOf(dependantVariables)));
+			}
+		});
+
+		return List.copyOf(calculatedVariablesList);
+	}
+
+	private static VariablesMap readVariablesMap(JsonNode rootNode, List<String> variableNames) {
+		List<String> variables = new ArrayList<>(variableNames);
+		JsonNode componentsNode = rootNode.get("components");
+		// Root group is created in VariablesMap constructor
+		VariablesMap variablesMap = new VariablesMap();
+		if (componentsNode.isArray()) {
+			int i = 1;
+			for (JsonNode component : componentsNode) {
+				if (component.get("componentType").asText().equals("Loop")) {
+					// No imbricated loops so the parent is the root group
+					Group group = getNewGroup(variablesMap, i);
+					i++;
+					iterateOnBindingsDependencies(variables, variablesMap, component, group);
+					iterateOnComponents(rootNode, variables, variablesMap, group);
+				}
+			}
+		}
+
+		// We get the root group
+		Group rootGroup = variablesMap.getGroup(variablesMap.getGroupNames().get(0));
+		variables.forEach(
+				varName -> variablesMap.putVariable(new Variable(varName, rootGroup, VariableType.STRING)));
+		return variablesMap;
+	}
+
+	private static Group getNewGroup(VariablesMap variablesMap, int i) {
+		Group group = new Group(String.format("BOUCLE%d", i), Constants.ROOT_GROUP_NAME);
+		variablesMap.putGroup(group);
+		return group;
+	}
+
+	private static Group getNewGroup(VariablesMap variablesMap, String newName) {
+		Group group = new Group(newName, Constants.ROOT_GROUP_NAME);
+		variablesMap.putGroup(group);
+		return group;
+	}
+
+	private static void iterateOnComponents(JsonNode rootNode, List<String> variables, VariablesMap variablesMap,
+			Group group) {
+		JsonNode loopComponentsNode = rootNode.get("components");
+		if (loopComponentsNode.isArray()) {
+			for (JsonNode componentInLoop : loopComponentsNode) {
+				if (componentInLoop.get("componentType").asText().equals("Loop")) {
+					Group subgroup = getNewGroup(variablesMap, group.getName().concat(componentInLoop.asText()));
+					iterateOnBindingsDependencies(variables, variablesMap, componentInLoop, subgroup);
+					iterateOnComponents(componentInLoop, variables, variablesMap, subgroup);
+				}
+				else {
+					iterateOnBindingsDependencies(variables, variablesMap, componentInLoop, group);
+				}
+			}
+		}
+	}
+
+
+	private static void iterateOnBindingsDependencies(List<String> variables, VariablesMap variablesMap,
+			JsonNode component, Group group) {
+		if (component.has(BINDING_DEPENDENCIES)) {
+			JsonNode loopVariables = component.get(BINDING_DEPENDENCIES);
+			loopVariables.forEach(variable -> {
+				if (variables.contains(variable.asText())) {
+					variablesMap.putVariable(new Variable(variable.asText(), group, VariableType.STRING));
+					variables.remove(variable.asText());
+				}
+			});
+		}
+	}
+
+}
@@ -11,6 +11,8 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class McqVariable extends Variable {
 
+	private static final long serialVersionUID = 3519870612830374105L;
+
 	/** Text associated with the modality. */
 	@Getter
 	@Setter
@@ -0,0 +1,253 @@
+package fr.insee.kraftwerk.core.metadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import fr.insee.kraftwerk.core.Constants;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Cache of the variables maps read from the metadata files (DDI and Lunatic questionnaire).
+ * <p>
+ * The entries are keyed by a hash of the content of the files and of the version of the cache
+ * (see CACHE_FORMAT_VERSION), so that a modified file, or a file read by another version, is read again.
+ * A remote DDI is not downloaded to compute the key: its URL and the validators sent by the server
+ * (ETag, Last-Modified) are hashed instead, and it is not cached if the server sends none.
+ * The variables maps kept are never modified: each read of the cache returns an overlay of the variables map
+ * (see VariablesMap.overlay), that can be modified by the caller.
+ * The most recently used entries are kept in memory (see Constants.getMetadataCacheSize). If a cache folder is
+ * set (see Constants.getMetadataCacheFolder), the entries are also written serialized in this folder, so that they
+ * are kept from one run to the other.
+ */
+@Log4j2
+public class MetadataCache {
+
+	private static final String CACHE_FILE_EXTENSION = ".ser";
+
+	/**
+	 * Version of the variables maps cached, part of the key of the entries. It must be incremented when the
+	 * variables maps read from the same files change (DDI transformation, VariablesHandler, LunaticReader,
+	 * metadata classes), so that the cache files written by a previous version are not read.
+	 * The implementation version of Kraftwerk is also part of the key when it is known.
+	 */
+	private static final int CACHE_FORMAT_VERSION = 1;
+
+	/**
+	 * Classes of a serialized variables map, any other class in a cache file is rejected.
+	 * Map.Entry and Object are the element types of the arrays checked when the collections are read.
+	 */
+	private static final ObjectInputFilter CACHE_FILE_FILTER = ObjectInputFilter.Config.createFilter(
+			"fr.insee.kraftwerk.core.metadata.VariablesMap;"
+			+ "fr.insee.kraftwerk.core.metadata.Variable;"
+			+ "fr.insee.kraftwerk.core.metadata.Group;"
+			+ "fr.insee.kraftwerk.core.metadata.McqVariable;"
+			+ "fr.insee.kraftwerk.core.metadata.UcqVariable;"
+			+ "fr.insee.kraftwerk.core.metadata.UcqModality;"
+			+ "fr.insee.kraftwerk.core.metadata.PaperUcq;"
+			+ "fr.insee.kraftwerk.core.metadata.VariableType;"
+			+ "java.util.LinkedHashMap;java.util.HashMap;java.util.Map$Entry;java.util.ArrayList;"
+			+ "java.util.concurrent.ConcurrentHashMap;java.util.concurrent.ConcurrentHashMap$Segment;"
+			+ "java.util.concurrent.locks.ReentrantLock;java.util.concurrent.locks.ReentrantLock$Sync;"
+			+ "java.util.concurrent.locks.ReentrantLock$NonfairSync;"
+			+ "java.util.concurrent.locks.AbstractQueuedSynchronizer;"
+			+ "java.util.concurrent.locks.AbstractOwnableSynchronizer;"
+			+ "java.lang.Enum;java.lang.String;java.lang.Integer;java.lang.Number;java.lang.Object;"
+			+ "!*");
+
+	/** Variables maps read, in access order. */
+	private final LinkedHashMap<String, VariablesMap> entries = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 4385125781553236514L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, VariablesMap> eldest) {
+			return size() > Constants.getMetadataCacheSize();
+		}
+	};
+
+	/**
+	 * Return the variables map read from the given metadata files.
+	 * @param kind         Kind of reading of the files (the same files can give several variables maps).
+	 * @param ddiUrl       URL of the DDI, null if the DDI is not read.
+	 * @param lunaticFile  Path of the Lunatic questionnaire, null if there is none.
+	 * @param reader       Reader of the variables map, used if the variables map is not in the cache.
+	 *                     The reader returns null if the files can't be read.
+	 * @return A new variables map, null if it is not in the cache and the reader returns null.
+	 */
+	public VariablesMap getVariablesMap(String kind, URL ddiUrl, Path lunaticFile, Supplier<VariablesMap> reader) {
+		String key = key(kind, ddiUrl, lunaticFile);
+		if (key == null) {
+			return reader.get();
+		}
+		VariablesMap variablesMap = getEntry(key);
+		if (variablesMap != null) {
+			log.info("Metadata read from the cache ({})", kind);
+			return variablesMap.overlay();
+		}
+		variablesMap = reader.get();
+		if (variablesMap == null) {
+			return null;
+		}
+		putEntry(key, variablesMap);
+		return variablesMap.overlay();
+	}
+
+	/** Remove all the entries kept in memory. */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	private VariablesMap getEntry(String key) {
+		synchronized (this) {
+			VariablesMap variablesMap = entries.get(key);
+			if (variablesMap != null) {
+				return variablesMap;
+			}
+		}
+		Path cacheFile = cacheFile(key);
+		if (cacheFile != null && Files.exists(cacheFile)) {
+			try {
+				VariablesMap variablesMap = deserialize(Files.readAllBytes(cacheFile));
+				if (variablesMap != null) {
+					synchronized (this) {
+						entries.put(key, variablesMap);
+					}
+				}
+				return variablesMap;
+			} catch (IOException e) {
+				log.warn("Unable to read metadata cache file {}", cacheFile, e);
+			}
+		}
+		return null;
+	}
+
+	private void putEntry(String key, VariablesMap variablesMap) {
+		synchronized (this) {
+			entries.put(key, variablesMap);
+		}
+		Path cacheFile = cacheFile(key);
+		byte[] serialized = cacheFile != null ? serialize(variablesMap) : null;
+		if (serialized != null) {
+			try {
+				Files.createDirectories(cacheFile.getParent());
+				// Written in a temp file first, so that a concurrent run never reads a partial file
+				Path tempFile = Files.createTempFile(cacheFile.getParent(), key, CACHE_FILE_EXTENSION);
+				Files.write(tempFile, serialized);
+				Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				log.warn("Unable to write metadata cache file {}", cacheFile, e);
+			}
+		}
+	}
+
+	private static Path cacheFile(String key) {
+		Path cacheFolder = Constants.getMetadataCacheFolder();
+		return cacheFolder != null ? cacheFolder.resolve(key + CACHE_FILE_EXTENSION) : null;
+	}
+
+	/**
+	 * Return a hash of the kind and of the content of the files, null if a file can't be read
+	 * or if a remote DDI has no validator.
+	 */
+	private static String key(String kind, URL ddiUrl, Path lunaticFile) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(String.format("%d %s%n", CACHE_FORMAT_VERSION,
+					MetadataCache.class.getPackage().getImplementationVersion()).getBytes(StandardCharsets.UTF_8));
+			digest.update(kind.getBytes(StandardCharsets.UTF_8));
+			if (ddiUrl != null && !isRemote(ddiUrl)) {
+				digest.update((byte) 1);
+				try (InputStream inputStream = ddiUrl.openStream()) {
+					update(digest, inputStream);
+				}
+			} else if (ddiUrl != null) {
+				String validators = remoteValidators(ddiUrl);
+				if (validators == null) {
+					log.debug("No validator sent for {}, the cache is not used", ddiUrl);
+					return null;
+				}
+				digest.update((byte) 3);
+				digest.update((ddiUrl + "\n" + validators).getBytes(StandardCharsets.UTF_8));
+			}
+			if (lunaticFile != null) {
+				digest.update((byte) 2);
+				try (InputStream inputStream = Files.newInputStream(lunaticFile)) {
+					update(digest, inputStream);
+				}
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (IOException | NoSuchAlgorithmException e) {
+			log.debug("Metadata files can't be hashed, the cache is not used", e);
+			return null;
+		}
+	}
+
+	private static boolean isRemote(URL url) {
+		return "http".equalsIgnoreCase(url.getProtocol()) || "https".equalsIgnoreCase(url.getProtocol());
+	}
+
+	/** Return the ETag and Last-Modified headers of the remote file, null if the server sends none. */
+	private static String remoteValidators(URL url) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		try {
+			connection.setRequestMethod("HEAD");
+			if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+				return null;
+			}
+			String eTag = connection.getHeaderField("ETag");
+			long lastModified = connection.getLastModified();
+			if (eTag == null && lastModified == 0) {
+				return null;
+			}
+			return eTag + "\n" + lastModified;
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private static void update(MessageDigest digest, InputStream inputStream) throws IOException {
+		byte[] buffer = new byte[65536];
+		int length;
+		while ((length = inputStream.read(buffer)) > 0) {
+			digest.update(buffer, 0, length);
+		}
+	}
+
+	private static byte[] serialize(VariablesMap variablesMap) {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+			objectOutputStream.writeObject(variablesMap);
+		} catch (IOException e) {
+			log.warn("Variables map can't be serialized, it is not cached", e);
+			return null;
+		}
+		return outputStream.toByteArray();
+	}
+
+	private static VariablesMap deserialize(byte[] serialized) {
+		try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			objectInputStream.setObjectInputFilter(CACHE_FILE_FILTER);
+			return (VariablesMap) objectInputStream.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			log.warn("Invalid metadata cache entry, metadata is read again", e);
+			return null;
+		}
+	}
+
+}
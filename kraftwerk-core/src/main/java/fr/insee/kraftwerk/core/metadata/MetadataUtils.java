@@ -3,6 +3,12 @@ package fr.insee.kraftwerk.core.metadata;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.exceptions.KraftwerkException;
@@ -12,19 +18,71 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class MetadataUtils {
 
+	/** Metadata read from the DDI and Lunatic files, shared by the runs. */
+	private static final MetadataCache METADATA_CACHE = new MetadataCache();
+
+	private MetadataUtils() {
+		//Utility class
+	}
+
+	/**
+	 * Return the variables read in the DDI and the Lunatic questionnaire of each mode.
+	 * The modes are read concurrently, and the variables maps are read from the metadata cache when the files
+	 * have already been read.
+	 */
 	public static Map<String, VariablesMap> getMetadata(Map<String, ModeInputs> modeInputsMap){
+		return readModes(modeInputsMap, modeInputs -> Objects.requireNonNullElseGet(
+				METADATA_CACHE.getVariablesMap("DDI", modeInputs.getDdiUrl(), modeInputs.getLunaticFile(),
+						() -> readMetadataVariables(modeInputs)),
+				VariablesMap::new));
+	}
+
+	/**
+	 * Apply the reader to each mode concurrently, the order of the modes is kept.
+	 * The number of threads is limited by the data parsing threads setting (see Constants.getDataParsingThreads).
+	 */
+	private static Map<String, VariablesMap> readModes(Map<String, ModeInputs> modeInputsMap,
+													   Function<ModeInputs, VariablesMap> reader) {
 		Map<String, VariablesMap> metadataVariables = new LinkedHashMap<>();
-		modeInputsMap.forEach((k, v) -> putToMetadataVariable(k,v,metadataVariables));
+		int threads = Math.min(Constants.getDataParsingThreads(), modeInputsMap.size());
+		if (threads <= 1) {
+			modeInputsMap.forEach((dataMode, modeInputs) -> metadataVariables.put(dataMode, reader.apply(modeInputs)));
+			return metadataVariables;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Map<String, Future<VariablesMap>> futures = new LinkedHashMap<>();
+			modeInputsMap.forEach((dataMode, modeInputs) ->
+					futures.put(dataMode, executor.submit(() -> reader.apply(modeInputs))));
+			for (Map.Entry<String, Future<VariablesMap>> future : futures.entrySet()) {
+				metadataVariables.put(future.getKey(), future.getValue().get());
+			}
+		} catch (InterruptedException e) {
+			log.error("Reading of the metadata has been interrupted");
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// Same failure as a sequential reading
+			log.error("Unexpected error when reading the metadata", e.getCause());
+			throw e.getCause() instanceof RuntimeException runtimeException ?
+					runtimeException : new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
 		return metadataVariables;
 	}
 
-	private static void putToMetadataVariable(String dataMode, ModeInputs modeInputs, Map<String, VariablesMap> metadataVariables ) {
+	/** Read the variables of a mode, return null if the DDI can't be read (nothing is cached then). */
+	private static VariablesMap readMetadataVariables(ModeInputs modeInputs) {
 		// Step 1 : we add the variables read in the DDI
-		VariablesMap variables= new VariablesMap();
+		VariablesMap variables;
 		try {
 			variables = DDIReader.getVariablesFromDDI(modeInputs.getDdiUrl());
 		} catch (KraftwerkException e) {
 			log.error(e.getMessage());
+			return null;
+		}
+		if (variables == null) {
+			return null;
 		}
 		// Step 2 : we add the variables that are only present in the Lunatic file
 		if (modeInputs.getLunaticFile() != null) {
@@ -39,7 +97,7 @@ public class MetadataUtils {
 				addLunaticVariable(variables, filterResult, Constants.FILTER_RESULT_PREFIX, VariableType.BOOLEAN);
 			}
 		}
-		metadataVariables.put(dataMode, variables);
+		return variables;
 	}
 
 	public static void addLunaticVariable(VariablesMap variables, String missingVar, String prefixOrSuffix, VariableType varType) {
@@ -62,13 +120,29 @@ public class MetadataUtils {
 	}
 
 	public static Map<String, VariablesMap> getMetadataFromLunatic(Map<String, ModeInputs> modeInputsMap) {
-		Map<String, VariablesMap> metadataVariables = new LinkedHashMap<>();
-		modeInputsMap.forEach((k, v) -> putToMetadataVariableFromLunatic(k,v,metadataVariables));
-		return metadataVariables;
+		return readModes(modeInputsMap, modeInputs -> METADATA_CACHE.getVariablesMap("LUNATIC",
+				null, modeInputs.getLunaticFile(), () -> LunaticReader.getVariablesFromLunatic(modeInputs.getLunaticFile())));
+	}
+
+	/** Return an overlay of the variables map of each mode, to be modified by a single run (see VariablesMap.overlay). */
+	public static Map<String, VariablesMap> overlay(Map<String, VariablesMap> metadataVariables) {
+		Map<String, VariablesMap> overlays = new LinkedHashMap<>();
+		metadataVariables.forEach((dataMode, variablesMap) -> overlays.put(dataMode, variablesMap.overlay()));
+		return overlays;
+	}
+
+	/** Merge the maximum lengths recorded in the overlays of a run into the variables maps they come from. */
+	public static void mergeMaxLengthsData(Map<String, VariablesMap> metadataVariables, Map<String, VariablesMap> overlays) {
+		overlays.forEach((dataMode, overlay) -> {
+			VariablesMap variablesMap = metadataVariables.get(dataMode);
+			if (variablesMap != null) {
+				variablesMap.mergeMaxLengthsData(overlay);
+			}
+		});
 	}
 
-	private static void putToMetadataVariableFromLunatic(String dataMode, ModeInputs modeInputs, Map<String, VariablesMap> metadataVariables ) {
-		VariablesMap variables = LunaticReader.getVariablesFromLunatic(modeInputs.getLunaticFile());
-		metadataVariables.put(dataMode, variables);
+	/** Return the cache of the metadata read from the DDI and Lunatic files. */
+	public static MetadataCache getMetadataCache() {
+		return METADATA_CACHE;
 	}
 }
@@ -8,6 +8,8 @@ import lombok.Getter;
  * and link them to the corresponding UCQ variable defined in the DDI. */
 public class PaperUcq extends Variable {
 
+    private static final long serialVersionUID = 8206154730913157286L;
+
     @Getter
     String ucqName;
 
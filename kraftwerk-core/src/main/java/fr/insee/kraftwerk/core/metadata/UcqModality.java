@@ -1,12 +1,16 @@
 package fr.insee.kraftwerk.core.metadata;
 
+import java.io.Serializable;
+
 import lombok.Getter;
 import lombok.Setter;
 
 /**
  * POJO class to store information about a UQC modality.
  */
-public class UcqModality {
+public class UcqModality implements Serializable {
+
+    private static final long serialVersionUID = -3357206553413416093L;
 
     /**
      * Value associated to the modality in survey data.
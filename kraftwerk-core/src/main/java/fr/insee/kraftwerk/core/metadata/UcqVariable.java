@@ -13,6 +13,8 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class UcqVariable extends Variable {
 
+	private static final long serialVersionUID = -1094637526719306422L;
+
 	/**
 	 * Map to store the UCQ modalities. Keys: possible values. Values: text
 	 * associated.
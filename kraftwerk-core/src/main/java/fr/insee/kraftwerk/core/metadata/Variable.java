@@ -1,5 +1,7 @@
 package fr.insee.kraftwerk.core.metadata;
 
+import java.io.Serializable;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -7,7 +9,9 @@ import lombok.Setter;
  * Object class to represent a variable.
  *
  */
-public class Variable {
+public class Variable implements Serializable {
+
+	private static final long serialVersionUID = -5870366314911802418L;
 
 	/** Variable name. */
 	@Getter
@@ -25,11 +29,6 @@ public class Variable {
 	@Getter
 	protected String sasFormat;
 
-	/** Maximum length received in input for the variable. */
-	@Getter
-	@Setter
-	protected int maxLengthData;
-
 	/** Name of the item used to collect the answer. */
 	@Getter
 	@Setter
@@ -0,0 +1,166 @@
+package fr.insee.kraftwerk.core.metadata;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import fr.insee.kraftwerk.core.Constants;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * SAX handler that builds the variables map from the output of the XSLT_STRUCTURED_VARIABLES transformation:
+ * a "VariableGroups" element, with "Group" elements (name and parent attributes) that contain the "Variable"
+ * elements. The variables are built when their element ends, so that only one variable is in memory at a time.
+ */
+@Log4j2
+class VariablesHandler extends DefaultHandler {
+
+	private static final String GROUP = "Group";
+	private static final String VARIABLE = "Variable";
+	private static final String VALUE = "Value";
+
+	private final VariablesMap variablesMap = new VariablesMap();
+	/** Name of the root group in the DDI, to normalize it. */
+	private String rootGroupName = null;
+	private boolean complete = false;
+
+	private Group group;
+	/** A missing mandatory field in a variable skips the following variables of the group. */
+	private boolean groupFailed;
+	/** Text of the first occurrence of each child element of the current variable. */
+	private Map<String, String> variableFields;
+	/** Values and labels of the current variable. */
+	private List<String[]> values;
+	private String valueLabel;
+	private final StringBuilder text = new StringBuilder();
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes attributes) {
+		text.setLength(0);
+		if (GROUP.equals(qName)) {
+			startGroup(attributes);
+		} else if (VARIABLE.equals(qName) && group != null) {
+			variableFields = new HashMap<>();
+			values = new ArrayList<>();
+		} else if (VALUE.equals(qName)) {
+			valueLabel = StringUtils.defaultString(attributes.getValue("label"));
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) {
+		text.append(ch, start, length);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) {
+		if (variableFields != null) {
+			if (VARIABLE.equals(qName)) {
+				endVariable();
+			} else if (VALUE.equals(qName)) {
+				values.add(new String[] {text.toString(), valueLabel});
+			} else {
+				variableFields.putIfAbsent(qName, text.toString());
+			}
+		} else if (GROUP.equals(qName)) {
+			group = null;
+		}
+		text.setLength(0);
+	}
+
+	@Override
+	public void endDocument() {
+		// Normalize the root group name
+		for (String groupName : variablesMap.getSubGroupNames()) {
+			Group subGroup = variablesMap.getGroup(groupName);
+			if (subGroup.getParentName().equals(rootGroupName)) {
+				subGroup.setParentName(Constants.ROOT_GROUP_NAME);
+			}
+		}
+		if (rootGroupName == null) {
+			log.debug("Failed to identify the root group while reading variables");
+		}
+		complete = true;
+	}
+
+	/** Return the variables read, null if the end of the document has not been reached. */
+	VariablesMap getVariablesMap() {
+		return complete ? variablesMap : null;
+	}
+
+	private void startGroup(Attributes attributes) {
+		String groupName = attributes.getValue("name");
+		String parentGroupName = attributes.getValue("parent");
+		groupFailed = false;
+		try {
+			if (StringUtils.isEmpty(parentGroupName)) {
+				rootGroupName = groupName;
+				group = variablesMap.getRootGroup();
+			} else {
+				group = new Group(groupName, parentGroupName);
+				variablesMap.putGroup(group);
+			}
+		} catch (NullPointerException e) {
+			log.error(String.format("Missing field in mandatory information for variable %s", groupName));
+			group = null;
+		}
+	}
+
+	private void endVariable() {
+		if (!groupFailed) {
+			try {
+				addVariable();
+			} catch (NullPointerException e) {
+				log.error(String.format("Missing field in mandatory information for variable %s", group.getName()));
+				groupFailed = true;
+			}
+		}
+		variableFields = null;
+		values = null;
+	}
+
+	private void addVariable() {
+		// Variable name, type and size
+		String variableName = variableFields.get("Name");
+		VariableType variableType = VariableType.valueOf(variableFields.get("Format"));
+		String variableLength = variableFields.get("Size");
+
+		String questionItemName = variableFields.get("QuestionItemName");
+		boolean hasValues = variableFields.containsKey("Values");
+		String mcqName = variableFields.get("QGrid");
+
+		if (hasValues) {
+			UcqVariable variable = new UcqVariable(variableName, group, variableType, variableLength);
+			if (questionItemName != null) {
+				variable.setQuestionItemName(questionItemName);
+			} else if (mcqName != null) {
+				variable.setQuestionItemName(mcqName);
+				variable.setInQuestionGrid(true);
+			}
+			for (String[] value : values) {
+				variable.addModality(value[0], value[1]);
+			}
+			variablesMap.putVariable(variable);
+		} else if (mcqName != null) {
+			McqVariable variable = new McqVariable(variableName, group, variableType, variableLength);
+			variable.setQuestionItemName(mcqName);
+			variable.setInQuestionGrid(true);
+			variable.setText(variableFields.get("Label"));
+			variablesMap.putVariable(variable);
+		} else {
+			Variable variable = new Variable(variableName, group, variableType, variableLength);
+			if (questionItemName != null) {
+				variable.setQuestionItemName(questionItemName);
+			} else {
+				variable.setQuestionItemName(variableName);
+			}
+			variablesMap.putVariable(variable);
+		}
+	}
+
+}
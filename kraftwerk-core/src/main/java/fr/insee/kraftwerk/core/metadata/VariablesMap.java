@@ -1,12 +1,18 @@
 package fr.insee.kraftwerk.core.metadata;
 
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -18,9 +24,18 @@ import lombok.extern.log4j.Log4j2;
 /**
  * Object class to represent a set of variables.
  * Contains a flat map and its structured equivalent.
+ * Single variable accesses are synchronized, so that data files can be parsed concurrently
+ * while parsers register variables on the fly.
+ * Lookups by group, by question name or by class of variable, and the fully qualified names, use indexes
+ * built on first use and dropped when a variable or a group is registered or removed.
+ * The variables and the groups must then be modified through the map only.
+ * A run that modifies the variables (data parsers, clean up) works on an overlay of the map read from the metadata,
+ * so that the map read can be shared (see overlay()).
  */
 @Log4j2
-public class VariablesMap {
+public class VariablesMap implements Serializable {
+
+    private static final long serialVersionUID = 6240478520345018637L;
 
     /** Map containing the variables.
      * Keys: a variable name.
@@ -32,37 +47,90 @@ public class VariablesMap {
      * Keys: group name.
      * Values: Group. */
     protected final LinkedHashMap<String, Group> groups = new LinkedHashMap<>();
-    
-    
+
+    /** Maximum length received in input for the variables.
+     * Keys: a variable name.
+     * Values: maximum length. */
+    protected final ConcurrentHashMap<String, Integer> maxLengthsData = new ConcurrentHashMap<>();
+
+    /** Indexes of the variables, null until the next lookup after a modification. */
+    private transient Indexes indexes;
+
 
     /** The root group is created when creating a VariablesMap instance. */
     public VariablesMap() {
         groups.put(Constants.ROOT_GROUP_NAME, new Group(Constants.ROOT_GROUP_NAME));
     }
 
+    private VariablesMap(VariablesMap base) {
+        variables.putAll(base.variables);
+        groups.putAll(base.groups);
+        maxLengthsData.putAll(base.maxLengthsData);
+    }
+
+    /**
+     * Return an overlay of the map: the variables and groups registered or removed, and the maximum lengths
+     * recorded in the overlay are not seen by this map.
+     * The variable and group objects are shared by the map and its overlays, they must not be modified.
+     */
+    public synchronized VariablesMap overlay() {
+        return new VariablesMap(this);
+    }
+
     /** Register a variable in the map. */
-    public void putVariable(Variable variable) {
+    public synchronized void putVariable(Variable variable) {
     	if (StringUtils.isEmpty(variable.getName())){return;}
         variables.put(variable.getName(), variable);
+        maxLengthsData.remove(variable.getName());
+        indexes = null;
+    }
+
+    /** Register a variable in the map if there is no variable with the same name yet.
+     * @return true if the variable has been registered. */
+    public synchronized boolean putVariableIfAbsent(Variable variable) {
+        if (StringUtils.isEmpty(variable.getName()) || variables.containsKey(variable.getName())) {
+            return false;
+        }
+        variables.put(variable.getName(), variable);
+        indexes = null;
+        return true;
     }
 
     /** Remove the variable with given name from the map. */
-    public void removeVariable(String name){
+    public synchronized void removeVariable(String name){
         if (variables.get(name) != null) {
             variables.remove(name);
+            maxLengthsData.remove(name);
+            indexes = null;
         } else {
             log.debug(String.format("Variable named \"%s\" is not in the variables map", name));
         }
     }
 
     /** Return the variable with given name. */
-    public Variable getVariable(String variableName){
+    public synchronized Variable getVariable(String variableName){
         Variable variable = variables.get(variableName);
         if(variable == null) {
             log.debug(String.format("Variable named \"%s\" is unknown", variableName));
         }
         return variable;
     }
+    /** Set the maximum length received for the variable to the given length if it is greater than the current one. */
+    public void updateMaxLengthData(String variableName, int length) {
+        maxLengthsData.merge(variableName, length, Math::max);
+    }
+    /** Return the maximum length received for the variable, 0 if no value has been received. */
+    public int getMaxLengthData(String variableName) {
+        return maxLengthsData.getOrDefault(variableName, 0);
+    }
+    /** Merge the maximum lengths recorded in an overlay of the map, for the variables of the map. */
+    public synchronized void mergeMaxLengthsData(VariablesMap overlay) {
+        overlay.maxLengthsData.forEach((variableName, length) -> {
+            if (variables.containsKey(variableName)) {
+                updateMaxLengthData(variableName, length);
+            }
+        });
+    }
     /** Return the names of all variables in the map. */
     public Set<String> getVariableNames() {
         return variables.keySet();
@@ -77,8 +145,9 @@ public class VariablesMap {
 
 
     /** Register a group in the map. */
-    public void putGroup(Group group) {
+    public synchronized void putGroup(Group group) {
         groups.put(group.getName(), group);
+        indexes = null;
     }
     /** Return the group with given name. */
     public Group getGroup(String groupName) {
@@ -118,7 +187,7 @@ public class VariablesMap {
     }
 
     /** Return true if there is a variable under the given name. */
-    public boolean hasVariable(String variableName) {
+    public synchronized boolean hasVariable(String variableName) {
         return variables.containsKey(variableName);
     }
     /** Return true if there is a group under the given name. */
@@ -139,20 +208,9 @@ public class VariablesMap {
      * - the variable name prefixed with its group and parent group names, otherwise.
      *
      * In the second case, the separator use is defined by Constants.METADATA_SEPARATOR. */
-    public String getFullyQualifiedName(String variableName) {
+    public synchronized String getFullyQualifiedName(String variableName) {
         if (this.hasVariable(variableName) && StringUtils.isNotEmpty(variableName)) {
-
-            /* done using StringBuilder, maybe concatenate a list of strings is better
-            https://stackoverflow.com/a/523913/13425151 */
-
-            StringBuilder res = new StringBuilder(variableName);
-            Variable variable = variables.get(variableName);
-            Group group = variable.getGroup();
-            while(! group.isRoot()) {
-                res.insert(0, group.getName() + Constants.METADATA_SEPARATOR);
-                group = groups.get(group.getParentName());
-            }
-            return res.toString();
+            return indexes().fullyQualifiedNames.computeIfAbsent(variableName, this::buildFullyQualifiedName);
         }
         else {
             log.debug(String.format( "Trying to get fully qualified name for unknown variable \"%s\". null returned.",
@@ -161,60 +219,57 @@ public class VariablesMap {
         }
     }
 
+    private String buildFullyQualifiedName(String variableName) {
+
+        /* done using StringBuilder, maybe concatenate a list of strings is better
+        https://stackoverflow.com/a/523913/13425151 */
+
+        StringBuilder res = new StringBuilder(variableName);
+        Variable variable = variables.get(variableName);
+        Group group = variable.getGroup();
+        while(! group.isRoot()) {
+            res.insert(0, group.getName() + Constants.METADATA_SEPARATOR);
+            group = groups.get(group.getParentName());
+        }
+        return res.toString();
+    }
+
     /** Return the fully qualified names of all variables in the map. */
-    public Set<String> getFullyQualifiedNames() {
+    public synchronized Set<String> getFullyQualifiedNames() {
         return variables.keySet().stream().map(this::getFullyQualifiedName).collect(Collectors.toSet());
     }
 
     /** Return the variables names that belongs to the group. */
-    public Set<String> getGroupVariableNames(String groupName) {
-        return variables.keySet()
-                .stream().filter(name -> variables.get(name).getGroupName().equals(groupName))
-                .collect(Collectors.toSet());
+    public synchronized Set<String> getGroupVariableNames(String groupName) {
+        return new HashSet<>(getGroupVariableNamesAsList(groupName));
     }
 
-    public List<String> getGroupVariableNamesAsList(String groupName) {
-        return variables.keySet()
-                .stream().filter(name -> variables.get(name).getGroupName().equals(groupName))
-                .toList();
+    public synchronized List<String> getGroupVariableNamesAsList(String groupName) {
+        return indexes().groupVariableNames.getOrDefault(groupName, List.of());
     }
 
     /** Return true if there is a McqVariable that has the given question name in its mcqName attribute. */
-    public boolean hasMcq(String questionName) {
-        return variables.values().stream()
-                .filter(McqVariable.class::isInstance)
-                .anyMatch(mcqVariable -> // (FILTER_RESULT variables are upper case)
-                        ((McqVariable) mcqVariable).getQuestionItemName().equals(questionName)
-                                || ((McqVariable) mcqVariable).getQuestionItemName().equalsIgnoreCase(questionName));
+    public synchronized boolean hasMcq(String questionName) {
+        // (FILTER_RESULT variables are upper case)
+        return questionName != null && indexes().mcqQuestionNames.contains(questionName);
     }
 
-    public Group getMcqGroup(String questionName) {
-        return variables.values().stream()
-                .filter(McqVariable.class::isInstance)
-                .filter(mcqVariable -> ((McqVariable) mcqVariable).getQuestionItemName().equals(questionName))
-                .map(Variable::getGroup)
-                .findFirst().orElse(null);
+    public synchronized Group getMcqGroup(String questionName) {
+        return indexes().mcqGroups.get(questionName);
     }
 
     /** Return true if there is a variable from a question grid that has the given question name in its questionName attribute. */
-    public boolean isInQuestionGrid(String questionName){
-        return variables.values().stream()
-                .filter(Variable::isInQuestionGrid)
-                .anyMatch(varInQuestionGrid -> // (FILTER_RESULT variables are upper case)
-                        (varInQuestionGrid.getQuestionItemName().equals(questionName)
-                                || varInQuestionGrid.getQuestionItemName().equalsIgnoreCase(questionName)));
+    public synchronized boolean isInQuestionGrid(String questionName){
+        // (FILTER_RESULT variables are upper case)
+        return questionName != null && indexes().questionGridNames.contains(questionName);
     }
 
-    public Group getQuestionGridGroup(String questionName) {
-        return variables.values().stream()
-                .filter(Variable::isInQuestionGrid)
-                .filter(varInQuestionGrid -> varInQuestionGrid.getQuestionItemName().equals(questionName))
-                .map(Variable::getGroup)
-                .findFirst().orElse(null);
+    public synchronized Group getQuestionGridGroup(String questionName) {
+        return indexes().questionGridGroups.get(questionName);
     }
 
 	/** Return true if there is a UCQ variable with the name given. */
-	public boolean hasUcq(String variableName) {
+	public synchronized boolean hasUcq(String variableName) {
         Variable variable = variables.get(variableName);
         if (variable != null) {
             return variable instanceof UcqVariable;
@@ -231,35 +286,86 @@ public class VariablesMap {
         return false;
     }
 	/** Return the list of all UCQ variables registered in the map. */
-	public List<UcqVariable> getUcqVariables() {
-        return variables.values().stream()
-                .filter(UcqVariable.class::isInstance)
-                .map(UcqVariable.class::cast)
-                .toList();
+	public synchronized List<UcqVariable> getUcqVariables() {
+        return indexes().ucqVariables;
     }
 	/** Return the list of all names of UCQ variables registered in the map. */
-    public List<String> getUcqVariablesNames() {
-        return variables.values().stream()
-                .filter(UcqVariable.class::isInstance)
-                .map(ucqVariable -> ((UcqVariable) ucqVariable).getQuestionItemName())
+    public synchronized List<String> getUcqVariablesNames() {
+        return indexes().ucqVariables.stream()
+                .map(UcqVariable::getQuestionItemName)
                 .filter(Objects::nonNull)
                 .distinct()
                 .toList();
     }
 	/** Return the list of all names of MCQ variables registered in the map. */
-    public List<String> getMcqVariablesNames() {
-        return variables.values().stream()
-                .filter(McqVariable.class::isInstance)
-                .map(mcqVariable -> ((McqVariable) mcqVariable).getQuestionItemName())
+    public synchronized List<String> getMcqVariablesNames() {
+        return indexes().mcqVariables.stream()
+                .map(McqVariable::getQuestionItemName)
                 .filter(Objects::nonNull)
                 .distinct()
                 .toList();
     }
     /** Return the list of all paper UCQ indicators registered in the map. */
-    public List<PaperUcq> getPaperUcq() {
-        return variables.values().stream()
-                .filter(PaperUcq.class::isInstance)
-                .map(PaperUcq.class::cast)
-                .toList();
+    public synchronized List<PaperUcq> getPaperUcq() {
+        return indexes().paperUcqs;
+    }
+
+    private Indexes indexes() {
+        if (indexes == null) {
+            indexes = new Indexes();
+        }
+        return indexes;
+    }
+
+    /** Indexes of the variables registered in the map, built in a single pass over the variables. */
+    private class Indexes {
+
+        private final Map<String, List<String>> groupVariableNames = new HashMap<>();
+        /** Question names of the MCQ variables (case-insensitive), and group of the first variable of each question. */
+        private final Set<String> mcqQuestionNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Group> mcqGroups = new HashMap<>();
+        /** Question names of the question grid variables (case-insensitive), and group of the first variable of each question. */
+        private final Set<String> questionGridNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, Group> questionGridGroups = new HashMap<>();
+        private final List<UcqVariable> ucqVariables;
+        private final List<McqVariable> mcqVariables;
+        private final List<PaperUcq> paperUcqs;
+        /** Fully qualified names, computed on first use. */
+        private final Map<String, String> fullyQualifiedNames = new HashMap<>();
+
+        private Indexes() {
+            Map<String, List<String>> groupNames = new HashMap<>();
+            List<UcqVariable> ucqs = new ArrayList<>();
+            List<McqVariable> mcqs = new ArrayList<>();
+            List<PaperUcq> paperUcqList = new ArrayList<>();
+            for (Variable variable : variables.values()) {
+                groupNames.computeIfAbsent(variable.getGroupName(), name -> new ArrayList<>()).add(variable.getName());
+                if (variable instanceof McqVariable mcqVariable) {
+                    mcqs.add(mcqVariable);
+                    addQuestion(mcqVariable, mcqQuestionNames, mcqGroups);
+                }
+                if (variable.isInQuestionGrid()) {
+                    addQuestion(variable, questionGridNames, questionGridGroups);
+                }
+                if (variable instanceof UcqVariable ucqVariable) {
+                    ucqs.add(ucqVariable);
+                }
+                if (variable instanceof PaperUcq paperUcq) {
+                    paperUcqList.add(paperUcq);
+                }
+            }
+            groupNames.forEach((groupName, names) -> groupVariableNames.put(groupName, Collections.unmodifiableList(names)));
+            ucqVariables = Collections.unmodifiableList(ucqs);
+            mcqVariables = Collections.unmodifiableList(mcqs);
+            paperUcqs = Collections.unmodifiableList(paperUcqList);
+        }
+
+        private static void addQuestion(Variable variable, Set<String> questionNames, Map<String, Group> questionGroups) {
+            String questionName = variable.getQuestionItemName();
+            if (questionName != null) {
+                questionNames.add(questionName);
+                questionGroups.putIfAbsent(questionName, variable.getGroup());
+            }
+        }
     }
 }
@@ -18,6 +18,7 @@ import com.opencsv.ICSVWriter;
 
 import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.metadata.VariablesMap;
+import fr.insee.kraftwerk.core.vtl.ColumnarDataset;
 import fr.insee.vtl.model.Dataset;
 import fr.insee.vtl.model.Structured.Component;
 import fr.insee.vtl.model.Structured.DataPoint;
@@ -78,24 +79,49 @@ public class CsvTableWriter {
 			// We check if the header has the same variables as the dataset
 
 
-			for (int i = 0; i < dataset.getDataPoints().size(); i++) {
-				DataPoint dataPoint = dataset.getDataPoints().get(i);
-				String[] csvRow = new String[rowSize];
+			int[] csvColumns = new int[variablesDataset.size()];
+			for (int j = 0; j < variablesDataset.size(); j++) {
+				String variableName = variablesDataset.get(j);
+				csvColumns[j] = variablesNotInHeaders.contains(variableName) ? -1 : Arrays.asList(headers).indexOf(variableName);
+			}
+			writeRows(writer, dataset, csvColumns, rowSize);
+		} catch (IOException e) {
+			log.error(String.format("IOException occurred when trying to update CSV table: %s", filePath));
+		}
+
+	}
 
-				for (String variableName : variablesDataset) {
-					if(!variablesNotInHeaders.contains(variableName)){
-						int csvColumn = Arrays.asList(headers).indexOf(variableName);
-						Component vtlVar = dataset.getDataStructure().get(variableName);
-						String value = getDataPointValue(dataPoint, vtlVar);
-						csvRow[csvColumn] = value;
+	/**
+	 * Write the rows of the dataset.
+	 * Values of a columnar dataset are read directly in its columns, without creating data points.
+	 *
+	 * @param csvColumns For each component of the dataset (in the data structure order), the index of its
+	 *                   column in the CSV file, -1 if it is not written.
+	 * @param rowSize    Number of columns of the CSV file.
+	 */
+	private static void writeRows(ICSVWriter writer, Dataset dataset, int[] csvColumns, int rowSize) {
+		Component[] components = dataset.getDataStructure().values().toArray(Component[]::new);
+		if (dataset instanceof ColumnarDataset columnarDataset) {
+			for (int row = 0; row < columnarDataset.getRowsCount(); row++) {
+				String[] csvRow = new String[rowSize];
+				for (int j = 0; j < components.length; j++) {
+					if (csvColumns[j] >= 0) {
+						csvRow[csvColumns[j]] = formatValue(columnarDataset.getColumn(j).get(row), components[j]);
+					}
+				}
+				writer.writeNext(csvRow);
+			}
+		} else {
+			for (DataPoint dataPoint : dataset.getDataPoints()) {
+				String[] csvRow = new String[rowSize];
+				for (int j = 0; j < components.length; j++) {
+					if (csvColumns[j] >= 0) {
+						csvRow[csvColumns[j]] = getDataPointValue(dataPoint, components[j]);
 					}
 				}
 				writer.writeNext(csvRow);
 			}
-		} catch (IOException e) {
-			log.error(String.format("IOException occurred when trying to update CSV table: %s", filePath));
 		}
-
 	}
 
 	private static ArrayList<String> getColumns(String datasetName, List<String> variablesSpec, List<String> variablesDataset) {
@@ -160,17 +186,11 @@ public class CsvTableWriter {
 			writer.writeNext(csvHeader);
 
 			// Write rows
-			for (int i = 0; i < dataset.getDataPoints().size(); i++) {
-				DataPoint dataPoint = dataset.getDataPoints().get(i);
-				String[] csvRow = new String[rowSize];
-				for (String variableName : variablesDataset) {
-					int csvColumn = columns.indexOf(variableName);
-					Component varVtl = dataset.getDataStructure().get(variableName);
-					String value = getDataPointValue(dataPoint, varVtl);
-					csvRow[csvColumn] = value;
-				}
-				writer.writeNext(csvRow);
+			int[] csvColumns = new int[variablesDataset.size()];
+			for (int j = 0; j < variablesDataset.size(); j++) {
+				csvColumns[j] = columns.indexOf(variablesDataset.get(j));
 			}
+			writeRows(writer, dataset, csvColumns, rowSize);
 			log.debug("Nb variables in table : {}", dataset.getDataStructure().size());
 			log.debug("Nb lines in table : {}", dataset.getDataPoints().size());
 			log.info(String.format("Output CSV file: %s successfully written.", filePath));
@@ -199,7 +219,10 @@ public class CsvTableWriter {
 	 * breaks are replaced by spaces. NOTE: may be improved/enriched later on.
 	 */
 	public static String getDataPointValue(DataPoint dataPoint, Component variable) {
-		Object content = dataPoint.get(variable.getName());
+		return formatValue(dataPoint.get(variable.getName()), variable);
+	}
+
+	private static String formatValue(Object content, Component variable) {
 		if (content == null) {
 			return "";
 		} else {
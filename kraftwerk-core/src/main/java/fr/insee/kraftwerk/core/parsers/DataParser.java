@@ -3,10 +3,19 @@ package fr.insee.kraftwerk.core.parsers;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
+import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.exceptions.NullException;
 import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
 /**
@@ -17,6 +26,15 @@ public abstract class DataParser {
 
 	protected final SurveyRawData data;
 
+	/**
+	 * Number of threads used to parse the files of a data folder
+	 * (or the content of a single file, for parsers able to split a file).
+	 * With a value of 1 (default value of Constants), files are parsed one after another.
+	 */
+	@Getter
+	@Setter
+	private int parsingThreads = Constants.getDataParsingThreads();
+
 	/**
 	 * Parser constructor.
 	 * @param data The SurveyRawData to be filled by the parseSurveyData method.
@@ -33,7 +51,7 @@ public abstract class DataParser {
 	 * Fill the data object with the content of the file or folder given.
 	 *
 	 * @param dataPath A data file, or a folder only containing data files.
-	 * @throws NullException 
+	 * @throws NullException
 	 */
 	public final void parseSurveyData(Path dataPath) throws NullException {
 		if (dataPath == null) log.error("Datapath is null");
@@ -41,21 +59,11 @@ public abstract class DataParser {
 			if (Files.isRegularFile(dataPath)) {
 				parseDataFile(dataPath);
 			}
-	
+
 			else if (Files.isDirectory(dataPath)) {
-				try (Stream<Path> stream = Files.list(dataPath)){
-					stream.forEach(t -> {
-						try {
-							parseDataFile(t);
-						} catch (NullException e) {
-							log.error("IOException occurred when trying to list data file: {} in folder {}", t, dataPath);
-						}
-					});
-				} catch (IOException e) {
-					log.error(String.format("IOException occurred when trying to list data files of folder: %s", dataPath));
-				}
+				parseDataFolder(dataPath, DataParser::parseDataFile);
 			}
-	
+
 			else {
 				log.warn(String.format("Data path given could not be identified as a file or folder: %s", dataPath));
 				log.warn("No data was parsed.");
@@ -77,17 +85,7 @@ public abstract class DataParser {
 			}
 
 			else if (Files.isDirectory(dataPath)) {
-				try (Stream<Path> stream = Files.list(dataPath)){
-					stream.forEach(t -> {
-						try {
-							parseDataFileWithoutDDI(t,lunaticFile);
-						} catch (NullException e) {
-							log.error("IOException occurred when trying to list data file: {} in folder {}", t, dataPath);
-						}
-					});
-				} catch (IOException e) {
-					log.error(String.format("IOException occurred when trying to list data files of folder: %s", dataPath));
-				}
+				parseDataFolder(dataPath, (parser, dataFile) -> parser.parseDataFileWithoutDDI(dataFile, lunaticFile));
 			}
 
 			else {
@@ -97,10 +95,118 @@ public abstract class DataParser {
 		}
 	}
 
+	/**
+	 * Parse each file of the given folder, sequentially or concurrently depending on the number of parsing threads.
+	 * The files are parsed in the order of their names in both cases.
+	 */
+	private void parseDataFolder(Path dataPath, DataFileParsing dataFileParsing) {
+		List<Path> dataFiles;
+		try (Stream<Path> stream = Files.list(dataPath)){
+			dataFiles = stream.sorted().toList();
+		} catch (IOException e) {
+			log.error(String.format("IOException occurred when trying to list data files of folder: %s", dataPath));
+			return;
+		}
+		if (parsingThreads <= 1) {
+			for (Path dataFile : dataFiles) {
+				try {
+					dataFileParsing.parse(this, dataFile);
+				} catch (NullException e) {
+					logParsingError(dataFile, dataPath, e);
+				}
+			}
+		} else if (!dataFiles.isEmpty()) {
+			parseDataFilesConcurrently(dataPath, dataFiles, dataFileParsing);
+		}
+	}
+
+	/**
+	 * Parse the given files on a bounded pool of threads. Each file is parsed in its own SurveyRawData object
+	 * sharing the variables map of the data object, then the partial results are appended to the data object
+	 * in the order of the files list, so that the result does not depend on the threads scheduling.
+	 * As with a sequential parsing, an unexpected error on a file is thrown once the previous files are appended.
+	 */
+	private void parseDataFilesConcurrently(Path dataPath, List<Path> dataFiles, DataFileParsing dataFileParsing) {
+		int threads = Math.min(parsingThreads, dataFiles.size());
+		log.info("Parsing {} data files of folder {} with {} threads", dataFiles.size(), dataPath, threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<SurveyRawData>> partialResults = new ArrayList<>();
+			for (Path dataFile : dataFiles) {
+				partialResults.add(executor.submit(() -> {
+					SurveyRawData partialData = createPartialData();
+					try {
+						// Files are already parsed concurrently, each file is parsed on a single thread
+						DataParser fileParser = newParser(partialData);
+						fileParser.setParsingThreads(1);
+						dataFileParsing.parse(fileParser, dataFile);
+					} catch (NullException e) {
+						logParsingError(dataFile, dataPath, e);
+					}
+					return partialData;
+				}));
+			}
+			for (Future<SurveyRawData> partialResult : partialResults) {
+				SurveyRawData partialData = getPartialData(partialResult, dataPath);
+				if (partialData == null) {
+					return;
+				}
+				partialData.getQuestionnaires().forEach(data::addQuestionnaire);
+				data.getIdSurveyUnits().addAll(partialData.getIdSurveyUnits());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Return the data parsed from a file, null if the parsing has been interrupted.
+	 * The unexpected errors thrown by the parsing are thrown again.
+	 */
+	private static SurveyRawData getPartialData(Future<SurveyRawData> partialResult, Path dataPath) {
+		try {
+			return partialResult.get();
+		} catch (InterruptedException e) {
+			log.error(String.format("Parsing of data files of folder %s has been interrupted", dataPath));
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			log.error(String.format("Unexpected error when parsing data files of folder: %s", dataPath), cause);
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private static void logParsingError(Path dataFile, Path dataPath, NullException e) {
+		log.error("Unable to parse data file: {} in folder {} - {}", dataFile, dataPath, e.getMessage());
+	}
+
+	/** Return an empty SurveyRawData sharing the variables map and the mode of the data object. */
+	private SurveyRawData createPartialData() {
+		SurveyRawData partialData = new SurveyRawData(data.getDataMode());
+		partialData.setVariablesMap(data.getVariablesMap());
+		partialData.setDataFilePath(data.getDataFilePath());
+		partialData.setParaDataFolder(data.getParaDataFolder());
+		return partialData;
+	}
+
+	/**
+	 * Return a parser of the same kind, filling the given data object.
+	 * Used to parse the files of a folder concurrently.
+	 * @param partialData The SurveyRawData to be filled by the new parser.
+	 */
+	abstract DataParser newParser(SurveyRawData partialData);
+
 	/**
 	 * Fill the data object with the content of the given file.
 	 * @param dataFilePath Path to a data file.
-	 * @throws NullException 
+	 * @throws NullException
 	 */
 	abstract void parseDataFile(Path dataFilePath) throws NullException;
 
@@ -113,4 +219,10 @@ public abstract class DataParser {
 		log.info("Parsing without DDI not implemented for this data format");
 	}
 
+	/** Parsing of a single data file by the given parser. */
+	@FunctionalInterface
+	private interface DataFileParsing {
+		void parse(DataParser parser, Path dataFile) throws NullException;
+	}
+
 }
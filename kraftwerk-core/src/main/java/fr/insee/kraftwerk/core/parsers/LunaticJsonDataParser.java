@@ -1,19 +1,44 @@
 package fr.insee.kraftwerk.core.parsers;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
 
-import org.json.simple.JSONObject;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.exceptions.NullException;
+import fr.insee.kraftwerk.core.metadata.Variable;
+import fr.insee.kraftwerk.core.metadata.VariablesMap;
+import fr.insee.kraftwerk.core.rawdata.GroupData;
 import fr.insee.kraftwerk.core.rawdata.GroupInstance;
 import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
 import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
 import lombok.extern.log4j.Log4j2;
 
+/**
+ * Implementation of DataParser to read Lunatic json data files.
+ * <p>
+ * Files are read with a streaming parser. A file can contain a single survey unit object,
+ * several survey unit objects one after the other (NDJSON), or an array of survey unit objects.
+ * COLLECTED, EXTERNAL and CALCULATED variables are read, values of variables which are not in the
+ * variables map are skipped without being loaded.
+ */
 @Log4j2
 public class LunaticJsonDataParser extends DataParser {
 
+	private static final String ID = "id";
+	private static final String DATA = "data";
+
+	/** Jackson factory (thread-safe). */
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	/** Names of the variables found in data but not in the variables map, to log them only once. */
+	private final Set<String> unknownVariables = new HashSet<>();
+
 	/**
 	 * Parser constructor.
 	 * @param data The SurveyRawData to be filled by the parseSurveyData method.
@@ -24,51 +49,170 @@ public class LunaticJsonDataParser extends DataParser {
 	}
 
 	@Override
-	void parseDataFile(Path filePath) throws NullException {
-		log.warn("Lunatic data parser being implemented!");
+	DataParser newParser(SurveyRawData partialData) {
+		return new LunaticJsonDataParser(partialData);
+	}
 
-		//
-		JSONObject jsonObject = null;
-		try {
-			jsonObject = (JSONObject) Constants.readJsonSimple(filePath);
-		} catch (Exception e) {
+	@Override
+	void parseDataFile(Path filePath) throws NullException {
+		try (JsonParser jsonParser = jsonFactory.createParser(filePath.toFile())) {
+			JsonToken token = jsonParser.nextToken();
+			while (token != null) {
+				if (token == JsonToken.START_ARRAY) {
+					readSurveyUnitsArray(jsonParser);
+				} else if (token == JsonToken.START_OBJECT) {
+					readSurveyUnit(jsonParser);
+				} else {
+					log.warn(String.format("Unexpected json value %s at root of file %s", token, filePath));
+				}
+				token = jsonParser.nextToken();
+			}
+		} catch (IOException e) {
 			throw new NullException("Can't read JSON file - "+e.getClass()+" "+ e.getMessage());
 		}
-		JSONObject jsonData = (JSONObject) jsonObject.get("data");
-		String identifier = (String) jsonObject.get("id");
-
-		QuestionnaireData questionnaireData = new QuestionnaireData();
+		log.info("Successfully parsed Lunatic answers file: {}", filePath);
+	}
 
-		// Root identifier
+	/** Read each survey unit object of the array the parser is positioned on. */
+	private void readSurveyUnitsArray(JsonParser jsonParser) throws IOException {
+		JsonToken token = jsonParser.nextToken();
+		while (token != null && token != JsonToken.END_ARRAY) {
+			if (token == JsonToken.START_OBJECT) {
+				readSurveyUnit(jsonParser);
+			} else {
+				jsonParser.skipChildren();
+			}
+			token = jsonParser.nextToken();
+		}
+	}
 
-		questionnaireData.setIdentifier(identifier);
-		data.getIdSurveyUnits().add(identifier);
+	/** Read the survey unit object the parser is positioned on and add it to the data object. */
+	private void readSurveyUnit(JsonParser jsonParser) throws IOException {
+		QuestionnaireData questionnaireData = new QuestionnaireData();
+		while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = jsonParser.currentName();
+			JsonToken valueToken = jsonParser.nextToken();
+			if (ID.equals(fieldName)) {
+				questionnaireData.setIdentifier(jsonParser.getValueAsString());
+			} else if (DATA.equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+				readData(jsonParser, questionnaireData);
+			} else {
+				jsonParser.skipChildren();
+			}
+		}
+		data.getIdSurveyUnits().add(questionnaireData.getIdentifier());
+		data.addQuestionnaire(questionnaireData);
+	}
 
-		// Survey answers
-		GroupInstance answers = questionnaireData.getAnswers();
+	/** Read the COLLECTED, EXTERNAL and CALCULATED blocks of the "data" object. */
+	private void readData(JsonParser jsonParser, QuestionnaireData questionnaireData) throws IOException {
+		while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+			String blockName = jsonParser.currentName();
+			JsonToken valueToken = jsonParser.nextToken();
+			if (valueToken != JsonToken.START_OBJECT) {
+				jsonParser.skipChildren();
+			} else if (Constants.COLLECTED.equals(blockName)) {
+				readVariables(jsonParser, questionnaireData, true);
+			} else if (Constants.EXTERNAL.equals(blockName) || Constants.CALCULATED.equals(blockName)) {
+				readVariables(jsonParser, questionnaireData, false);
+			} else {
+				jsonParser.skipChildren();
+			}
+		}
+	}
 
-		// Now we get each variable collected during the survey
-		JSONObject collectedVariables = (JSONObject) jsonData.get(Constants.COLLECTED);
-
-		for (Object variable : collectedVariables.keySet()) {
-			String variableName = (String) variable;
-			JSONObject variableData = (JSONObject) collectedVariables.get(variableName);
-			if (data.getVariablesMap().hasVariable(variableName)) {
-				String value = "";
-				if (variableData.get(Constants.COLLECTED) != null){
-					value = variableData.get(Constants.COLLECTED).toString();
-				} 
-				answers.putValue(variableName, value);
+	/**
+	 * Read the variables of a block.
+	 * In the COLLECTED block, each variable is an object whose "COLLECTED" field holds the value,
+	 * in other blocks, the value is given directly.
+	 */
+	private void readVariables(JsonParser jsonParser, QuestionnaireData questionnaireData, boolean collected)
+			throws IOException {
+		VariablesMap variables = data.getVariablesMap();
+		while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+			String variableName = jsonParser.currentName();
+			JsonToken valueToken = jsonParser.nextToken();
+			Variable variable = variables.hasVariable(variableName) ? variables.getVariable(variableName) : null;
+			if (variable == null) {
+				if (unknownVariables.add(variableName)) {
+					log.warn(String.format("WARNING: Variable %s not expected!", variableName));
+				}
+				jsonParser.skipChildren();
+			} else if (!collected) {
+				readValue(jsonParser, questionnaireData, variable, false);
+			} else if (valueToken == JsonToken.START_OBJECT) {
+				readCollectedVariable(jsonParser, questionnaireData, variable);
 			} else {
-				log.warn(String.format("WARNING: Variable %s not expected!", variableName));
+				jsonParser.skipChildren();
 			}
-			
 		}
+	}
 
+	/** Read the "COLLECTED" value of a collected variable object, other states are ignored. */
+	private void readCollectedVariable(JsonParser jsonParser, QuestionnaireData questionnaireData, Variable variable)
+			throws IOException {
+		boolean valueRead = false;
+		while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+			String stateName = jsonParser.currentName();
+			jsonParser.nextToken();
+			if (Constants.COLLECTED.equals(stateName)) {
+				readValue(jsonParser, questionnaireData, variable, true);
+				valueRead = true;
+			} else {
+				jsonParser.skipChildren();
+			}
+		}
+		if (!valueRead && variable.getGroup().isRoot()) {
+			questionnaireData.getAnswers().putValue(variable.getName(), "");
+		}
+	}
 
-		// TODO Get each variable calculated and external 
+	/**
+	 * Put the value the parser is positioned on.
+	 * A scalar value is put in the root group, an array holds the values of each instance of the variable group.
+	 */
+	private void readValue(JsonParser jsonParser, QuestionnaireData questionnaireData, Variable variable,
+			boolean collected) throws IOException {
+		GroupInstance answers = questionnaireData.getAnswers();
+		JsonToken token = jsonParser.currentToken();
+		if (token == JsonToken.VALUE_NULL) {
+			// Collected root variables without value are set to empty string
+			if (collected && variable.getGroup().isRoot()) {
+				answers.putValue(variable.getName(), "");
+			}
+		} else if (token.isScalarValue()) {
+			String value = jsonParser.getText();
+			if (collected) {
+				data.getVariablesMap().updateMaxLengthData(variable.getName(), value.length());
+			}
+			answers.putValue(variable.getName(), value);
+		} else if (token == JsonToken.START_ARRAY && !variable.getGroup().isRoot()) {
+			readInstanceValues(jsonParser, answers.getSubGroup(variable.getGroupName()), variable, collected);
+		} else {
+			log.debug(String.format("Unexpected json structure for variable %s, value ignored", variable.getName()));
+			jsonParser.skipChildren();
+		}
+	}
 
-		data.addQuestionnaire(questionnaireData);
+	/** Put the values of the array the parser is positioned on, each value being the one of an instance of the group. */
+	private void readInstanceValues(JsonParser jsonParser, GroupData groupData, Variable variable, boolean collected)
+			throws IOException {
+		int instanceNumber = 0;
+		JsonToken token = jsonParser.nextToken();
+		while (token != null && token != JsonToken.END_ARRAY) {
+			if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+				String value = jsonParser.getText();
+				if (collected) {
+					data.getVariablesMap().updateMaxLengthData(variable.getName(), value.length());
+				}
+				groupData.putValue(value, variable.getName(), instanceNumber);
+			} else {
+				// Nested levels are not handled yet
+				jsonParser.skipChildren();
+			}
+			instanceNumber++;
+			token = jsonParser.nextToken();
+		}
 	}
 
 }
@@ -1,7 +1,27 @@
 package fr.insee.kraftwerk.core.parsers;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.metadata.LunaticReader;
@@ -12,15 +32,18 @@ import fr.insee.kraftwerk.core.rawdata.GroupData;
 import fr.insee.kraftwerk.core.rawdata.GroupInstance;
 import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
 import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
-import fr.insee.kraftwerk.core.utils.XmlFileReader;
+import fr.insee.kraftwerk.core.utils.XmlStreamUtils;
 import lombok.extern.log4j.Log4j2;
-import nu.xom.Document;
-import nu.xom.Element;
-import nu.xom.Elements;
 
 /**
  * Parser add FILTER_RESULT to variablesMap
  *
+ * The file is read in a streaming way (StAX): each SurveyUnit element is converted into a
+ * QuestionnaireData object as soon as its end tag is read, so that memory usage depends
+ * on the size of a survey unit and not on the size of the file.
+ *
+ * When several parsing threads are set, a file is split in chunks of survey units
+ * (see LunaticXmlSplitter) which are read concurrently.
  */
 @Log4j2
 public class LunaticXmlDataParser extends DataParser {
@@ -30,9 +53,17 @@ public class LunaticXmlDataParser extends DataParser {
 	 */
 	private static final String[] forbiddenWords = { "cast", "isnull", "if " };
 
+	private static final String SURVEY_UNIT = "SurveyUnit";
+	private static final String TYPE = "type";
+
+	/** Number of chunks per thread when a file is split, to balance the work between threads. */
+	private static final int CHUNKS_PER_THREAD = 4;
+	/** Maximum size of a chunk in bytes, so that the survey units read ahead don't depend on the size of the file. */
+	private static final long MAX_CHUNK_SIZE = 16L * 1024 * 1024;
+
 	/**
 	 * Parser constructor.
-	 * 
+	 *
 	 * @param data The SurveyRawData to be filled by the parseSurveyData method. The
 	 *             variables must have been previously set.
 	 */
@@ -40,63 +71,135 @@ public class LunaticXmlDataParser extends DataParser {
 		super(data);
 	}
 
-	/**
-	 * Parse the XML file from the given path.
-	 * 
-	 * @param filePath Path to the XML file.
-	 * @return The parsed document.
-	 */
-	private Document readXmlFile(Path filePath) {
-		XmlFileReader xmlFileReader = new XmlFileReader();
-		Document document = xmlFileReader.readXmlFile(filePath);
-		if (document == null) {
-			log.warn("Failed to parse Lunatic answers file: " + filePath);
-		}
-		return document;
+	@Override
+	DataParser newParser(SurveyRawData partialData) {
+		return new LunaticXmlDataParser(partialData);
 	}
 
 	private void parseDataFile(Path filePath, Path lunaticFile) {
-
-		Document document = readXmlFile(filePath);
 		log.debug("Begin to parse {} ", filePath);
-		if (document != null) {
-			Elements questionnaireNodeList = document.getRootElement().getFirstChildElement("SurveyUnits")
-					.getChildElements("SurveyUnit");
-			String questionnaireModelId = null;
-			if (lunaticFile!= null) {
-				questionnaireModelId = LunaticReader.getQuestionnaireModelId(lunaticFile);
+		String questionnaireModelId = null;
+		if (lunaticFile != null) {
+			questionnaireModelId = LunaticReader.getQuestionnaireModelId(lunaticFile);
+		}
+		boolean checkModelId = lunaticFile != null;
+		String expectedModelId = questionnaireModelId;
+
+		Consumer<SurveyUnitContent> surveyUnitConsumer = surveyUnit -> {
+			if (!checkModelId || checkLunaticQuestionnaire(expectedModelId, surveyUnit)) {
+				QuestionnaireData questionnaireData = toQuestionnaireData(surveyUnit, data.getVariablesMap());
+				data.getIdSurveyUnits().add(questionnaireData.getIdentifier());
+				data.addQuestionnaire(questionnaireData);
 			}
+		};
 
-			for (int i = 0; i < questionnaireNodeList.size(); i++) {
-
-				// Xml questionnaire node
-				Element questionnaireNode = questionnaireNodeList.get(i);
-
-				if (lunaticFile == null || checkLunaticQuestionnaire(questionnaireModelId, questionnaireNode)) {
-
-					// Init the questionnaire data object
-					QuestionnaireData questionnaireData = new QuestionnaireData();
+		try {
+			if (getParsingThreads() <= 1 || !readSurveyUnitsConcurrently(filePath, surveyUnitConsumer)) {
+				try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(filePath))) {
+					readSurveyUnits(inputStream, surveyUnitConsumer);
+				}
+			}
+			log.info("Successfully parsed Lunatic answers file: {}", filePath);
+		} catch (XMLStreamException e) {
+			log.error("XML document is malformed.", e);
+			log.warn("Failed to parse Lunatic answers file: " + filePath);
+		} catch (InterruptedIOException e) {
+			log.error(e.getMessage());
+			log.warn("Failed to parse Lunatic answers file: " + filePath);
+		} catch (IOException e) {
+			log.error(String.format("Could not connect to data file %s", filePath), e);
+			log.warn("Failed to parse Lunatic answers file: " + filePath);
+		}
+	}
 
-					// Root identifier
-					questionnaireData.setIdentifier(questionnaireNode.getFirstChildElement("Id").getValue());
-					data.getIdSurveyUnits().add(questionnaireNode.getFirstChildElement("Id").getValue());
+	/**
+	 * Read the survey units of the file on several threads: the file is split in chunks of survey units,
+	 * each chunk is read by a thread, then the survey units are given to the consumer in file order
+	 * (so that the variables map updates are the same as with a sequential reading).
+	 * Only as many chunks as threads are read ahead of the consumer, so that the survey units waiting
+	 * to be consumed are a bounded part of the file.
+	 *
+	 * @return false if the file could not be split, in which case nothing has been read.
+	 * @throws InterruptedIOException if the thread is interrupted, the survey units may have been partly consumed.
+	 */
+	private boolean readSurveyUnitsConcurrently(Path filePath, Consumer<SurveyUnitContent> surveyUnitConsumer)
+			throws IOException, XMLStreamException {
+		try (LunaticXmlSplitter splitter = new LunaticXmlSplitter(filePath)) {
+			long chunksCount = Math.max((long) getParsingThreads() * CHUNKS_PER_THREAD,
+					Files.size(filePath) / MAX_CHUNK_SIZE + 1);
+			List<LunaticXmlSplitter.Chunk> chunks = splitter.split((int) Math.min(chunksCount, Integer.MAX_VALUE));
+			if (chunks.size() < 2) {
+				return false;
+			}
+			int threads = Math.min(getParsingThreads(), chunks.size());
+			log.info("Parsing file {} in {} chunks with {} threads", filePath, chunks.size(), threads);
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				Iterator<LunaticXmlSplitter.Chunk> chunksToRead = chunks.iterator();
+				Deque<Future<List<SurveyUnitContent>>> chunksContent = new ArrayDeque<>();
+				while (chunksContent.size() < threads && chunksToRead.hasNext()) {
+					chunksContent.add(submitChunk(executor, splitter, chunksToRead.next()));
+				}
+				while (!chunksContent.isEmpty()) {
+					List<SurveyUnitContent> surveyUnits = chunksContent.poll().get();
+					if (chunksToRead.hasNext()) {
+						chunksContent.add(submitChunk(executor, splitter, chunksToRead.next()));
+					}
+					surveyUnits.forEach(surveyUnitConsumer);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(String.format("Parsing of data file %s has been interrupted", filePath));
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof XMLStreamException xmlStreamException) {
+					throw xmlStreamException;
+				}
+				if (cause instanceof IOException ioException) {
+					throw ioException;
+				}
+				throw new IllegalStateException(cause);
+			} finally {
+				executor.shutdownNow();
+				awaitTermination(executor);
+			}
+		}
+		return true;
+	}
 
-					readCollected(questionnaireNode, questionnaireData, data.getVariablesMap());
-					readExternal(questionnaireNode, questionnaireData, data.getVariablesMap());
-					// Remove this method when all questionnaires will use Lunatic V2 format
-					readCalculated(questionnaireNode, questionnaireData, data.getVariablesMap());
+	private Future<List<SurveyUnitContent>> submitChunk(ExecutorService executor, LunaticXmlSplitter splitter,
+			LunaticXmlSplitter.Chunk chunk) {
+		return executor.submit(() -> {
+			List<SurveyUnitContent> surveyUnits = new ArrayList<>(chunk.getSurveyUnitsCount());
+			try (InputStream inputStream = splitter.openChunk(chunk)) {
+				readSurveyUnits(inputStream, surveyUnits::add);
+			}
+			return surveyUnits;
+		});
+	}
 
-					data.addQuestionnaire(questionnaireData);
-				}
+	/**
+	 * Wait for the chunks still being read, so that the mapping of the file is not released while it is read.
+	 * An interrupt doesn't stop the wait: the interrupt status is restored once the chunks are read.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
 			}
-			log.info("Successfully parsed Lunatic answers file: {}", filePath);
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
 	/**
 	 * Parse a Lunatic xml data file. Only "COLLECTED" and "EXTERNAL" variables are
 	 * read.
-	 * 
+	 *
 	 * @param filePath Path to a Lunatic xml data file.
 	 */
 	@Override
@@ -107,7 +210,7 @@ public class LunaticXmlDataParser extends DataParser {
 	/**
 	 * Parse a Lunatic xml data file. Only "COLLECTED" and "EXTERNAL" variables are
 	 * read.
-	 * 
+	 *
 	 * @param filePath Path to a Lunatic xml data file.
 	 */
 	@Override
@@ -115,79 +218,207 @@ public class LunaticXmlDataParser extends DataParser {
 		parseDataFile(filePath,lunaticFile);
 	}
 
-	private boolean checkLunaticQuestionnaire(String questionnaireModelId, Element questionnaireNode) {
-		return questionnaireNode.getFirstChildElement("QuestionnaireModelId").getValue().equals(questionnaireModelId);
+	private boolean checkLunaticQuestionnaire(String questionnaireModelId, SurveyUnitContent surveyUnit) {
+		return surveyUnit.questionnaireModelId != null
+				&& surveyUnit.questionnaireModelId.equals(questionnaireModelId);
 	}
 
 	/**
-	 * Read data in the COLLECTED elements.
+	 * Read the given Lunatic xml stream and give each SurveyUnit element read to the consumer,
+	 * as soon as the element is complete.
+	 *
+	 * @param inputStream Stream of a Lunatic xml data file.
+	 * @param consumer    Consumer of the survey units read.
+	 * @throws XMLStreamException if the xml content is malformed.
 	 */
-	private void readCollected(Element questionnaireNode, QuestionnaireData questionnaireData, VariablesMap variables) {
+	void readSurveyUnits(InputStream inputStream, Consumer<SurveyUnitContent> consumer) throws XMLStreamException {
+		XMLStreamReader reader = XmlStreamUtils.createXmlStreamReader(inputStream);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && SURVEY_UNIT.equals(reader.getLocalName())) {
+					consumer.accept(readSurveyUnit(reader));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
 
-		// Xml collected variables nodes
-		Elements collectedVariablesNodes = questionnaireNode.getFirstChildElement("Data")
-				.getFirstChildElement(Constants.COLLECTED).getChildElements();
+	/** Read a SurveyUnit element, the reader being positioned on its start tag. */
+	private SurveyUnitContent readSurveyUnit(XMLStreamReader reader) throws XMLStreamException {
+		SurveyUnitContent surveyUnit = new SurveyUnitContent();
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			String elementName = reader.getLocalName();
+			if ("Id".equals(elementName)) {
+				surveyUnit.identifier = XmlStreamUtils.readText(reader);
+			} else if ("QuestionnaireModelId".equals(elementName)) {
+				surveyUnit.questionnaireModelId = XmlStreamUtils.readText(reader);
+			} else if ("Data".equals(elementName)) {
+				readDataElement(reader, surveyUnit);
+			} else {
+				XmlStreamUtils.skipElement(reader);
+			}
+		}
+		return surveyUnit;
+	}
+
+	/** Read the COLLECTED, EXTERNAL and CALCULATED elements of a Data element. */
+	private void readDataElement(XMLStreamReader reader, SurveyUnitContent surveyUnit) throws XMLStreamException {
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			String sectionName = reader.getLocalName();
+			if (Constants.COLLECTED.equals(sectionName) && surveyUnit.collected == null) {
+				surveyUnit.collected = readCollected(reader);
+			} else if (Constants.EXTERNAL.equals(sectionName) && surveyUnit.external == null) {
+				surveyUnit.external = readVariables(reader, true);
+			} else if (Constants.CALCULATED.equals(sectionName) && surveyUnit.calculated == null) {
+				surveyUnit.calculated = readVariables(reader, false);
+			} else {
+				XmlStreamUtils.skipElement(reader);
+			}
+		}
+	}
+
+	/**
+	 * Read the variables of the COLLECTED element. For each variable, only the first COLLECTED
+	 * child is read (EDITED, INPUTED, FORCED and PREVIOUS values are ignored).
+	 */
+	private List<VariableContent> readCollected(XMLStreamReader reader) throws XMLStreamException {
+		List<VariableContent> variables = new ArrayList<>();
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			String variableName = reader.getLocalName();
+			VariableContent variableContent = null;
+			while (XmlStreamUtils.nextChildElement(reader)) {
+				if (variableContent == null && Constants.COLLECTED.equals(reader.getLocalName())) {
+					// Root variables
+					if (hasCompleteTypeAttribute(reader)) {
+						variableContent = new VariableContent(variableName, XmlStreamUtils.readText(reader), null);
+					}
+					// Group variables
+					else {
+						variableContent = new VariableContent(variableName, null, readInstanceValues(reader, true));
+					}
+				} else {
+					XmlStreamUtils.skipElement(reader);
+				}
+			}
+			if (variableContent != null) {
+				variables.add(variableContent);
+			}
+		}
+		return variables;
+	}
+
+	/**
+	 * Read the variables of the EXTERNAL or CALCULATED element, in which values are directly
+	 * in the variable element (root variables) or in its children (group variables).
+	 *
+	 * @param typedInstancesOnly If true, group instances without type are ignored.
+	 */
+	private List<VariableContent> readVariables(XMLStreamReader reader, boolean typedInstancesOnly)
+			throws XMLStreamException {
+		List<VariableContent> variables = new ArrayList<>();
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			String variableName = reader.getLocalName();
+			if (hasCompleteTypeAttribute(reader)) {
+				variables.add(new VariableContent(variableName, XmlStreamUtils.readText(reader), null));
+			} else {
+				variables.add(new VariableContent(variableName, null, readInstanceValues(reader, typedInstancesOnly)));
+			}
+		}
+		return variables;
+	}
+
+	/**
+	 * Read the values of each child of the current element. The index of a value in the list is
+	 * the group instance number. Ignored instances have a null value.
+	 */
+	private List<String> readInstanceValues(XMLStreamReader reader, boolean typedInstancesOnly)
+			throws XMLStreamException {
+		List<String> values = new ArrayList<>();
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			if (!typedInstancesOnly || hasCompleteTypeAttribute(reader)) {
+				values.add(XmlStreamUtils.readText(reader));
+			} else {
+				values.add(null);
+				XmlStreamUtils.skipElement(reader);
+			}
+		}
+		return values;
+	}
+
+	private static boolean hasCompleteTypeAttribute(XMLStreamReader reader) {
+		String type = reader.getAttributeValue(null, TYPE);
+		return type != null && !type.equals("null");
+	}
+
+	/**
+	 * Convert the content of a survey unit into a QuestionnaireData object.
+	 * COLLECTED values are put first, then EXTERNAL, then CALCULATED ones.
+	 */
+	QuestionnaireData toQuestionnaireData(SurveyUnitContent surveyUnit, VariablesMap variables) {
+		// Init the questionnaire data object
+		QuestionnaireData questionnaireData = new QuestionnaireData();
+
+		// Root identifier
+		questionnaireData.setIdentifier(surveyUnit.identifier);
+
+		if (surveyUnit.collected != null) {
+			readCollected(surveyUnit.collected, questionnaireData, variables);
+		}
+		if (surveyUnit.external != null) {
+			readExternal(surveyUnit.external, questionnaireData, variables);
+		}
+		// Remove this method when all questionnaires will use Lunatic V2 format
+		if (surveyUnit.calculated != null) {
+			readCalculated(surveyUnit.calculated, questionnaireData, variables);
+		}
+		return questionnaireData;
+	}
+
+	/**
+	 * Put data of the COLLECTED elements.
+	 */
+	private void readCollected(List<VariableContent> collectedVariables, QuestionnaireData questionnaireData,
+			VariablesMap variables) {
 
 		// Data object
 		GroupInstance answers = questionnaireData.getAnswers();
 
-		for (Element variableNode : collectedVariablesNodes) {
-
-			// Variable name
-			String variableName = variableNode.getLocalName();
-			Element collectedNode = variableNode.getFirstChildElement(Constants.COLLECTED);
+		for (VariableContent variableContent : collectedVariables) {
 
 			// Root variables
-			if (nodeExistsWithCompleteAttribute(collectedNode)) {
-				String value = variableNode.getFirstChildElement(Constants.COLLECTED).getValue();
-				updateMaxLength(variables, variableName, value);
-				answers.putValue(variableName, value);
+			if (variableContent.value != null) {
+				updateMaxLength(variables, variableContent.name, variableContent.value);
+				answers.putValue(variableContent.name, variableContent.value);
 			}
 
 			// Group variables // TODO : recursion etc.
-			else if (collectedNode != null) {
-				addGroupVariables(variables, variableName, answers, collectedNode, true);
+			else {
+				addGroupVariables(variables, variableContent, answers, true);
 			}
 		}
 
 	}
 
 	private void updateMaxLength(VariablesMap variables, String variableName, String value) {
-		if ((variables.getVariable(variableName) != null)
-				&& value.length() > variables.getVariable(variableName).getMaxLengthData()) {
-			variables.getVariable(variableName).setMaxLengthData(value.length());
+		if (variables.getVariable(variableName) != null) {
+			variables.updateMaxLengthData(variableName, value.length());
 		}
 	}
 
-	private boolean nodeExistsWithCompleteAttribute(Element currentNode) {
-		return currentNode != null && currentNode.getAttribute("type") != null
-				&& !currentNode.getAttribute("type").getValue().equals("null");
-	}
-
 	/**
-	 * Read data in the EXTERNAL elements. "External" variables are always in the
+	 * Put data of the EXTERNAL elements. "External" variables are always in the
 	 * root group.
 	 */
-	private void readExternal(Element questionnaireNode, QuestionnaireData questionnaireData, VariablesMap variables) {
-
-		Element externalNode = questionnaireNode.getFirstChildElement("Data").getFirstChildElement("EXTERNAL");
-		if (externalNode == null)
-			return;
-
-		Elements externalVariableNodes = externalNode.getChildElements();
-		if (externalVariableNodes == null)
-			return;
-
-		for (Element externalVariableNode : externalVariableNodes) {
-			if (externalVariableNode == null)
-				return;
-
-			if (nodeExistsWithCompleteAttribute(externalVariableNode)) {
-				String variableName = externalVariableNode.getLocalName();
-				String value = externalVariableNode.getValue();
-				questionnaireData.putValue(value, variableName);
-				if (!variables.hasVariable(variableName)) {
-					variables.putVariable(new Variable(variableName, variables.getRootGroup(), VariableType.STRING));
+	private void readExternal(List<VariableContent> externalVariables, QuestionnaireData questionnaireData,
+			VariablesMap variables) {
+
+		for (VariableContent variableContent : externalVariables) {
+
+			if (variableContent.value != null) {
+				String variableName = variableContent.name;
+				questionnaireData.putValue(variableContent.value, variableName);
+				if (variables.putVariableIfAbsent(new Variable(variableName, variables.getRootGroup(), VariableType.STRING))) {
 					log.warn(String.format(
 							"EXTERNAL variable \"%s\" was not found in DDI and has been added, with type STRING.",
 							variableName));
@@ -195,24 +426,21 @@ public class LunaticXmlDataParser extends DataParser {
 			}
 			// Group variables
 			else {
-				addGroupVariables(variables, externalVariableNode.getLocalName(), questionnaireData.getAnswers(),
-						externalVariableNode, false);
+				addGroupVariables(variables, variableContent, questionnaireData.getAnswers(), false);
 			}
 		}
 
 	}
 
-	private void addGroupVariables(VariablesMap variables, String variableName, GroupInstance answers, Element node,
+	private void addGroupVariables(VariablesMap variables, VariableContent variableContent, GroupInstance answers,
 			boolean collected) {
-		Elements valueNodes = node.getChildElements();
-
+		String variableName = variableContent.name;
 		if (variables.hasVariable(variableName)) {
 			String groupName = variables.getVariable(variableName).getGroupName();
 			GroupData groupData = answers.getSubGroup(groupName);
-			for (int j = 0; j < valueNodes.size(); j++) {
-				Element valueNode = valueNodes.get(j);
-				if (nodeExistsWithCompleteAttribute(valueNode)) {
-					String value = valueNodes.get(j).getValue();
+			for (int j = 0; j < variableContent.instanceValues.size(); j++) {
+				String value = variableContent.instanceValues.get(j);
+				if (value != null) {
 					if (collected)
 						updateMaxLength(variables, variableName, value);
 					groupData.putValue(value, variableName, j);
@@ -222,40 +450,33 @@ public class LunaticXmlDataParser extends DataParser {
 	}
 
 	/**
-	 * Read data in the CALCULATED elements. Values that are a vtl expression are
+	 * Put data of the CALCULATED elements. Values that are a vtl expression are
 	 * filtered. To bo be removed when all questionnaires will use Lunatic V2.
 	 */
-	private void readCalculated(Element questionnaireNode, QuestionnaireData questionnaireData,
+	private void readCalculated(List<VariableContent> calculatedVariables, QuestionnaireData questionnaireData,
 			VariablesMap variables) {
 
-		// Xml collected variables nodes
-		Elements calculatedVariablesNodes = getCalculatedElements(questionnaireNode);
-		if (calculatedVariablesNodes == null)
-			return;
-
 		// Data object
 		GroupInstance answers = questionnaireData.getAnswers();
 
-		for (Element variableNode : calculatedVariablesNodes) {
+		for (VariableContent variableContent : calculatedVariables) {
 
 			// Variable name
-			String variableName = variableNode.getLocalName();
+			String variableName = variableContent.name;
 
 			// Root variables
-			if (nodeExistsWithCompleteAttribute(variableNode)) {
-				String value = variableNode.getValue();
-				if (isNotVtlExpression(value)) {
-					answers.putValue(variableName, value);
+			if (variableContent.value != null) {
+				if (isNotVtlExpression(variableContent.value)) {
+					answers.putValue(variableName, variableContent.value);
 				}
 			}
 
 			// Group variables
 			else {
-				Elements valueNodes = variableNode.getChildElements();
 				String groupName = getGroupName(variables, variableName);
 				GroupData groupData = answers.getSubGroup(groupName);
-				for (int j = 0; j < valueNodes.size(); j++) {
-					String value = valueNodes.get(j).getValue();
+				for (int j = 0; j < variableContent.instanceValues.size(); j++) {
+					String value = variableContent.instanceValues.get(j);
 					if (isNotVtlExpression(value)) {
 						groupData.putValue(value, variableName, j);
 					}
@@ -276,17 +497,10 @@ public class LunaticXmlDataParser extends DataParser {
 		return groupName;
 	}
 
-	private Elements getCalculatedElements(Element questionnaireNode) {
-		Element calculatedNode = questionnaireNode.getFirstChildElement("Data").getFirstChildElement("CALCULATED");
-		if (calculatedNode == null)
-			return null;
-		return calculatedNode.getChildElements();
-	}
-
 	/**
 	 * Check if the given value is a VTL expression using the 'forbiddenWords'
 	 * attribute.
-	 * 
+	 *
 	 * @see fr.insee.kraftwerk.core.metadata.LunaticReader
 	 * @see fr.insee.kraftwerk.core.dataprocessing.CalculatedProcessing
 	 */
@@ -294,4 +508,29 @@ public class LunaticXmlDataParser extends DataParser {
 		return Arrays.stream(forbiddenWords).noneMatch(value::contains);
 	}
 
+	/** Content of a SurveyUnit element, kept until its end tag is read. */
+	static class SurveyUnitContent {
+		String identifier;
+		String questionnaireModelId;
+		List<VariableContent> collected;
+		List<VariableContent> external;
+		List<VariableContent> calculated;
+	}
+
+	/**
+	 * Values read for a variable in a survey unit.
+	 * Root variables have a value, group variables have a list of instance values.
+	 */
+	static class VariableContent {
+		final String name;
+		final String value;
+		final List<String> instanceValues;
+
+		VariableContent(String name, String value, List<String> instanceValues) {
+			this.name = name;
+			this.value = value;
+			this.instanceValues = instanceValues;
+		}
+	}
+
 }
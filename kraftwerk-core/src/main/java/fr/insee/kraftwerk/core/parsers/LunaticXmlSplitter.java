@@ -0,0 +1,316 @@
+package fr.insee.kraftwerk.core.parsers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import fr.insee.kraftwerk.core.utils.MappedFile;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Splitter of Lunatic xml data files, used to parse the survey units of a single file on several threads.
+ * <p>
+ * The file is memory-mapped and scanned byte by byte to find the boundaries of the SurveyUnit elements
+ * (comments and CDATA sections are skipped). Consecutive survey units are then grouped in chunks of
+ * similar size, each chunk being readable as a standalone xml document. The namespace declarations of the
+ * elements outside the survey units are copied to the root of each chunk, so that prefixes can be used in
+ * the survey units.
+ * The scan relies on an ASCII compatible encoding: files encoded in UTF-16 or UTF-32 are not split.
+ * The splitter must be closed once the chunks are read, to release the file.
+ */
+@Log4j2
+class LunaticXmlSplitter implements AutoCloseable {
+
+	private static final byte[] SURVEY_UNIT_START = "<SurveyUnit".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] SURVEY_UNIT_END = "</SurveyUnit".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] COMMENT_START = "<!--".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] COMMENT_END = "-->".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] CDATA_START = "<![CDATA[".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] CDATA_END = "]]>".getBytes(StandardCharsets.US_ASCII);
+
+	private static final Pattern ENCODING_PATTERN = Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z0-9._\\-]+)[\"']");
+	private static final Pattern NAMESPACE_PATTERN =
+			Pattern.compile("\\sxmlns(?::([^\\s=]+))?\\s*=\\s*(\"[^\"]*\"|'[^']*')");
+
+	private final MappedFile mappedFile;
+	private final long size;
+	/**
+	 * Namespace declarations found outside the survey units, as they are written in the file.
+	 * Keys: prefix ("" for the default namespace).
+	 */
+	private final Map<String, String> namespaceDeclarations = new LinkedHashMap<>();
+
+	/**
+	 * Map the given file in memory.
+	 * @param filePath Path to a Lunatic xml data file.
+	 * @throws IOException if the file can't be mapped.
+	 */
+	LunaticXmlSplitter(Path filePath) throws IOException {
+		this.mappedFile = new MappedFile(filePath);
+		this.size = mappedFile.getSize();
+	}
+
+	/**
+	 * Cut the file in chunks of consecutive survey units.
+	 *
+	 * @param chunksCount Number of chunks wanted.
+	 * @return The chunks in file order, or an empty list if the file can't be split
+	 * (unsupported encoding, or unexpected content that the sequential parsing will report).
+	 */
+	List<Chunk> split(int chunksCount) {
+		String encoding = readEncoding();
+		if (encoding == null) {
+			return Collections.emptyList();
+		}
+		List<long[]> surveyUnits = findSurveyUnits();
+		if (surveyUnits.isEmpty()) {
+			return Collections.emptyList();
+		}
+		long surveyUnitsBytes = 0;
+		for (long[] surveyUnit : surveyUnits) {
+			surveyUnitsBytes += surveyUnit[1] - surveyUnit[0];
+		}
+		long chunkTargetSize = Math.max(1, surveyUnitsBytes / Math.max(1, chunksCount));
+		List<Chunk> chunks = new ArrayList<>();
+		long chunkStart = -1;
+		long chunkSize = 0;
+		int chunkSurveyUnits = 0;
+		for (long[] surveyUnit : surveyUnits) {
+			if (chunkStart < 0) {
+				chunkStart = surveyUnit[0];
+			}
+			chunkSize += surveyUnit[1] - surveyUnit[0];
+			chunkSurveyUnits++;
+			if (chunkSize >= chunkTargetSize) {
+				chunks.add(new Chunk(chunkStart, surveyUnit[1], chunkSurveyUnits, encoding));
+				chunkStart = -1;
+				chunkSize = 0;
+				chunkSurveyUnits = 0;
+			}
+		}
+		if (chunkStart >= 0) {
+			chunks.add(new Chunk(chunkStart, surveyUnits.get(surveyUnits.size() - 1)[1], chunkSurveyUnits, encoding));
+		}
+		log.debug("{} survey units found in file {}, split in {} chunks", surveyUnits.size(), mappedFile.getFilePath(), chunks.size());
+		return chunks;
+	}
+
+	/**
+	 * Open a chunk as an xml document: the survey units of the chunk are wrapped in a SurveyUnits element,
+	 * that declares the namespaces declared outside the survey units.
+	 */
+	InputStream openChunk(Chunk chunk) {
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		header.writeBytes(String.format("<?xml version=\"1.0\" encoding=\"%s\"?><SurveyUnits", chunk.getEncoding())
+				.getBytes(StandardCharsets.US_ASCII));
+		// Declarations are copied byte for byte, as they are encoded in the file
+		namespaceDeclarations.values().forEach(declaration ->
+				header.writeBytes((" " + declaration).getBytes(StandardCharsets.ISO_8859_1)));
+		header.write('>');
+		String footer = "</SurveyUnits>";
+		return new SequenceInputStream(
+				new SequenceInputStream(
+						new ByteArrayInputStream(header.toByteArray()),
+						mappedFile.openRange(chunk.getStart(), chunk.getEnd())),
+				new ByteArrayInputStream(footer.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	/** Release the mapping of the file. */
+	@Override
+	public void close() {
+		mappedFile.close();
+	}
+
+	/** Return the encoding declared in the xml prolog (UTF-8 by default), null if it is not ASCII compatible. */
+	private String readEncoding() {
+		if (size >= 2 && (byteAt(0) == (byte) 0xFE || byteAt(0) == (byte) 0xFF || byteAt(0) == 0 || byteAt(1) == 0)) {
+			return null;
+		}
+		String encoding = "UTF-8";
+		long prologStart = (size >= 3 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB && byteAt(2) == (byte) 0xBF) ? 3 : 0;
+		if (matches(prologStart, "<?xml".getBytes(StandardCharsets.US_ASCII))) {
+			long prologEnd = indexOf(prologStart, "?>".getBytes(StandardCharsets.US_ASCII));
+			if (prologEnd < 0) {
+				return null;
+			}
+			byte[] prolog = new byte[(int) Math.min(prologEnd - prologStart, 1024)];
+			for (int i = 0; i < prolog.length; i++) {
+				prolog[i] = byteAt(prologStart + i);
+			}
+			Matcher matcher = ENCODING_PATTERN.matcher(new String(prolog, StandardCharsets.US_ASCII));
+			if (matcher.find()) {
+				encoding = matcher.group(1);
+			}
+		}
+		String upperCaseEncoding = encoding.toUpperCase(Locale.ROOT);
+		if (upperCaseEncoding.startsWith("UTF-16") || upperCaseEncoding.startsWith("UTF-32")) {
+			return null;
+		}
+		return encoding;
+	}
+
+	/**
+	 * Return the start and end offsets of each SurveyUnit element, an empty list if the content is unexpected.
+	 * The namespace declarations of the start tags outside the survey units are read on the way.
+	 */
+	private List<long[]> findSurveyUnits() {
+		List<long[]> surveyUnits = new ArrayList<>();
+		long surveyUnitStart = -1;
+		long position = 0;
+		while (position < size) {
+			if (byteAt(position) != '<') {
+				position++;
+			} else if (matches(position, COMMENT_START)) {
+				position = skipTo(position + COMMENT_START.length, COMMENT_END);
+			} else if (matches(position, CDATA_START)) {
+				position = skipTo(position + CDATA_START.length, CDATA_END);
+			} else if (isTag(position, SURVEY_UNIT_START)) {
+				long tagEnd = indexOf(position, new byte[] { '>' });
+				if (surveyUnitStart >= 0 || tagEnd < 0) {
+					return Collections.emptyList();
+				}
+				if (byteAt(tagEnd - 1) == '/') {
+					surveyUnits.add(new long[] { position, tagEnd + 1 });
+				} else {
+					surveyUnitStart = position;
+				}
+				position = tagEnd + 1;
+			} else if (isTag(position, SURVEY_UNIT_END)) {
+				long tagEnd = indexOf(position, new byte[] { '>' });
+				if (surveyUnitStart < 0 || tagEnd < 0) {
+					return Collections.emptyList();
+				}
+				surveyUnits.add(new long[] { surveyUnitStart, tagEnd + 1 });
+				surveyUnitStart = -1;
+				position = tagEnd + 1;
+			} else if (surveyUnitStart < 0 && isStartTag(position)) {
+				position = readNamespaceDeclarations(position);
+			} else {
+				position++;
+			}
+			if (position < 0) {
+				return Collections.emptyList();
+			}
+		}
+		if (surveyUnitStart >= 0) {
+			return Collections.emptyList();
+		}
+		return surveyUnits;
+	}
+
+	/** True if an element start tag (not an end tag, a declaration or a processing instruction) starts at the position. */
+	private boolean isStartTag(long position) {
+		if (position + 1 >= size) {
+			return false;
+		}
+		byte next = byteAt(position + 1);
+		return next != '/' && next != '!' && next != '?';
+	}
+
+	/**
+	 * Read the namespace declarations of the start tag at the position.
+	 * @return The position following the tag, -1 if the tag is not closed or if a prefix is declared
+	 * with different namespaces (the file is then not split).
+	 */
+	private long readNamespaceDeclarations(long position) {
+		long tagEnd = tagEnd(position);
+		if (tagEnd < 0) {
+			return -1;
+		}
+		// Tags outside the survey units are few and short
+		byte[] tag = new byte[(int) Math.min(tagEnd - position, Integer.MAX_VALUE - 8)];
+		for (int i = 0; i < tag.length; i++) {
+			tag[i] = byteAt(position + i);
+		}
+		Matcher matcher = NAMESPACE_PATTERN.matcher(new String(tag, StandardCharsets.ISO_8859_1));
+		while (matcher.find()) {
+			String prefix = matcher.group(1) != null ? matcher.group(1) : "";
+			String declaration = matcher.group().trim();
+			String previousDeclaration = namespaceDeclarations.putIfAbsent(prefix, declaration);
+			if (previousDeclaration != null && !previousDeclaration.equals(declaration)) {
+				log.debug("Namespace prefix \"{}\" declared several times in file {}", prefix, mappedFile.getFilePath());
+				return -1;
+			}
+		}
+		return tagEnd + 1;
+	}
+
+	/** Return the position of the end of the tag starting at the position (quoted values skipped), -1 if there is none. */
+	private long tagEnd(long position) {
+		byte quote = 0;
+		for (long i = position + 1; i < size; i++) {
+			byte b = byteAt(i);
+			if (quote != 0) {
+				if (b == quote) {
+					quote = 0;
+				}
+			} else if (b == '"' || b == '\'') {
+				quote = b;
+			} else if (b == '>') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** True if the given tag name starts at the position, and is not the prefix of a longer name. */
+	private boolean isTag(long position, byte[] tagStart) {
+		if (!matches(position, tagStart)) {
+			return false;
+		}
+		long nameEnd = position + tagStart.length;
+		if (nameEnd >= size) {
+			return false;
+		}
+		byte next = byteAt(nameEnd);
+		return next == '>' || next == '/' || next == ' ' || next == '\t' || next == '\n' || next == '\r';
+	}
+
+	/** Return the position following the next occurrence of the pattern, -1 if there is none. */
+	private long skipTo(long position, byte[] pattern) {
+		long index = indexOf(position, pattern);
+		return index < 0 ? -1 : index + pattern.length;
+	}
+
+	private long indexOf(long position, byte[] pattern) {
+		return mappedFile.indexOf(position, pattern);
+	}
+
+	private boolean matches(long position, byte[] pattern) {
+		return mappedFile.matches(position, pattern);
+	}
+
+	private byte byteAt(long position) {
+		return mappedFile.byteAt(position);
+	}
+
+	/** Byte range of the file holding consecutive survey units. */
+	@Getter
+	static class Chunk {
+		private final long start;
+		private final long end;
+		private final int surveyUnitsCount;
+		private final String encoding;
+
+		Chunk(long start, long end, int surveyUnitsCount, String encoding) {
+			this.start = start;
+			this.end = end;
+			this.surveyUnitsCount = surveyUnitsCount;
+			this.encoding = encoding;
+		}
+	}
+
+}
@@ -1,17 +1,13 @@
 package fr.insee.kraftwerk.core.parsers;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
-import com.opencsv.CSVParser;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import com.opencsv.exceptions.CsvValidationException;
 
 import fr.insee.kraftwerk.core.Constants;
@@ -22,6 +18,7 @@ import fr.insee.kraftwerk.core.metadata.VariablesMap;
 import fr.insee.kraftwerk.core.rawdata.GroupInstance;
 import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
 import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+import fr.insee.kraftwerk.core.utils.CsvChunkReader;
 import lombok.extern.log4j.Log4j2;
 
 /**
@@ -33,11 +30,6 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class PaperDataParser extends DataParser {
 
-	/** File reader */
-	private FileReader filereader;
-	/** Csv reader */
-	private CSVReader csvReader;
-
 	/**
 	 * Parser constructor.
 	 * 
@@ -48,41 +40,16 @@ public class PaperDataParser extends DataParser {
 		super(data);
 	}
 
-	/**
-	 * Instantiate a CSVReader.
-	 * 
-	 * @param filePath Path to the CSV file.
-	 */
-	private void readCsvFile(Path filePath) {
-		try {
-			// Create an object of file reader
-			// class with CSV file as a parameter.
-			filereader = new FileReader(filePath.toString());
-			// create csvReader object passing
-			// file reader as a parameter
-			csvReader = new CSVReader(filereader);
-
-			// create csvParser object with
-			// custom separator semicolon
-			CSVParser parser = new CSVParserBuilder().withSeparator(Constants.CSV_PAPER_DATA_SEPARATOR).build();
-
-			// create csvReader object with parameter
-			// file reader and parser
-			csvReader = new CSVReaderBuilder(filereader)
-					// .withSkipLines(1) // (uncomment to ignore header)
-					.withCSVParser(parser).build();
-
-		} catch (FileNotFoundException e) {
-			log.error(String.format("Unable to find the file %s", filePath), e);
-		}
+	@Override
+	DataParser newParser(SurveyRawData partialData) {
+		return new PaperDataParser(partialData);
 	}
 
 	@Override
 	void parseDataFile(Path filePath) {
 
-		readCsvFile(filePath);
-
-		try {
+		try (CsvChunkReader csvChunkReader = new CsvChunkReader(filePath, Constants.CSV_PAPER_DATA_SEPARATOR,
+				Charset.defaultCharset(), getParsingThreads())) {
 
 			/*
 			 * We first map the variables in the header (first line) of the CSV file to the
@@ -90,14 +57,20 @@ public class PaperDataParser extends DataParser {
 			 */
 
 			// Variables
-			String[] header = csvReader.readNext();
+			String[] header = csvChunkReader.readHeader();
+			if (header == null) {
+				log.warn(String.format("Paper data file %s is empty", filePath));
+				return;
+			}
 			VariablesMap variables = data.getVariablesMap();
-			Map<Integer, String> csvVariablesMap = new HashMap<>();
+			List<Integer> csvColumns = new ArrayList<>();
+			List<Variable> csvVariables = new ArrayList<>();
 			for (int j = 1; j < header.length; j++) {
 				String variableName = header[j];
 				// If the variable name is in the DDI we map it directly
 				if (variables.hasVariable(variableName)) {
-					csvVariablesMap.put(j, variableName);
+					csvColumns.add(j);
+					csvVariables.add(variables.getVariable(variableName));
 				}
 				// Else the variable might be from a unique choice question that has been split
 				else {
@@ -112,7 +85,8 @@ public class PaperDataParser extends DataParser {
 						UcqVariable ucqVariable = (UcqVariable) variables.getVariable(variableStem);
 						PaperUcq indicatorVariable = new PaperUcq(variableName, ucqVariable, ucqValue);
 						variables.putVariable(indicatorVariable);
-						csvVariablesMap.put(j, variableName);
+						csvColumns.add(j);
+						csvVariables.add(indicatorVariable);
 					} else {
 						log.warn(String.format("Unable to find a variable corresponding to CSV column \"%s\"",
 								variableName));
@@ -124,48 +98,19 @@ public class PaperDataParser extends DataParser {
 
 			/*
 			 * Then we read each data line and carefully put values at the right place.
+			 * Lines are converted concurrently (the column plan above is read-only),
+			 * and added to the data object in file order.
 			 */
 
 			// Survey answers
-			String[] nextRecord;
-			while ((nextRecord = csvReader.readNext()) != null) {
-
-				QuestionnaireData questionnaireData = new QuestionnaireData();
-				GroupInstance answers = questionnaireData.getAnswers();
-
-				// Identifiers
-				String rowIdentifier = nextRecord[0];
-				String[] rowIdentifiers = rowIdentifier.split(Constants.PAPER_IDENTIFIER_SEPARATOR);
-				questionnaireData.setIdentifier(rowIdentifiers[0]);
-				data.getIdSurveyUnits().add(rowIdentifiers[0]);
-
-				if (rowIdentifiers.length >= 1) {
-
-					// Read variables values
-					for (int j : csvVariablesMap.keySet()) {
-						// Get the value
-						String value = nextRecord[j];
-
-						// Get the variable
-						String variableName = csvVariablesMap.get(j);
-						Variable variable = variables.getVariable(variableName);
-						// Put the value
-						if (variable.getGroup().isRoot()) {
-							answers.putValue(variableName, value);
-						} else if (rowIdentifiers.length > 1) {
-							answers.putValue(variableName, value);
-							String subGroupId = rowIdentifiers[1];
-							String groupName = variable.getGroupName();
-							answers.getSubGroup(groupName).putValue(value, variableName,
-									createGroupId(groupName, subGroupId));
-
-						}
-					}
-				}
+			List<QuestionnaireData> questionnaires = csvChunkReader.readRecords(
+					nextRecord -> readRecord(nextRecord, csvColumns, csvVariables));
+			for (QuestionnaireData questionnaireData : questionnaires) {
+				data.getIdSurveyUnits().add(questionnaireData.getIdentifier());
 				data.addQuestionnaire(questionnaireData);
 			}
-			filereader.close();
-			csvReader.close();
+		} catch (NoSuchFileException e) {
+			log.error(String.format("Unable to find the file %s", filePath), e);
 		} catch (CsvValidationException e) {
 			log.error(String.format("Following CSV file is malformed: %s", filePath), e);
 		} catch (IOException e) {
@@ -173,6 +118,49 @@ public class PaperDataParser extends DataParser {
 		}
 	}
 
+	/**
+	 * Convert a data line of the CSV file.
+	 *
+	 * @param nextRecord   Values of the line.
+	 * @param csvColumns   Indexes of the columns to be read.
+	 * @param csvVariables Variables corresponding to these columns.
+	 * @return A questionnaire with the values of the line.
+	 */
+	private QuestionnaireData readRecord(String[] nextRecord, List<Integer> csvColumns, List<Variable> csvVariables) {
+		QuestionnaireData questionnaireData = new QuestionnaireData();
+		GroupInstance answers = questionnaireData.getAnswers();
+
+		// Identifiers
+		String rowIdentifier = nextRecord[0];
+		String[] rowIdentifiers = rowIdentifier.split(Constants.PAPER_IDENTIFIER_SEPARATOR);
+		questionnaireData.setIdentifier(rowIdentifiers[0]);
+
+		if (rowIdentifiers.length >= 1) {
+
+			// Read variables values
+			for (int k = 0; k < csvColumns.size(); k++) {
+				// Get the value
+				String value = nextRecord[csvColumns.get(k)];
+
+				// Get the variable
+				Variable variable = csvVariables.get(k);
+				String variableName = variable.getName();
+				// Put the value
+				if (variable.getGroup().isRoot()) {
+					answers.putValue(variableName, value);
+				} else if (rowIdentifiers.length > 1) {
+					answers.putValue(variableName, value);
+					String subGroupId = rowIdentifiers[1];
+					String groupName = variable.getGroupName();
+					answers.getSubGroup(groupName).putValue(value, variableName,
+							createGroupId(groupName, subGroupId));
+
+				}
+			}
+		}
+		return questionnaireData;
+	}
+
 	// TODO: do something more robust here (-> needs of standardisation for paper
 	// data files)
 	private String getVariableStem(String variableName) {
@@ -1,23 +1,42 @@
 package fr.insee.kraftwerk.core.parsers;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import fr.insee.kraftwerk.core.rawdata.GroupData;
 import fr.insee.kraftwerk.core.rawdata.GroupInstance;
 import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
 import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
-import fr.insee.kraftwerk.core.utils.XmlFileReader;
+import fr.insee.kraftwerk.core.utils.XmlStreamUtils;
 import lombok.extern.log4j.Log4j2;
-import nu.xom.Document;
-import nu.xom.Element;
-import nu.xom.Elements;
 
 /**
  * Implementation of DataParser to read Xforms data files.
+ * <p>
+ * The file is read in a streaming way (StAX), in a single pass: each Questionnaire element is
+ * converted into a QuestionnaireData object while it is read, without building a document.
  */
 @Log4j2
 public class XformsDataParser extends DataParser {
 
+	private static final String QUESTIONNAIRES = "Questionnaires";
+	private static final String QUESTIONNAIRE = "Questionnaire";
+	private static final String GENERAL_INFORMATION = "InformationsGenerales";
+	private static final String SURVEY_UNIT = "UniteEnquetee";
+	private static final String IDENTIFIER = "Identifiant";
+	private static final String CUSTOM_INFORMATION = "InformationsPersonnalisees";
+	private static final String VARIABLE = "Variable";
+	private static final String GROUP = "Groupe";
+	private static final String VALUE = "Valeur";
+	private static final String NEW_VALUE_TYPE = "nouvelle";
+
 	/**
 	 * Parser constructor.
 	 * @param data The SurveyRawData to be filled by the parseSurveyData method.
@@ -27,20 +46,9 @@ public class XformsDataParser extends DataParser {
 		super(data);
 	}
 
-	/**
-	 * Parse the XML file from the given path.
-	 * @param filePath Path to the XML file.
-	 * @return The parsed document.
-	 */
-	private Document readXmlFile(Path filePath) {
-		XmlFileReader xmlFileReader = new XmlFileReader();
-		Document document = xmlFileReader.readXmlFile(filePath);
-		if (document != null) {
-			log.info("Successfully parsed Xforms answers file: " + filePath);
-		} else {
-			log.warn("Failed to parse Xforms answers file: " + filePath);
-		}
-		return document;
+	@Override
+	DataParser newParser(SurveyRawData partialData) {
+		return new XformsDataParser(partialData);
 	}
 
 	/**
@@ -52,110 +60,166 @@ public class XformsDataParser extends DataParser {
 	 */
 	@Override
 	void parseDataFile(Path filePath) {
+		try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(filePath))) {
+			XMLStreamReader reader = XmlStreamUtils.createXmlStreamReader(inputStream);
+			try {
+				readXformsDocument(reader);
+			} finally {
+				reader.close();
+			}
+			log.info("Successfully parsed Xforms answers file: " + filePath);
+		} catch (XMLStreamException e) {
+			log.error("XML document is malformed.", e);
+			log.warn("Failed to parse Xforms answers file: " + filePath);
+		} catch (IOException e) {
+			log.error(String.format("Could not connect to data file %s", filePath), e);
+			log.warn("Failed to parse Xforms answers file: " + filePath);
+		}
+	}
 
-		Document document = readXmlFile(filePath);
-
-		if(document!=null) {
-			Element root = document.getRootElement();
-			Element questionnairesNode = root.getFirstChildElement("Questionnaires");
-			Elements questionnairesNodeList = questionnairesNode.getChildElements("Questionnaire");
-
-			for (int i = 0; i < questionnairesNodeList.size(); i++) {
-
-				QuestionnaireData questionnaireData = new QuestionnaireData();
-				GroupInstance answers = questionnaireData.getAnswers();
-
-				Element questionnaireNode = questionnairesNodeList.get(i);
-
-				// Identifier
-				Element identifierNode = questionnaireNode.getFirstChildElement("InformationsGenerales")
-						.getFirstChildElement("UniteEnquetee").getFirstChildElement("Identifiant");
-				String identifier = identifierNode.getValue();
-				questionnaireData.setIdentifier(identifier);
-				data.getIdSurveyUnits().add(identifier);
-
-				// Survey answers
-
-				// Root variables
-				Elements variableNodeList = questionnaireNode.getFirstChildElement("InformationsPersonnalisees")
-						.getChildElements("Variable");
-				for (int j = 0; j < variableNodeList.size(); j++) {
-					Element variableNode = variableNodeList.get(j);
-					String variableName = variableNode.getAttributeValue("idVariable");
-					if (data.getVariablesMap().hasVariable(variableName)) {
-						String value = getNodeValue(variableNode);
-						answers.putValue(variableName, value);
+	/** Read the Questionnaire elements of the first Questionnaires element of the document. */
+	private void readXformsDocument(XMLStreamReader reader) throws XMLStreamException {
+		// Root element
+		while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+			// (prolog)
+		}
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			if (QUESTIONNAIRES.equals(reader.getLocalName())) {
+				int questionnaireIndex = 0;
+				while (XmlStreamUtils.nextChildElement(reader)) {
+					if (QUESTIONNAIRE.equals(reader.getLocalName())) {
+						readQuestionnaire(reader, questionnaireIndex == 0);
+						questionnaireIndex++;
 					} else {
-						if (i == 0) {
-							log.info(String.format(
-									"Root variable \"%s\" not expected, corresponding values will be ignored.", variableName));
-						}
+						XmlStreamUtils.skipElement(reader);
 					}
-
 				}
+				return;
+			}
+			XmlStreamUtils.skipElement(reader);
+		}
+	}
 
-				// Root groups TODO : implement recursions for groups in groups etc.
-				Elements groupNodeList = questionnaireNode.getFirstChildElement("InformationsPersonnalisees")
-						.getChildElements("Groupe");
-
-				for (Element groupNode : groupNodeList) {
-					// Get the group instances
-					Elements groupInstanceNodeList = groupNode.getChildElements("Groupe");
-					// Get the group name of the instances
-					String groupName = groupInstanceNodeList.get(0).getAttributeValue("typeGroupe");
-
-					GroupData groupData = answers.getSubGroup(groupName);
-
-					for (Element groupInstanceNode : groupInstanceNodeList) {
-						String groupInstanceId = groupInstanceNode.getAttributeValue("idGroupe");
-						GroupInstance groupInstance = groupData.getInstance(groupInstanceId);
-						Elements groupVariableNodeList = groupInstanceNode.getChildElements("Variable");
-						for (Element variableNode : groupVariableNodeList) {
-							String variableName = variableNode.getAttributeValue("idVariable");
-							if (data.getVariablesMap().hasVariable(variableName)) {
-								String value = getNodeValue(variableNode);
-								groupInstance.putValue(variableName, value);
-							} else {
-								if (i == 0 && groupInstanceId.endsWith("1")) {
-									log.info(String.format(
-											"Variable \"%s\" not expected in group \"%s\", corresponding values will be ignored.",
-											variableName, groupName));
-								}
+	/** Read a Questionnaire element and add it to the data object. Unexpected variables are logged for the first questionnaire only. */
+	private void readQuestionnaire(XMLStreamReader reader, boolean logUnexpectedVariables) throws XMLStreamException {
+		QuestionnaireData questionnaireData = new QuestionnaireData();
+		boolean identifierRead = false;
+		boolean answersRead = false;
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			String elementName = reader.getLocalName();
+			if (GENERAL_INFORMATION.equals(elementName) && !identifierRead) {
+				questionnaireData.setIdentifier(readIdentifier(reader));
+				identifierRead = true;
+			} else if (CUSTOM_INFORMATION.equals(elementName) && !answersRead) {
+				readAnswers(reader, questionnaireData.getAnswers(), logUnexpectedVariables);
+				answersRead = true;
+			} else {
+				XmlStreamUtils.skipElement(reader);
+			}
+		}
+		data.getIdSurveyUnits().add(questionnaireData.getIdentifier());
+		data.addQuestionnaire(questionnaireData);
+	}
 
-							}
+	/** Read the identifier in the UniteEnquetee element of the InformationsGenerales element. */
+	private String readIdentifier(XMLStreamReader reader) throws XMLStreamException {
+		String identifier = null;
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			if (identifier == null && SURVEY_UNIT.equals(reader.getLocalName())) {
+				while (XmlStreamUtils.nextChildElement(reader)) {
+					if (identifier == null && IDENTIFIER.equals(reader.getLocalName())) {
+						identifier = XmlStreamUtils.readText(reader);
+					} else {
+						XmlStreamUtils.skipElement(reader);
+					}
+				}
+			} else {
+				XmlStreamUtils.skipElement(reader);
+			}
+		}
+		return identifier;
+	}
 
-						}
+	/** Read the root variables and the groups of the InformationsPersonnalisees element. */
+	private void readAnswers(XMLStreamReader reader, GroupInstance answers, boolean logUnexpectedVariables)
+			throws XMLStreamException {
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			String elementName = reader.getLocalName();
+			// Root variables
+			if (VARIABLE.equals(elementName)) {
+				String variableName = reader.getAttributeValue(null, "idVariable");
+				if (data.getVariablesMap().hasVariable(variableName)) {
+					answers.putValue(variableName, readNewValue(reader));
+				} else {
+					if (logUnexpectedVariables) {
+						log.info(String.format(
+								"Root variable \"%s\" not expected, corresponding values will be ignored.", variableName));
 					}
+					XmlStreamUtils.skipElement(reader);
 				}
+			}
+			// Root groups TODO : implement recursions for groups in groups etc.
+			else if (GROUP.equals(elementName)) {
+				readGroup(reader, answers, logUnexpectedVariables);
+			} else {
+				XmlStreamUtils.skipElement(reader);
+			}
+		}
+	}
 
-				data.addQuestionnaire(questionnaireData);
+	/** Read the instances of a root group. The group name is given by the first instance. */
+	private void readGroup(XMLStreamReader reader, GroupInstance answers, boolean logUnexpectedVariables)
+			throws XMLStreamException {
+		GroupData groupData = null;
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			if (!GROUP.equals(reader.getLocalName())) {
+				XmlStreamUtils.skipElement(reader);
+				continue;
+			}
+			// Get the group name of the instances
+			if (groupData == null) {
+				groupData = answers.getSubGroup(reader.getAttributeValue(null, "typeGroupe"));
+			}
+			String groupInstanceId = reader.getAttributeValue(null, "idGroupe");
+			GroupInstance groupInstance = groupData.getInstance(groupInstanceId);
+			while (XmlStreamUtils.nextChildElement(reader)) {
+				if (!VARIABLE.equals(reader.getLocalName())) {
+					XmlStreamUtils.skipElement(reader);
+					continue;
+				}
+				String variableName = reader.getAttributeValue(null, "idVariable");
+				if (data.getVariablesMap().hasVariable(variableName)) {
+					groupInstance.putValue(variableName, readNewValue(reader));
+				} else {
+					if (logUnexpectedVariables && groupInstanceId.endsWith("1")) {
+						log.info(String.format(
+								"Variable \"%s\" not expected in group \"%s\", corresponding values will be ignored.",
+								variableName, groupData.getName()));
+					}
+					XmlStreamUtils.skipElement(reader);
+				}
 			}
 		}
 	}
 
 	/**
-	 * Return the value of a "Variable" node. In Coleman files, theses nodes are
-	 * like this: <Variable idVariable="[variableLabel]"> <Valeur type="ancienne"/>
-	 * <Valeur type="nouvelle">[value]</Valeur> </Variable>
+	 * Return the value of a "Variable" element, and move the reader to its end tag.
+	 * In Coleman files, theses elements are like this: <Variable idVariable="[variableLabel]">
+	 * <Valeur type="ancienne"/> <Valeur type="nouvelle">[value]</Valeur> </Variable>
 	 *
-	 * @param variableNode : A nu.xom.Element at the "Variable" level.
-	 *
-	 * @return The Sting value of the node.
+	 * @return The String value of the first "nouvelle" value, null if there is none.
 	 */
-	private String getNodeValue(Element variableNode) {
-
-		// Method using XPath
-		return variableNode.query("./Valeur[@type=\"nouvelle\"]").get(0).getValue();
-
-		// Method iterating on children nodes
-		/*
-		 * final String[] value = new String[1];
-		 * variableNode.getChildElements("Valeur").forEach( valueNode -> {
-		 * if(valueNode.getAttributeValue("type").equals("nouvelle")){ value[0] =
-		 * valueNode.getValue(); } } ); return value[0];
-		 */
-
-		// TODO: test efficiency of both methods
+	private String readNewValue(XMLStreamReader reader) throws XMLStreamException {
+		String value = null;
+		while (XmlStreamUtils.nextChildElement(reader)) {
+			if (value == null && VALUE.equals(reader.getLocalName())
+					&& NEW_VALUE_TYPE.equals(reader.getAttributeValue(null, "type"))) {
+				value = XmlStreamUtils.readText(reader);
+			} else {
+				XmlStreamUtils.skipElement(reader);
+			}
+		}
+		return value;
 	}
 
 }
@@ -0,0 +1,71 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.BitSet;
+
+/**
+ * Column of BOOLEAN values, stored in bitsets.
+ * Values can be written "true"/"false" or "1"/"0" in data: the way each value is written is kept.
+ * This is the storage of MCQ modalities, question grid cells and FILTER_RESULT variables,
+ * which are the most numerous variables in grid-heavy questionnaires: each of them costs a few bits per row.
+ */
+public class BooleanColumn extends TypedColumn {
+
+	/** Rows with a true value. */
+	private final BitSet trueRows = new BitSet();
+	/** Rows with a value written "1" or "0". */
+	private final BitSet digitRows = new BitSet();
+
+	BooleanColumn(String variableName) {
+		super(variableName);
+	}
+
+	/** Return the value of the given row. Must only be called if hasTypedValue is true for this row. */
+	public boolean getBoolean(int row) {
+		return trueRows.get(row);
+	}
+
+	/**
+	 * Convert a boolean value read in data.
+	 * @return true for "true" or "1", false for "false" or "0", null for any other value.
+	 */
+	public static Boolean toBoolean(String value) {
+		if (value == null) {
+			return null;
+		}
+		return switch (value) {
+			case "true", "1" -> Boolean.TRUE;
+			case "false", "0" -> Boolean.FALSE;
+			default -> null;
+		};
+	}
+
+	@Override
+	protected int putTypedValue(int row, String value) {
+		switch (value) {
+			case "true" -> putBoolean(row, true, false);
+			case "false" -> putBoolean(row, false, false);
+			case "1" -> putBoolean(row, true, true);
+			case "0" -> putBoolean(row, false, true);
+			default -> {
+				// Other values are not converted to booleans in VTL datasets
+				return INVALID;
+			}
+		}
+		return STORED;
+	}
+
+	private void putBoolean(int row, boolean value, boolean digit) {
+		trueRows.set(row, value);
+		digitRows.set(row, digit);
+	}
+
+	@Override
+	protected String formatValue(int row) {
+		boolean value = trueRows.get(row);
+		if (digitRows.get(row)) {
+			return value ? "1" : "0";
+		}
+		return value ? "true" : "false";
+	}
+
+}
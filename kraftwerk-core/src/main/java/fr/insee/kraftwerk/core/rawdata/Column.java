@@ -0,0 +1,41 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.BitSet;
+
+import lombok.Getter;
+
+/**
+ * Values of a variable in the rows of a group table.
+ * A bitmap tells which rows have a value, so that a null value put in data
+ * can be distinguished from a variable that is absent from a group instance.
+ * The way values are stored depends on the implementation (see ColumnStore.createColumn).
+ */
+public abstract class Column {
+
+	protected static final int INITIAL_CAPACITY = 16;
+
+	@Getter
+	private final String variableName;
+	/** Rows in which a value has been put. */
+	protected final BitSet valueRows = new BitSet();
+
+	protected Column(String variableName) {
+		this.variableName = variableName;
+	}
+
+	/** Return the value of the given row as a String, null if there is no value. */
+	public abstract String getValue(int row);
+
+	/** Return true if a value (possibly null) has been put in the given row. */
+	public boolean hasValue(int row) {
+		return valueRows.get(row);
+	}
+
+	/** Return the number of rows having a value. */
+	public int getValuesCount() {
+		return valueRows.cardinality();
+	}
+
+	abstract void putValue(int row, String value);
+
+}
@@ -0,0 +1,108 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import fr.insee.kraftwerk.core.KraftwerkError;
+import fr.insee.kraftwerk.core.metadata.ErrorVariableType;
+import fr.insee.kraftwerk.core.metadata.UcqModality;
+import fr.insee.kraftwerk.core.metadata.UcqVariable;
+import fr.insee.kraftwerk.core.metadata.Variable;
+import fr.insee.kraftwerk.core.metadata.VariableType;
+import fr.insee.kraftwerk.core.metadata.VariablesMap;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Columnar storage of the values of the questionnaires of a SurveyRawData object.
+ * The store contains one table per group level (the root group and each group name),
+ * with one row per group instance and one column per variable.
+ * <p>
+ * Values are accessed through the QuestionnaireData, GroupData and GroupInstance objects,
+ * which become row handles once the questionnaire is added to the SurveyRawData object.
+ * The store is not thread-safe.
+ * <p>
+ * Columns are dictionary encoded while they have few distinct values. The dictionaries of UCQ variables
+ * are initialized with the modalities of the variable (from the variables map of the campaign),
+ * so that a modality has the same code in every store using the same metadata.
+ * Values of INTEGER, NUMBER, BOOLEAN and DATE variables are stored as primitives (see TypedColumn).
+ */
+@Log4j2
+public class ColumnStore {
+
+	/** Maximum number of distinct values of a dictionary encoded column (byte codes). */
+	public static final int LOW_CARDINALITY_LIMIT = 254;
+	/** Maximum number of distinct values of a dictionary encoded UCQ column (short codes). */
+	public static final int UCQ_DICTIONARY_LIMIT = 0xFFFE;
+
+	/** Variables of the data, used to create the columns. */
+	@Getter @Setter
+	private VariablesMap variablesMap;
+
+	/** Tables of the store. Keys: a group name. */
+	private final Map<String, GroupTable> tables = new LinkedHashMap<>();
+
+	/** Return the table of the given group, created if it doesn't already exist. */
+	public GroupTable getTable(String groupName) {
+		return tables.computeIfAbsent(groupName, name -> new GroupTable(name, this));
+	}
+
+	/** Return true if the store contains a table for the given group. */
+	public boolean hasTable(String groupName) {
+		return tables.containsKey(groupName);
+	}
+
+	public Collection<GroupTable> getTables() {
+		return tables.values();
+	}
+
+	/**
+	 * Create the column of the given variable, depending on its type in the variables map:
+	 * typed columns for INTEGER, NUMBER, BOOLEAN and DATE variables, String columns with a dictionary
+	 * suited to the variable otherwise.
+	 */
+	Column createColumn(String variableName) {
+		Variable variable = variablesMap != null ? variablesMap.getVariable(variableName) : null;
+		if (variable instanceof UcqVariable ucqVariable) {
+			return new StringColumn(variableName, new ValueDictionary(UCQ_DICTIONARY_LIMIT,
+					ucqVariable.getModalities().stream().map(UcqModality::getValue)
+						.filter(Objects::nonNull).distinct().toList()));
+		}
+		VariableType type = variable != null ? variable.getType() : null;
+		if (type == null) {
+			return new StringColumn(variableName, new ValueDictionary(LOW_CARDINALITY_LIMIT));
+		}
+		return switch (type) {
+			case INTEGER -> new IntegerColumn(variableName);
+			case NUMBER -> new NumberColumn(variableName);
+			case BOOLEAN -> new BooleanColumn(variableName);
+			case DATE -> new DateColumn(variableName);
+			default -> new StringColumn(variableName, new ValueDictionary(LOW_CARDINALITY_LIMIT));
+		};
+	}
+
+	/**
+	 * Return an error for each variable having values that can't be converted to the type of the variable.
+	 * @param dataMode Data mode of the data object, given in the errors.
+	 */
+	public List<KraftwerkError> getInvalidValuesErrors(String dataMode) {
+		List<KraftwerkError> errors = new ArrayList<>();
+		for (GroupTable table : tables.values()) {
+			for (Column column : table.getColumns()) {
+				if (column instanceof TypedColumn typedColumn && typedColumn.getInvalidValuesCount() > 0) {
+					log.warn("{} values of variable {} can't be converted to its type, example: \"{}\"",
+							typedColumn.getInvalidValuesCount(), column.getVariableName(), typedColumn.getFirstInvalidValue());
+					errors.add(new ErrorVariableType(variablesMap.getVariable(column.getVariableName()), dataMode,
+							typedColumn.getInvalidValuesCount(), typedColumn.getFirstInvalidValue()));
+				}
+			}
+		}
+		return errors;
+	}
+
+}
@@ -0,0 +1,58 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Column of DATE values, stored as epoch days.
+ * Only complete ISO dates (yyyy-MM-dd) are converted, partial dates (yyyy-MM, yyyy) are kept as Strings.
+ */
+public class DateColumn extends TypedColumn {
+
+	private static final Pattern PARTIAL_DATE_PATTERN = Pattern.compile("\\d{4}(-\\d{2})?");
+
+	private long[] epochDays = new long[INITIAL_CAPACITY];
+
+	DateColumn(String variableName) {
+		super(variableName);
+	}
+
+	/** Return the value of the given row. Must only be called if hasTypedValue is true for this row. */
+	public LocalDate getDate(int row) {
+		return LocalDate.ofEpochDay(epochDays[row]);
+	}
+
+	/** Return the value of the given row as a number of days since 1970-01-01. */
+	public long getEpochDay(int row) {
+		return epochDays[row];
+	}
+
+	@Override
+	protected int putTypedValue(int row, String value) {
+		if (PARTIAL_DATE_PATTERN.matcher(value).matches()) {
+			return NOT_CANONICAL;
+		}
+		LocalDate date;
+		try {
+			date = LocalDate.parse(value);
+		} catch (DateTimeParseException e) {
+			return INVALID;
+		}
+		if (!date.toString().equals(value)) {
+			return NOT_CANONICAL;
+		}
+		if (row >= epochDays.length) {
+			epochDays = Arrays.copyOf(epochDays, Math.max(row + 1, epochDays.length * 2));
+		}
+		epochDays[row] = date.toEpochDay();
+		return STORED;
+	}
+
+	@Override
+	protected String formatValue(int row) {
+		return LocalDate.ofEpochDay(epochDays[row]).toString();
+	}
+
+}
@@ -16,10 +16,18 @@ public class GroupData {
      * Values: a GroupInstance (which is a subgroup of the current group). */
     public LinkedHashMap<String, GroupInstance> groupInstances = new LinkedHashMap<>();
 
+    /** Instance containing the group (null for a standalone group). */
+    private GroupInstance parentInstance;
+
     public GroupData(String name){
         this.groupName = name;
     }
 
+    GroupData(String name, GroupInstance parentInstance){
+        this.groupName = name;
+        this.parentInstance = parentInstance;
+    }
+
     public String getName() {
         return groupName;
     }
@@ -39,6 +47,10 @@ public class GroupData {
             return groupInstances.get(groupId);
         } else {
             GroupInstance newInstance = new GroupInstance(groupName, groupId);
+            // New instances of an attached group go directly to the column store
+            if (parentInstance != null && parentInstance.table != null) {
+                newInstance.attach(parentInstance.table.getStore(), parentInstance.row);
+            }
             groupInstances.put(groupId, newInstance);
             return newInstance;
         }
@@ -104,6 +116,13 @@ public class GroupData {
         return getValue(variableName, groupId);
     }
 
+    /** Move the values of the instances to the given column store. */
+    void attach(ColumnStore store, int parentRow) {
+        for (GroupInstance groupInstance : groupInstances.values()) {
+            groupInstance.attach(store, parentRow);
+        }
+    }
+
     /**
      * Converts the integer given to the string instance id that will be used in datasets.
      * @param instanceNumber Instance number.
@@ -24,10 +24,14 @@ public class GroupInstance {
 	String groupId;
 
 	/**
-	 * A map containing group's variables' data. Keys: a variable name. Values: the
-	 * String value of a variable in data file.
+	 * A map containing group's variables' data, until the instance is attached to a column store.
+	 * Keys: a variable name. Values: the String value of a variable in data file.
 	 */
 	Map<String, String> values = new LinkedHashMap<>();
+	/** Table containing the values once the instance is attached to a column store (null before). */
+	GroupTable table;
+	/** Row of the instance in the table. */
+	int row = -1;
 	/**
 	 * A map containing sub groups' data. Keys: a group name. Values: a GroupData
 	 * (which is a subgroup of the current group).
@@ -49,22 +53,68 @@ public class GroupInstance {
 	}
 
 	public String getValue(String variableName) {
+		if (table != null) {
+			return table.getValue(variableName, row);
+		}
 		return values.get(variableName);
 	}
 
+	/**
+	 * Return the value of a boolean variable (see BooleanColumn.toBoolean).
+	 * Values stored in a boolean column are read from the bitsets, without String conversion.
+	 */
+	public Boolean getBooleanValue(String variableName) {
+		if (table != null && table.getColumn(variableName) instanceof BooleanColumn booleanColumn) {
+			// Values kept as Strings in a boolean column are empty or invalid
+			return booleanColumn.hasTypedValue(row) ? booleanColumn.getBoolean(row) : null;
+		}
+		return BooleanColumn.toBoolean(getValue(variableName));
+	}
+
+	/**
+	 * Return the value of an integer variable (see IntegerColumn.toLong).
+	 * Values stored in an integer column are read without String conversion.
+	 */
+	public Long getLongValue(String variableName) {
+		if (table != null && table.getColumn(variableName) instanceof IntegerColumn integerColumn
+				&& integerColumn.hasTypedValue(row)) {
+			return integerColumn.getLong(row);
+		}
+		return IntegerColumn.toLong(getValue(variableName));
+	}
+
+	/**
+	 * Return the value of a number variable (see NumberColumn.toDouble).
+	 * Values stored in a number column are read without String conversion.
+	 */
+	public Double getDoubleValue(String variableName) {
+		if (table != null && table.getColumn(variableName) instanceof NumberColumn numberColumn
+				&& numberColumn.hasTypedValue(row)) {
+			return numberColumn.getDouble(row);
+		}
+		return NumberColumn.toDouble(getValue(variableName));
+	}
+
 	public Set<String> getVariableNames() {
+		if (table != null) {
+			return table.getVariableNames(row);
+		}
 		return values.keySet();
 	}
 
 	public void putValue(String variableName, String value) {
-		values.put(variableName, value);
+		if (table != null) {
+			table.putValue(variableName, row, value);
+		} else {
+			values.put(variableName, value);
+		}
 	}
 
 	public GroupData getSubGroup(String groupName) {
 		if (subGroups.containsKey(groupName)) {
 			return subGroups.get(groupName);
 		} else {
-			GroupData newGroup = new GroupData(groupName);
+			GroupData newGroup = new GroupData(groupName, this);
 				if (!groupName.contains(Constants.ROOT_GROUP_NAME)) {
 				subGroups.put(groupName, newGroup);	
 			}
@@ -80,4 +130,25 @@ public class GroupInstance {
 		return new LinkedHashSet<>(subGroups.keySet());
 	}
 
+	/**
+	 * Move the values of the instance, and of the instances of its sub groups, to the given column store.
+	 * The instance can already be attached to another store.
+	 *
+	 * @param store     A column store.
+	 * @param parentRow Row of the parent instance in the store (-1 for a root instance).
+	 */
+	void attach(ColumnStore store, int parentRow) {
+		GroupTable newTable = store.getTable(groupName);
+		int newRow = newTable.addRow(groupId, parentRow);
+		for (String variableName : getVariableNames()) {
+			newTable.putValue(variableName, newRow, getValue(variableName));
+		}
+		table = newTable;
+		row = newRow;
+		values = null;
+		for (GroupData groupData : subGroups.values()) {
+			groupData.attach(store, newRow);
+		}
+	}
+
 }
@@ -0,0 +1,92 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+
+/**
+ * Table of a column store, containing the values of the instances of a group.
+ * Each row corresponds to a group instance, and keeps the row index of its parent instance
+ * in the table of the parent group.
+ */
+public class GroupTable {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	@Getter
+	private final String groupName;
+	@Getter
+	private final ColumnStore store;
+	@Getter
+	private int rowsCount = 0;
+	/** Group instance id of each row. */
+	private String[] instanceIds = new String[INITIAL_CAPACITY];
+	/** Row index of the parent instance of each row (-1 for root instances). */
+	private int[] parentRows = new int[INITIAL_CAPACITY];
+	/** Columns of the table. Keys: a variable name. */
+	private final Map<String, Column> columns = new LinkedHashMap<>();
+
+	GroupTable(String groupName, ColumnStore store) {
+		this.groupName = groupName;
+		this.store = store;
+	}
+
+	/**
+	 * Add a row to the table.
+	 * @param instanceId Group instance id.
+	 * @param parentRow Row index of the parent instance (-1 for root instances).
+	 * @return The index of the new row.
+	 */
+	int addRow(String instanceId, int parentRow) {
+		if (rowsCount == instanceIds.length) {
+			instanceIds = Arrays.copyOf(instanceIds, rowsCount * 2);
+			parentRows = Arrays.copyOf(parentRows, rowsCount * 2);
+		}
+		instanceIds[rowsCount] = instanceId;
+		parentRows[rowsCount] = parentRow;
+		return rowsCount++;
+	}
+
+	public String getInstanceId(int row) {
+		return instanceIds[row];
+	}
+
+	public int getParentRow(int row) {
+		return parentRows[row];
+	}
+
+	/** Return the column of the given variable, null if no value of this variable has been put in the table. */
+	public Column getColumn(String variableName) {
+		return columns.get(variableName);
+	}
+
+	public Collection<Column> getColumns() {
+		return columns.values();
+	}
+
+	public String getValue(String variableName, int row) {
+		Column column = columns.get(variableName);
+		return column != null ? column.getValue(row) : null;
+	}
+
+	public void putValue(String variableName, int row, String value) {
+		columns.computeIfAbsent(variableName, store::createColumn).putValue(row, value);
+	}
+
+	/** Return the names of the variables that have a value (possibly null) in the given row. */
+	public Set<String> getVariableNames(int row) {
+		Set<String> variableNames = new LinkedHashSet<>();
+		for (Column column : columns.values()) {
+			if (column.hasValue(row)) {
+				variableNames.add(column.getVariableName());
+			}
+		}
+		return variableNames;
+	}
+
+}
@@ -0,0 +1,59 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.Arrays;
+
+/**
+ * Column of INTEGER values, stored as longs.
+ */
+public class IntegerColumn extends TypedColumn {
+
+	private long[] values = new long[INITIAL_CAPACITY];
+
+	IntegerColumn(String variableName) {
+		super(variableName);
+	}
+
+	/** Return the value of the given row. Must only be called if hasTypedValue is true for this row. */
+	public long getLong(int row) {
+		return values[row];
+	}
+
+	/**
+	 * Convert an integer value read in data, surrounding spaces being ignored.
+	 * @return The long value, null for a null or empty value or a value that is not an integer.
+	 */
+	public static Long toLong(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		try {
+			return Long.valueOf(value.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	@Override
+	protected int putTypedValue(int row, String value) {
+		long longValue;
+		try {
+			longValue = Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return INVALID;
+		}
+		if (!Long.toString(longValue).equals(value)) {
+			return NOT_CANONICAL;
+		}
+		if (row >= values.length) {
+			values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+		}
+		values[row] = longValue;
+		return STORED;
+	}
+
+	@Override
+	protected String formatValue(int row) {
+		return Long.toString(values[row]);
+	}
+
+}
@@ -0,0 +1,70 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Column of NUMBER values, stored as doubles.
+ */
+public class NumberColumn extends TypedColumn {
+
+	/** Decimal numbers, with a dot as decimal separator and an optional exponent. */
+	private static final Pattern NUMBER_PATTERN = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+	/** Integral doubles below this limit are written without decimal part. */
+	private static final double INTEGRAL_FORMAT_LIMIT = 1e15;
+
+	private double[] values = new double[INITIAL_CAPACITY];
+
+	NumberColumn(String variableName) {
+		super(variableName);
+	}
+
+	/** Return the value of the given row. Must only be called if hasTypedValue is true for this row. */
+	public double getDouble(int row) {
+		return values[row];
+	}
+
+	/**
+	 * Convert a number value read in data (see Double.valueOf for accepted forms).
+	 * @return The double value, null for a null or empty value or a value that is not a number.
+	 */
+	public static Double toDouble(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		try {
+			return Double.valueOf(value);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	@Override
+	protected int putTypedValue(int row, String value) {
+		if (!NUMBER_PATTERN.matcher(value).matches()) {
+			return INVALID;
+		}
+		double doubleValue = Double.parseDouble(value);
+		if (!format(doubleValue).equals(value)) {
+			return NOT_CANONICAL;
+		}
+		if (row >= values.length) {
+			values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+		}
+		values[row] = doubleValue;
+		return STORED;
+	}
+
+	@Override
+	protected String formatValue(int row) {
+		return format(values[row]);
+	}
+
+	private static String format(double value) {
+		if (value == Math.rint(value) && Math.abs(value) < INTEGRAL_FORMAT_LIMIT) {
+			return Long.toString((long) value);
+		}
+		return Double.toString(value);
+	}
+
+}
@@ -22,6 +22,11 @@ public class QuestionnaireData {
     public GroupInstance getAnswers() {
         return answers;
     }
+
+    /** Move the answers of the questionnaire to the given column store. */
+    void attach(ColumnStore store) {
+        answers.attach(store, -1);
+    }
     
     /**
      * Put the given value corresponding to the variable given in the data object.
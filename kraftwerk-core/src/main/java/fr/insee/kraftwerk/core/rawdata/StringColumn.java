@@ -0,0 +1,117 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+/**
+ * Column of String values.
+ * <p>
+ * While the variable has few distinct values, the values are stored as dictionary codes:
+ * a byte per row, widened to a short per row beyond 254 distinct values. When the dictionary is full,
+ * the column falls back to plain String values.
+ */
+public class StringColumn extends Column {
+
+	/** Greatest stored code (code + 1, 0 standing for null) that fits an unsigned byte. */
+	private static final int MAX_BYTE_CODE = 0xFF;
+
+	/** Dictionary of the values, null once the column has fallen back to plain values. */
+	@Getter
+	private ValueDictionary dictionary;
+	/** Dictionary codes + 1 (0 for null) as unsigned bytes, null once widened to short codes. */
+	private byte[] byteCodes;
+	/** Dictionary codes + 1 (0 for null) as unsigned shorts. */
+	private short[] shortCodes;
+	/** Plain values, used once the dictionary is full. */
+	private String[] values;
+
+	/** Column storing dictionary codes as long as the dictionary is not full (plain values if no dictionary is given). */
+	StringColumn(String variableName, ValueDictionary dictionary) {
+		super(variableName);
+		this.dictionary = dictionary;
+		if (dictionary != null) {
+			byteCodes = new byte[INITIAL_CAPACITY];
+		} else {
+			values = new String[INITIAL_CAPACITY];
+		}
+	}
+
+	@Override
+	public String getValue(int row) {
+		if (dictionary == null) {
+			return row < values.length ? values[row] : null;
+		}
+		int code = getCode(row);
+		return code >= 0 ? dictionary.getValue(code) : null;
+	}
+
+	/** Return true if the values are stored as dictionary codes. */
+	public boolean isDictionaryEncoded() {
+		return dictionary != null;
+	}
+
+	/**
+	 * Return the dictionary code of the value in the given row, -1 for a null value.
+	 * Must only be called on a dictionary encoded column.
+	 */
+	public int getCode(int row) {
+		if (byteCodes != null) {
+			return row < byteCodes.length ? (byteCodes[row] & 0xFF) - 1 : -1;
+		}
+		return row < shortCodes.length ? (shortCodes[row] & 0xFFFF) - 1 : -1;
+	}
+
+	@Override
+	void putValue(int row, String value) {
+		if (dictionary != null) {
+			int code = value != null ? dictionary.encode(value) : -1;
+			if (value == null || code >= 0) {
+				putCode(row, code + 1);
+				valueRows.set(row);
+				return;
+			}
+			toPlainValues();
+		}
+		if (row >= values.length) {
+			values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+		}
+		values[row] = value;
+		valueRows.set(row);
+	}
+
+	private void putCode(int row, int storedCode) {
+		if (byteCodes != null && storedCode > MAX_BYTE_CODE) {
+			shortCodes = new short[byteCodes.length];
+			for (int i = 0; i < byteCodes.length; i++) {
+				shortCodes[i] = (short) (byteCodes[i] & 0xFF);
+			}
+			byteCodes = null;
+		}
+		if (byteCodes != null) {
+			if (row >= byteCodes.length) {
+				byteCodes = Arrays.copyOf(byteCodes, Math.max(row + 1, byteCodes.length * 2));
+			}
+			byteCodes[row] = (byte) storedCode;
+		} else {
+			if (row >= shortCodes.length) {
+				shortCodes = Arrays.copyOf(shortCodes, Math.max(row + 1, shortCodes.length * 2));
+			}
+			shortCodes[row] = (short) storedCode;
+		}
+	}
+
+	/** Decode the values of the column, which will store plain values from now on. */
+	private void toPlainValues() {
+		int capacity = byteCodes != null ? byteCodes.length : shortCodes.length;
+		String[] plainValues = new String[capacity];
+		for (int row = valueRows.nextSetBit(0); row >= 0; row = valueRows.nextSetBit(row + 1)) {
+			plainValues[row] = getValue(row);
+		}
+		values = plainValues;
+		dictionary = null;
+		byteCodes = null;
+		shortCodes = null;
+	}
+
+}
@@ -10,6 +10,7 @@ import lombok.Setter;
 
 /**
  * Object class to temporary store the data from a survey answer file.
+ * The values of the questionnaires added to the object are stored in columns (see ColumnStore).
  *
  */
 @Getter@Setter
@@ -21,6 +22,7 @@ public class SurveyRawData {
 	private VariablesMap variablesMap;
 	private final List<QuestionnaireData> questionnaires = new ArrayList<>();
     private List<String> idSurveyUnits = new ArrayList<>();//Used for file by file operations
+	private final ColumnStore columnStore = new ColumnStore();
 
 
 	public SurveyRawData() {}
@@ -28,7 +30,13 @@ public class SurveyRawData {
 		this.dataMode = dataMode;
 	}
 
+	public void setVariablesMap(VariablesMap variablesMap) {
+		this.variablesMap = variablesMap;
+		columnStore.setVariablesMap(variablesMap);
+	}
+
 	public void addQuestionnaire(QuestionnaireData questionnaireData) {
+		questionnaireData.attach(columnStore);
 		questionnaires.add(questionnaireData);
 	}
 
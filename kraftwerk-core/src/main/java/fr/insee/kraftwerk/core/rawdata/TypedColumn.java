@@ -0,0 +1,104 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Column storing the values of a typed variable (INTEGER, NUMBER, BOOLEAN or DATE) as primitives,
+ * with a bitmap of null values.
+ * <p>
+ * Values are converted when they are put in the column. To give back exactly the values read in data,
+ * a value which is not written in the canonical form of its type (for instance "3.50" for a number)
+ * is kept as a String, as well as empty values and values that can't be converted.
+ * The latter are counted, to be reported as errors.
+ */
+public abstract class TypedColumn extends Column {
+
+	/** The value has been stored as a primitive. */
+	protected static final int STORED = 0;
+	/** The value is valid but not in canonical form: it is kept as a String. */
+	protected static final int NOT_CANONICAL = 1;
+	/** The value can't be converted to the type of the column: it is kept as a String. */
+	protected static final int INVALID = 2;
+
+	/** Rows in which a null value has been put. */
+	private final BitSet nullRows = new BitSet();
+	/** Values kept as Strings, created when needed (typed columns often have none). Keys: a row. */
+	private Map<Integer, String> rawValues;
+	/** Number of values that can't be converted to the type of the column. */
+	@Getter
+	private int invalidValuesCount = 0;
+	/** First value that can't be converted to the type of the column. */
+	@Getter
+	private String firstInvalidValue;
+
+	protected TypedColumn(String variableName) {
+		super(variableName);
+	}
+
+	@Override
+	public String getValue(int row) {
+		if (!hasValue(row) || nullRows.get(row)) {
+			return null;
+		}
+		if (rawValues != null) {
+			String rawValue = rawValues.get(row);
+			if (rawValue != null) {
+				return rawValue;
+			}
+		}
+		return formatValue(row);
+	}
+
+	/** Return true if the value of the given row is stored as a primitive, that can be read with the typed getter. */
+	public boolean hasTypedValue(int row) {
+		return hasValue(row) && !nullRows.get(row) && (rawValues == null || !rawValues.containsKey(row));
+	}
+
+	@Override
+	void putValue(int row, String value) {
+		valueRows.set(row);
+		if (rawValues != null) {
+			rawValues.remove(row);
+		}
+		if (value == null) {
+			nullRows.set(row);
+			return;
+		}
+		nullRows.clear(row);
+		if (value.isEmpty()) {
+			putRawValue(row, value);
+			return;
+		}
+		int result = putTypedValue(row, value);
+		if (result != STORED) {
+			putRawValue(row, value);
+		}
+		if (result == INVALID) {
+			invalidValuesCount++;
+			if (firstInvalidValue == null) {
+				firstInvalidValue = value;
+			}
+		}
+	}
+
+	private void putRawValue(int row, String value) {
+		if (rawValues == null) {
+			rawValues = new HashMap<>();
+		}
+		rawValues.put(row, value);
+	}
+
+	/**
+	 * Convert the given (not empty) value and store it in the given row.
+	 * @return STORED, NOT_CANONICAL or INVALID.
+	 */
+	protected abstract int putTypedValue(int row, String value);
+
+	/** Return the canonical String form of the primitive stored in the given row. */
+	protected abstract String formatValue(int row);
+
+}
@@ -0,0 +1,70 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Dictionary of the distinct values of a column, giving a compact integer code to each value.
+ * Codes are given in order of registration, starting from 0.
+ */
+public class ValueDictionary {
+
+	/** Maximum number of values in the dictionary. */
+	@Getter
+	private final int maxSize;
+	private final List<String> values = new ArrayList<>();
+	private final Map<String, Integer> codes = new HashMap<>();
+
+	public ValueDictionary(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Dictionary created with some known values (for instance the modalities of a UCQ),
+	 * so that these values have the same codes in every column using these values.
+	 */
+	public ValueDictionary(int maxSize, Collection<String> seedValues) {
+		this(maxSize);
+		for (String value : seedValues) {
+			encode(value);
+		}
+	}
+
+	/** Return the code of the given value, -1 if the value is not in the dictionary. */
+	public int getCode(String value) {
+		Integer code = codes.get(value);
+		return code != null ? code : -1;
+	}
+
+	/**
+	 * Return the code of the given value, the value being added to the dictionary if needed.
+	 * @return The code of the value, -1 if the value is new and the dictionary is full.
+	 */
+	public int encode(String value) {
+		Integer code = codes.get(value);
+		if (code != null) {
+			return code;
+		}
+		if (values.size() >= maxSize) {
+			return -1;
+		}
+		values.add(value);
+		codes.put(value, values.size() - 1);
+		return values.size() - 1;
+	}
+
+	/** Return the value corresponding to the given code. */
+	public String getValue(int code) {
+		return values.get(code);
+	}
+
+	public int size() {
+		return values.size();
+	}
+
+}
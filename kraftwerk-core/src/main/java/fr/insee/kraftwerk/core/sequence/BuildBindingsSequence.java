@@ -1,8 +1,11 @@
 package fr.insee.kraftwerk.core.sequence;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import fr.insee.kraftwerk.core.KraftwerkError;
 import fr.insee.kraftwerk.core.exceptions.NullException;
 import fr.insee.kraftwerk.core.extradata.paradata.Paradata;
 import fr.insee.kraftwerk.core.extradata.paradata.ParadataParser;
@@ -29,6 +32,12 @@ public class BuildBindingsSequence {
 	}
 
 	public void buildVtlBindings(UserInputs userInputs, String dataMode, VtlBindings vtlBindings, Map<String, VariablesMap> metadataVariables, boolean withDDI) throws NullException {
+		buildVtlBindings(userInputs, dataMode, vtlBindings, metadataVariables, withDDI, new ArrayList<>());
+	}
+
+	/** Build the bindings of the data mode, and add to the errors list the values that can't be read with their variable type. */
+	public void buildVtlBindings(UserInputs userInputs, String dataMode, VtlBindings vtlBindings, Map<String, VariablesMap> metadataVariables, boolean withDDI,
+								 List<KraftwerkError> errors) throws NullException {
 		ModeInputs modeInputs = userInputs.getModeInputs(dataMode);
 		SurveyRawData data = new SurveyRawData();
 
@@ -44,6 +53,13 @@ public class BuildBindingsSequence {
 			parser.parseSurveyDataWithoutDDI(modeInputs.getDataFile(),modeInputs.getLunaticFile());
 		}
 
+		/* Step 2.1b : Report values that can't be converted to the type of their variable */
+		for (KraftwerkError error : data.getColumnStore().getInvalidValuesErrors(dataMode)) {
+			if (!errors.contains(error)) {
+				errors.add(error);
+			}
+		}
+
 		/* Step 2.2 : Get paradata for the survey */
 		parseParadata(modeInputs, data);
 
@@ -52,7 +68,7 @@ public class BuildBindingsSequence {
 
 		/* Step 2.4a : Convert data object to a VTL Dataset */
 		data.setDataMode(dataMode);
-		vtlExecute.convertToVtlDataset(data, dataMode, vtlBindings);
+		vtlExecute.convertToVtlDataset(data, dataMode, vtlBindings, userInputs.isNormalizedDatasets());
 	}
 
 	private void parseParadata(ModeInputs modeInputs, SurveyRawData data) throws NullException {
@@ -23,7 +23,7 @@ public class MultimodalSequence {
 		String multimodeDatasetName = userInputs.getMultimodeDatasetName();
 
 		/* Step 3.1 : aggregate unimodal datasets into a multimodal unique dataset */
-		DataProcessing reconciliationProcessing = new ReconciliationProcessing(vtlBindings);
+		DataProcessing reconciliationProcessing = new ReconciliationProcessing(vtlBindings, userInputs.isNativeReconciliation());
 		String vtlGenerate = reconciliationProcessing.applyVtlTransformations(multimodeDatasetName,
 				userInputs.getVtlReconciliationFile(), errors);
 		TextFileWriter.writeFile(FileUtils.getTempVtlFilePath(userInputs, "ReconciliationProcessing",multimodeDatasetName), vtlGenerate);
@@ -34,16 +34,7 @@ public class UnimodalSequence {
 
 		/* Step 2.4a : Check incoherence between expected variables' length and actual length received */
 		VariablesMap variablesMap = metadataVariables.get(dataMode);
-		for (String variableName : variablesMap.getVariableNames()){
-			Variable variable = variablesMap.getVariable(variableName);
-			if (variable.getSasFormat() != null && variable.getExpectedLength()<variable.getMaxLengthData() && variable.getType() != VariableType.BOOLEAN){
-				log.warn(String.format("%s expected length is %s but max length received is %d",variable.getName(),variable.getExpectedLength(), variable.getMaxLengthData()));
-				ErrorVariableLength error = new ErrorVariableLength(variable, dataMode);
-				if (!errors.contains(error)){
-					errors.add(error);
-				}
-			}
-		}
+		checkVariablesLength(dataMode, variablesMap, errors);
 
 		/* Step 2.4b : Apply VTL expression for calculated variables (if any) */
 		if (modeInputs.getLunaticFile() != null) {
@@ -76,4 +67,26 @@ public class UnimodalSequence {
 
 	}
 
+	/**
+	 * Add an error for each variable whose maximum length received exceeds its expected length.
+	 * An error already reported for the variable (by a previous file) is replaced, so that the maximum length
+	 * reported is the one of all the files read.
+	 */
+	void checkVariablesLength(String dataMode, VariablesMap variablesMap, List<KraftwerkError> errors) {
+		for (String variableName : variablesMap.getVariableNames()){
+			Variable variable = variablesMap.getVariable(variableName);
+			int maxLengthData = variablesMap.getMaxLengthData(variableName);
+			if (variable.getSasFormat() != null && variable.getExpectedLength()<maxLengthData && variable.getType() != VariableType.BOOLEAN){
+				log.warn(String.format("%s expected length is %s but max length received is %d",variable.getName(),variable.getExpectedLength(), maxLengthData));
+				ErrorVariableLength error = new ErrorVariableLength(variable, maxLengthData, dataMode);
+				int errorIndex = errors.indexOf(error);
+				if (errorIndex < 0){
+					errors.add(error);
+				} else if (((ErrorVariableLength) errors.get(errorIndex)).getMaxLengthData() < maxLengthData) {
+					errors.set(errorIndex, error);
+				}
+			}
+		}
+	}
+
 }
@@ -0,0 +1,245 @@
+package fr.insee.kraftwerk.core.utils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Reader of CSV files, parsing the records of a large file on several threads.
+ * <p>
+ * The file is memory-mapped and scanned once to find the end of the header and the record boundaries
+ * (line breaks inside quoted values are not boundaries). The records are then cut in chunks of similar
+ * size, each chunk being parsed by its own OpenCSV reader. The mapped records are returned in file order.
+ * The scan relies on an ASCII compatible charset.
+ * With a single thread, the file is not mapped: it is read by a single buffered OpenCSV reader.
+ * The reader must be closed once the records are read, to release the file.
+ */
+@Log4j2
+public class CsvChunkReader implements AutoCloseable {
+
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final byte QUOTE = '"';
+	private static final byte ESCAPE = '\\';
+	private static final byte LINE_FEED = '\n';
+
+	private final char separator;
+	private final Charset charset;
+	private final int threads;
+	/** Mapping of the file, null if the file is read by a single reader. */
+	private final MappedFile mappedFile;
+	/** Reader of the whole file, null if the file is mapped. */
+	private final CSVReader csvReader;
+	/** Position of the first record following the header. */
+	private long recordsStart = 0;
+
+	/**
+	 * Open the given CSV file, the file is mapped in memory if several threads are used.
+	 * @param filePath Path to the CSV file.
+	 * @param separator Separator of the values.
+	 * @param charset Charset of the file.
+	 * @param threads Number of threads used to parse the records (1 to parse them on the calling thread).
+	 * @throws IOException if the file can't be opened.
+	 */
+	public CsvChunkReader(Path filePath, char separator, Charset charset, int threads) throws IOException {
+		this.separator = separator;
+		this.charset = charset;
+		this.threads = threads;
+		if (threads <= 1) {
+			this.mappedFile = null;
+			this.csvReader = newCsvReader(new InputStreamReader(Files.newInputStream(filePath), charset));
+		} else {
+			this.mappedFile = new MappedFile(filePath);
+			this.csvReader = null;
+		}
+	}
+
+	/**
+	 * Read the first record of the file. Following calls of readRecords start after this record.
+	 * @return The header values, null if the file is empty.
+	 */
+	public String[] readHeader() throws IOException, CsvValidationException {
+		if (csvReader != null) {
+			return csvReader.readNext();
+		}
+		long headerEnd = nextRecordStart(0);
+		try (CSVReader csvReader = openCsvReader(0, headerEnd)) {
+			String[] header = csvReader.readNext();
+			recordsStart = headerEnd;
+			return header;
+		}
+	}
+
+	/**
+	 * Parse the records of the file (header excluded if it has been read) and convert each of them.
+	 * The records mapper is called concurrently when several threads are used:
+	 * it must not modify shared objects.
+	 *
+	 * @param recordMapper Function converting the values of a record.
+	 * @return The converted records, in file order.
+	 */
+	public <T> List<T> readRecords(Function<String[], T> recordMapper)
+			throws IOException, CsvValidationException {
+		if (csvReader != null) {
+			return readRecords(csvReader, recordMapper);
+		}
+		List<long[]> chunks = split(threads * CHUNKS_PER_THREAD);
+		if (chunks.size() < 2) {
+			return readChunk(recordsStart, mappedFile.getSize(), recordMapper);
+		}
+		log.debug("CSV file {} split in {} chunks", mappedFile.getFilePath(), chunks.size());
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, chunks.size()));
+		try {
+			List<Future<List<T>>> futures = new ArrayList<>();
+			for (long[] chunk : chunks) {
+				futures.add(executor.submit(() -> readChunk(chunk[0], chunk[1], recordMapper)));
+			}
+			List<T> records = new ArrayList<>();
+			for (Future<List<T>> future : futures) {
+				records.addAll(getResult(future));
+			}
+			return records;
+		} finally {
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+
+	/** Close the reader, the mapped regions of the file are released. */
+	@Override
+	public void close() throws IOException {
+		if (csvReader != null) {
+			csvReader.close();
+		}
+		if (mappedFile != null) {
+			mappedFile.close();
+		}
+	}
+
+	private <T> List<T> readChunk(long start, long end, Function<String[], T> recordMapper)
+			throws IOException, CsvValidationException {
+		try (CSVReader chunkReader = openCsvReader(start, end)) {
+			return readRecords(chunkReader, recordMapper);
+		}
+	}
+
+	private static <T> List<T> readRecords(CSVReader reader, Function<String[], T> recordMapper)
+			throws IOException, CsvValidationException {
+		List<T> records = new ArrayList<>();
+		String[] nextRecord;
+		while ((nextRecord = reader.readNext()) != null) {
+			records.add(recordMapper.apply(nextRecord));
+		}
+		return records;
+	}
+
+	private CSVReader openCsvReader(long start, long end) {
+		return newCsvReader(new InputStreamReader(mappedFile.openRange(start, end), charset));
+	}
+
+	private CSVReader newCsvReader(InputStreamReader reader) {
+		return new CSVReaderBuilder(reader)
+				.withCSVParser(new CSVParserBuilder().withSeparator(separator).build())
+				.build();
+	}
+
+	/**
+	 * Wait for the tasks still running, so that the mapping is not released while it is read.
+	 * An interrupt doesn't stop the wait: the interrupt status is restored once the tasks are done.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Cut the records in chunks of similar size, ending on record boundaries. */
+	private List<long[]> split(int chunksCount) {
+		long size = mappedFile.getSize();
+		long chunkTargetSize = Math.max(1, (size - recordsStart) / chunksCount);
+		List<long[]> chunks = new ArrayList<>();
+		long chunkStart = recordsStart;
+		while (chunkStart < size) {
+			long chunkEnd = nextRecordStart(Math.min(size, chunkStart + chunkTargetSize) - 1, chunkStart);
+			chunks.add(new long[] { chunkStart, chunkEnd });
+			chunkStart = chunkEnd;
+		}
+		return chunks;
+	}
+
+	/** Return the start position of the record following the one starting at the given position. */
+	private long nextRecordStart(long position) {
+		return nextRecordStart(position, position);
+	}
+
+	/**
+	 * Return the position following the first line break found after minimum position that is not in a
+	 * quoted value. The quotes are tracked from the record start position.
+	 */
+	private long nextRecordStart(long minimumPosition, long recordStart) {
+		long size = mappedFile.getSize();
+		boolean inQuotes = false;
+		for (long position = recordStart; position < size; position++) {
+			byte b = mappedFile.byteAt(position);
+			if (inQuotes && b == ESCAPE && position + 1 < size) {
+				// Escaped quote or escape character (OpenCSV default escape)
+				byte next = mappedFile.byteAt(position + 1);
+				if (next == QUOTE || next == ESCAPE) {
+					position++;
+				}
+			} else if (b == QUOTE) {
+				inQuotes = !inQuotes;
+			} else if (b == LINE_FEED && !inQuotes && position >= minimumPosition) {
+				return position + 1;
+			}
+		}
+		return size;
+	}
+
+	/** Return the result of a task, the exceptions thrown by the task being rethrown. */
+	private static <T> T getResult(Future<T> future) throws IOException, CsvValidationException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("CSV parsing interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioException) {
+				throw ioException;
+			}
+			if (cause instanceof CsvValidationException csvValidationException) {
+				throw csvValidationException;
+			}
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+}
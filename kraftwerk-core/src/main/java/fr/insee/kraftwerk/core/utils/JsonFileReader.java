@@ -8,6 +8,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class JsonFileReader {
 
+    /** Mapper shared by the readings (thread-safe once configured). */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     /**
      * Read a json local json file.
      *
@@ -16,8 +19,7 @@ public class JsonFileReader {
      *  @return A jackson.databind.JsonNode.
      */
     public static JsonNode read(Path filePath) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        return mapper.readTree(filePath.toFile());
+        return MAPPER.readTree(filePath.toFile());
     }
 
     public static int compareVersions(String version1, String version2) {
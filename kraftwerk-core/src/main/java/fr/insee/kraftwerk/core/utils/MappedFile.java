@@ -0,0 +1,162 @@
+package fr.insee.kraftwerk.core.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Read-only memory mapping of a file, giving random access to its bytes.
+ * The file is mapped in regions of 1 GiB, so that files larger than 2 GiB can be mapped.
+ * Once created, the object can be read by several threads.
+ * The regions are released when the object is closed (and not when they are garbage collected),
+ * so that the file can be moved or deleted right after being read, which is not possible on Windows
+ * while the file is mapped. The object must not be read anymore once closed.
+ */
+@Log4j2
+public class MappedFile implements AutoCloseable {
+
+	private static final int REGION_SHIFT = 30;
+	private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+	/** Unsafe instance and its invokeCleaner method, used to release the regions, null if they are not available. */
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafe = theUnsafe.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			log.debug("Mapped files will be released when garbage collected", e);
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	@Getter
+	private final Path filePath;
+	private final MappedByteBuffer[] regions;
+	/** Size of the file in bytes. */
+	@Getter
+	private final long size;
+
+	/**
+	 * Map the given file in memory.
+	 * @param filePath Path to the file.
+	 * @throws IOException if the file can't be mapped.
+	 */
+	public MappedFile(Path filePath) throws IOException {
+		this.filePath = filePath;
+		try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+			size = channel.size();
+			int regionsCount = (int) ((size + REGION_MASK) >>> REGION_SHIFT);
+			regions = new MappedByteBuffer[regionsCount];
+			for (int i = 0; i < regionsCount; i++) {
+				long regionStart = (long) i << REGION_SHIFT;
+				regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, regionStart,
+						Math.min(1L << REGION_SHIFT, size - regionStart));
+			}
+		}
+	}
+
+	/** Release the mapped regions. */
+	@Override
+	public void close() {
+		for (int i = 0; i < regions.length; i++) {
+			MappedByteBuffer region = regions[i];
+			regions[i] = null;
+			if (region != null && INVOKE_CLEANER != null) {
+				try {
+					INVOKE_CLEANER.invoke(UNSAFE, region);
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					log.debug("Mapped region of file {} will be released when garbage collected", filePath, e);
+				}
+			}
+		}
+	}
+
+	/** Return the byte at the given position of the file. */
+	public byte byteAt(long position) {
+		return regions[(int) (position >>> REGION_SHIFT)].get((int) (position & REGION_MASK));
+	}
+
+	/** True if the given bytes are found at the given position of the file. */
+	public boolean matches(long position, byte[] pattern) {
+		if (position < 0 || position + pattern.length > size) {
+			return false;
+		}
+		for (int i = 0; i < pattern.length; i++) {
+			if (byteAt(position + i) != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Return the position of the next occurrence of the given bytes from the given position, -1 if there is none. */
+	public long indexOf(long position, byte[] pattern) {
+		for (long i = position; i <= size - pattern.length; i++) {
+			if (byteAt(i) == pattern[0] && matches(i, pattern)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** Return a stream on the bytes of the file between the given positions (end excluded). */
+	public InputStream openRange(long start, long end) {
+		return new MappedRangeInputStream(start, Math.min(end, size));
+	}
+
+	/** Stream on a range of the mapped file. */
+	private class MappedRangeInputStream extends InputStream {
+
+		private long position;
+		private final long end;
+
+		MappedRangeInputStream(long start, long end) {
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() {
+			if (position >= end) {
+				return -1;
+			}
+			return byteAt(position++) & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (position >= end) {
+				return -1;
+			}
+			// Read in a single region
+			MappedByteBuffer region = regions[(int) (position >>> REGION_SHIFT)];
+			int regionOffset = (int) (position & REGION_MASK);
+			int count = (int) Math.min(Math.min(length, end - position), (long) region.limit() - regionOffset);
+			region.get(regionOffset, buffer, offset, count);
+			position += count;
+			return count;
+		}
+	}
+
+}
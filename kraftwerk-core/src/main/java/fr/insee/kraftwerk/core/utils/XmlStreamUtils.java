@@ -0,0 +1,83 @@
+package fr.insee.kraftwerk.core.utils;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Helpers to read xml files in a streaming way (StAX), element by element.
+ */
+public class XmlStreamUtils {
+
+	/** StAX factory, configured once (thread-safe once configured). */
+	private static final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+
+	private XmlStreamUtils() {
+		//Only static methods
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	/** Return a stream reader on the given xml stream (DTD and external entities are not supported). */
+	public static XMLStreamReader createXmlStreamReader(InputStream inputStream) throws XMLStreamException {
+		return xmlInputFactory.createXMLStreamReader(inputStream);
+	}
+
+	/**
+	 * Move the reader to the next child element of the current element.
+	 * @return true if the reader is on the start tag of a child element, false if the end tag of the
+	 * current element has been reached.
+	 */
+	public static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			}
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/** Return the text content of the current element (and its descendants), and move the reader to its end tag. */
+	public static String readText(XMLStreamReader reader) throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			} else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+					|| event == XMLStreamConstants.SPACE) {
+				text.append(reader.getText());
+			}
+		}
+		return text.toString();
+	}
+
+	/** Move the reader to the end tag of the current element. */
+	public static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+}
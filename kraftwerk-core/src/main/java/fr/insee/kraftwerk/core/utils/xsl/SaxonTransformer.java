@@ -5,19 +5,29 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.xml.transform.Result;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
+import org.xml.sax.ContentHandler;
+
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
 public class SaxonTransformer {
 
+	/** XSL stylesheets already compiled (thread-safe), by path. */
+	private static final Map<String, Templates> TEMPLATES = new ConcurrentHashMap<>();
+
 	/**
 	 * XSL transformation method using Saxon.
 	 *
@@ -27,6 +37,23 @@ public class SaxonTransformer {
 	 * @param outputXmlPath : Path to the XML output file which will be created
 	 */
 	public void xslTransform(URL inputXmlURL, String inputXslPath, Path outputXmlPath) {
+		xslTransform(inputXmlURL, inputXslPath, new StreamResult(outputXmlPath.toFile()));
+	}
+
+	/**
+	 * XSL transformation method using Saxon, the output is sent to the given SAX handler
+	 * (no output file is written).
+	 *
+	 * @param inputXmlURL   : URL of the XML input file
+	 * @param inputXslPath  : Path to the XSL file from the resources folder of the
+	 *                      application
+	 * @param outputHandler : SAX handler that receives the output XML
+	 */
+	public void xslTransform(URL inputXmlURL, String inputXslPath, ContentHandler outputHandler) {
+		xslTransform(inputXmlURL, inputXslPath, new SAXResult(outputHandler));
+	}
+
+	private void xslTransform(URL inputXmlURL, String inputXslPath, Result result) {
 		log.info("About to transform the file from URL: " + inputXmlURL);
 		log.info("using the XSL file " + inputXslPath);
 
@@ -42,22 +69,10 @@ public class SaxonTransformer {
 			return; // to break here if the xml input file is not found
 		}
 
-		// Get the XSL file
-		StreamSource xslSource;
-		InputStream xslInput;
-		xslInput = SaxonTransformer.class.getClassLoader().getResourceAsStream(inputXslPath);
-		xslSource = new StreamSource(xslInput);
-		xslSource.setSystemId(inputXslPath);
-
-		// Instantiation of the XSL transformer factory
-		TransformerFactory transformerFactory = new net.sf.saxon.TransformerFactoryImpl(); // basic transformer
-		transformerFactory.setURIResolver(new ClasspathURIResolver());
-
 		// Apply the XSL transformation
 		try {
-			Transformer transformer = transformerFactory.newTransformer(xslSource);
-			StreamResult sr = new StreamResult(outputXmlPath.toFile());
-			transformer.transform(xmlSource, sr);
+			Transformer transformer = getTemplates(inputXslPath).newTransformer();
+			transformer.transform(xmlSource, result);
 		} catch (TransformerConfigurationException e) {
 			log.error("Error when trying to configure the XSL transformer using XSL file: " + inputXslPath, e);
 		} catch (TransformerException e) {
@@ -66,12 +81,37 @@ public class SaxonTransformer {
 
 		try {
 			xmlInput.close();
-			xslInput.close();
-		} catch (IOException | NullPointerException e ) {
+		} catch (IOException e) {
 			log.error("IOException occurred when trying to close the streams after XSL transformation.", e);
 		}
 	}
 
+	/** Return the compiled XSL stylesheet, the stylesheet is compiled on its first use only. */
+	private static Templates getTemplates(String inputXslPath) throws TransformerConfigurationException {
+		Templates templates = TEMPLATES.get(inputXslPath);
+		if (templates != null) {
+			return templates;
+		}
+		// Get the XSL file
+		try (InputStream xslInput = SaxonTransformer.class.getClassLoader().getResourceAsStream(inputXslPath)) {
+			StreamSource xslSource = new StreamSource(xslInput);
+			xslSource.setSystemId(inputXslPath);
+
+			// Instantiation of the XSL transformer factory
+			TransformerFactory transformerFactory = new net.sf.saxon.TransformerFactoryImpl(); // basic transformer
+			transformerFactory.setURIResolver(new ClasspathURIResolver());
+
+			templates = transformerFactory.newTemplates(xslSource);
+		} catch (IOException e) {
+			log.error("IOException occurred when trying to close the XSL file stream.", e);
+		}
+		if (templates == null) {
+			throw new TransformerConfigurationException("XSL file can't be compiled: " + inputXslPath);
+		}
+		TEMPLATES.putIfAbsent(inputXslPath, templates);
+		return templates;
+	}
+
 	/**
 	 * XSL transformation method using Saxon.
 	 *
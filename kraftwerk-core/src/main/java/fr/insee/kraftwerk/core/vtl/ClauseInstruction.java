@@ -0,0 +1,84 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * VTL instruction made of a single clause on a dataset, of the form "OUT := IN [clause items];".
+ * Instructions with another form (several statements, several clauses, nested brackets...) are not parsed.
+ *
+ * @param output Name of the dataset assigned.
+ * @param input  Name of the dataset the clause is applied on.
+ * @param clause Clause keyword (rename, calc, keep, drop or filter).
+ * @param items  Items of the clause (the comma separated parts, the whole condition for a filter).
+ */
+record ClauseInstruction(String output, String input, String clause, List<String> items) {
+
+	private static final Pattern INSTRUCTION_PATTERN = Pattern.compile(
+			"\\s*(\\w+)\\s*:=\\s*(\\w+)\\s*\\[\\s*(rename|calc|keep|drop|filter)\\s+([^\\[\\];]*)]\\s*;\\s*");
+	private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z_][\\w.]*");
+
+	/** Return the parsed instruction, null if the instruction doesn't have the expected form. */
+	static ClauseInstruction parse(String vtlInstruction) {
+		Matcher matcher = INSTRUCTION_PATTERN.matcher(vtlInstruction);
+		if (!matcher.matches()) {
+			return null;
+		}
+		String clause = matcher.group(3);
+		String body = matcher.group(4).trim();
+		List<String> items = clause.equals("filter") ? List.of(body) : splitItems(body);
+		if (items == null || items.isEmpty() || items.contains("")) {
+			return null;
+		}
+		return new ClauseInstruction(matcher.group(1), matcher.group(2), clause, items);
+	}
+
+	/** Return the instruction in VTL syntax. */
+	String toVtl() {
+		return String.format("%s := %s [%s %s];", output, input, clause, String.join(", ", items));
+	}
+
+	/**
+	 * Split a clause body on the commas that are not in parentheses or in string literals.
+	 * @return The trimmed items, null if the parentheses or the quotes are not balanced.
+	 */
+	static List<String> splitItems(String body) {
+		List<String> items = new ArrayList<>();
+		int depth = 0;
+		boolean inString = false;
+		int start = 0;
+		for (int i = 0; i < body.length(); i++) {
+			char c = body.charAt(i);
+			if (c == '"') {
+				inString = !inString;
+			} else if (!inString && c == '(') {
+				depth++;
+			} else if (!inString && c == ')') {
+				depth--;
+			} else if (!inString && depth == 0 && c == ',') {
+				items.add(body.substring(start, i).trim());
+				start = i + 1;
+			}
+		}
+		if (depth != 0 || inString) {
+			return null;
+		}
+		items.add(body.substring(start).trim());
+		return items;
+	}
+
+	/** Return the names (variables, functions or keywords) used in an expression, outside string literals. */
+	static Set<String> referencedNames(String expression) {
+		Set<String> names = new LinkedHashSet<>();
+		Matcher matcher = NAME_PATTERN.matcher(expression.replaceAll("\"[^\"]*\"", "\"\""));
+		while (matcher.find()) {
+			names.add(matcher.group());
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,277 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.Structured.Component;
+import fr.insee.vtl.model.Structured.DataPoint;
+import fr.insee.vtl.model.Structured.DataStructure;
+import lombok.Getter;
+
+/**
+ * Trevas dataset storing its values in columns (see DatasetColumn), one per component of the data structure.
+ * <p>
+ * Data points are not stored: they are created when they are accessed, so that the VTL engine can read the
+ * dataset as any other dataset. Kraftwerk classes can read the values directly in the columns.
+ * <p>
+ * Datasets are immutable. The methods that derive a new dataset (rename, keep, calc...) share the unchanged
+ * columns with the original dataset instead of copying the rows.
+ */
+public class ColumnarDataset implements Dataset {
+
+	@Getter
+	private final DataStructure dataStructure;
+	/** Columns of the dataset, in the order of the data structure. */
+	private final List<DatasetColumn> columns;
+	@Getter
+	private final int rowsCount;
+
+	private ColumnarDataset(List<Component> components, List<? extends DatasetColumn> columns, int rowsCount) {
+		this.dataStructure = new DataStructure(components);
+		this.columns = List.copyOf(columns);
+		this.rowsCount = rowsCount;
+	}
+
+	@Override
+	public List<DataPoint> getDataPoints() {
+		return new DataPointsView();
+	}
+
+	/** Return the column of the component at the given index in the data structure. */
+	public DatasetColumn getColumn(int index) {
+		return columns.get(index);
+	}
+
+	/** Return the column of the given component, null if there is no such component in the dataset. */
+	public DatasetColumn getColumn(String name) {
+		int index = dataStructure.indexOfKey(name);
+		return index >= 0 ? columns.get(index) : null;
+	}
+
+	/** Return the value of the given component in the given row. */
+	public Object getValue(String name, int row) {
+		return getColumn(name).get(row);
+	}
+
+	private List<Component> getComponents() {
+		return new ArrayList<>(dataStructure.values());
+	}
+
+	/**
+	 * Return a dataset in which some components are renamed. Components keep their position, type and role.
+	 * @param newNames Keys: a component name. Values: its new name.
+	 */
+	public ColumnarDataset rename(Map<String, String> newNames) {
+		List<Component> components = getComponents();
+		for (int i = 0; i < components.size(); i++) {
+			Component component = components.get(i);
+			String newName = newNames.get(component.getName());
+			if (newName != null) {
+				components.set(i, new Component(newName, component.getType(), component.getRole(), component.getNullable()));
+			}
+		}
+		return new ColumnarDataset(components, columns, rowsCount);
+	}
+
+	/** Return a dataset with only the given components, in the order of the data structure. */
+	public ColumnarDataset keep(Collection<String> names) {
+		return project(names, true);
+	}
+
+	/** Return a dataset without the given components. */
+	public ColumnarDataset drop(Collection<String> names) {
+		return project(names, false);
+	}
+
+	private ColumnarDataset project(Collection<String> names, boolean keep) {
+		List<Component> components = new ArrayList<>();
+		List<DatasetColumn> projectedColumns = new ArrayList<>();
+		List<Component> allComponents = getComponents();
+		for (int i = 0; i < allComponents.size(); i++) {
+			if (names.contains(allComponents.get(i).getName()) == keep) {
+				components.add(allComponents.get(i));
+				projectedColumns.add(columns.get(i));
+			}
+		}
+		return new ColumnarDataset(components, projectedColumns, rowsCount);
+	}
+
+	/**
+	 * Return a dataset in which the given component is computed with the given column.
+	 * If a component with the same name exists, it is replaced at the same position,
+	 * otherwise the component is added after the others.
+	 */
+	public ColumnarDataset withColumn(Component component, DatasetColumn column) {
+		List<Component> components = getComponents();
+		List<DatasetColumn> newColumns = new ArrayList<>(columns);
+		int index = dataStructure.indexOfKey(component.getName());
+		if (index >= 0) {
+			components.set(index, component);
+			newColumns.set(index, column);
+		} else {
+			components.add(component);
+			newColumns.add(column);
+		}
+		return new ColumnarDataset(components, newColumns, rowsCount);
+	}
+
+	/** Return a dataset in which the given component has the same value in every row. */
+	public ColumnarDataset withConstant(Component component, Object value) {
+		return withColumn(component, DatasetColumn.constant(value));
+	}
+
+	/** Return a dataset in which the given component is replaced by a component with the same values and the given role. */
+	public ColumnarDataset withRole(String name, Role role) {
+		Component component = dataStructure.get(name);
+		return withColumn(new Component(name, component.getType(), role), getColumn(name));
+	}
+
+	/**
+	 * Return a dataset in which the values of the given Long component are converted to Double.
+	 * The values are converted when they are read, the integer values are shared.
+	 */
+	public ColumnarDataset castToNumber(String name) {
+		Component component = dataStructure.get(name);
+		return withColumn(new Component(name, Double.class, component.getRole(), component.getNullable()),
+				DatasetColumn.toNumber(getColumn(name)));
+	}
+
+	/**
+	 * Return a dataset with only the given rows, in the given order, a negative row giving a row without values.
+	 * The values are copied, except the values shared with other datasets (see DatasetColumn).
+	 */
+	public ColumnarDataset selectRows(int[] rows) {
+		if (isAllRows(rows)) {
+			return this;
+		}
+		List<Component> components = getComponents();
+		List<DatasetColumn> selectedColumns = new ArrayList<>();
+		DatasetColumn.Selection selection = new DatasetColumn.Selection(rows);
+		for (int i = 0; i < components.size(); i++) {
+			selectedColumns.add(columns.get(i).select(selection, components.get(i).getType()));
+		}
+		return new ColumnarDataset(components, selectedColumns, rows.length);
+	}
+
+	private boolean isAllRows(int[] rows) {
+		if (rows.length != rowsCount) {
+			return false;
+		}
+		for (int row = 0; row < rows.length; row++) {
+			if (rows[row] != row) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return a dataset made of the rows of the given datasets, one after the other. The values are not copied.
+	 * @param components Components of the dataset.
+	 * @param datasets   Datasets having the given components, in the same order.
+	 * @throws IllegalArgumentException if a dataset doesn't have the given components.
+	 */
+	public static ColumnarDataset concat(List<Component> components, List<ColumnarDataset> datasets) {
+		int[] offsets = new int[datasets.size() + 1];
+		for (int i = 0; i < datasets.size(); i++) {
+			if (!new ArrayList<>(datasets.get(i).dataStructure.values()).equals(components)) {
+				throw new IllegalArgumentException("Datasets with different components can't be concatenated");
+			}
+			offsets[i + 1] = offsets[i] + datasets.get(i).rowsCount;
+		}
+		if (datasets.size() == 1) {
+			return datasets.get(0);
+		}
+		List<DatasetColumn> concatenatedColumns = new ArrayList<>();
+		for (int index = 0; index < components.size(); index++) {
+			List<DatasetColumn> parts = new ArrayList<>();
+			for (ColumnarDataset dataset : datasets) {
+				parts.add(dataset.columns.get(index));
+			}
+			concatenatedColumns.add(DatasetColumn.concatenated(parts, offsets));
+		}
+		return new ColumnarDataset(components, concatenatedColumns, offsets[datasets.size()]);
+	}
+
+	/** Return the given dataset if it is a columnar dataset, a copy of the dataset in columns otherwise. */
+	public static ColumnarDataset copyOf(Dataset dataset) {
+		if (dataset instanceof ColumnarDataset columnarDataset) {
+			return columnarDataset;
+		}
+		Builder builder = builder(new ArrayList<>(dataset.getDataStructure().values()));
+		for (DataPoint dataPoint : dataset.getDataPoints()) {
+			builder.addRow(dataPoint.toArray());
+		}
+		return builder.build();
+	}
+
+	/** Return a dataset made of the given columns, in the order of the components. */
+	static ColumnarDataset of(List<Component> components, List<DatasetColumn> columns, int rowsCount) {
+		return new ColumnarDataset(components, columns, rowsCount);
+	}
+
+	/** Return a builder of a dataset with the given components. */
+	public static Builder builder(List<Component> components) {
+		return new Builder(components);
+	}
+
+	/**
+	 * Builder to fill the columns of a dataset row by row.
+	 * The builder must not be used anymore once the dataset is built.
+	 */
+	public static class Builder {
+
+		private final List<Component> components;
+		private final List<DatasetColumn.MutableColumn> columns = new ArrayList<>();
+		private int rowsCount = 0;
+
+		private Builder(List<Component> components) {
+			this.components = components;
+			for (Component component : components) {
+				columns.add(DatasetColumn.create(component.getType()));
+			}
+		}
+
+		/** Add a row, the values being given in the order of the components. */
+		public Builder addRow(Object[] values) {
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null) {
+					columns.get(i).set(rowsCount, values[i]);
+				}
+			}
+			rowsCount++;
+			return this;
+		}
+
+		public ColumnarDataset build() {
+			return new ColumnarDataset(components, columns, rowsCount);
+		}
+	}
+
+	/** Data points of the dataset, created when accessed. */
+	private class DataPointsView extends AbstractList<DataPoint> implements RandomAccess {
+
+		@Override
+		public DataPoint get(int row) {
+			Objects.checkIndex(row, rowsCount);
+			Object[] values = new Object[columns.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = columns.get(i).get(row);
+			}
+			return new DataPoint(dataStructure, Arrays.asList(values));
+		}
+
+		@Override
+		public int size() {
+			return rowsCount;
+		}
+	}
+
+}
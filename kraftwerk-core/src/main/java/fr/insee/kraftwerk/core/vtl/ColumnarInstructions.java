@@ -0,0 +1,242 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.Dataset.Role;
+import fr.insee.vtl.model.Structured.Component;
+import fr.insee.vtl.model.Structured.DataPoint;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Evaluation of simple VTL instructions on columnar datasets, without the VTL engine.
+ * The instructions generated by the processing classes to rename, keep or drop variables, or to add
+ * a constant variable, are applied by sharing the unchanged columns of the dataset (see ColumnarDataset).
+ * <p>
+ * Supported instructions have the form "OUT := IN [clause];" (see ClauseInstruction), IN being a ColumnarDataset,
+ * with one of these clauses:
+ * <ul>
+ *     <li>rename A to B, C to D</li>
+ *     <li>keep A, B / drop A, B</li>
+ *     <li>calc with items [identifier] A := "literal" / [identifier] A := B / A := cast(A, number)</li>
+ * </ul>
+ * Other calc instructions are evaluated by the VTL engine on a projection of the dataset (the identifiers and the
+ * variables used by the expressions), and the calculated columns are added to the dataset: the other columns
+ * are still shared, e.g. the columns of the root variables of a normalized dataset (see VtlDatasetConverter).
+ * <p>
+ * Any other instruction, or an instruction that would fail (unknown variable...), is left to the VTL engine,
+ * so that results and errors are the same as with the engine.
+ */
+@Log4j2
+class ColumnarInstructions {
+
+	private static final String NAME = "[A-Za-z_][\\w.]*";
+	private static final Pattern RENAME_PATTERN = Pattern.compile("(" + NAME + ")\\s+to\\s+(" + NAME + ")");
+	private static final Pattern NAME_PATTERN = Pattern.compile(NAME);
+	private static final Pattern CALC_PATTERN = Pattern.compile(
+			"(identifier\\s+|measure\\s+)?(" + NAME + ")\\s*:=\\s*(\"[^\"]*\"|" + NAME + "|cast\\(\\s*" + NAME + "\\s*,\\s*number\\s*\\))");
+	private static final Pattern CAST_PATTERN = Pattern.compile("cast\\(\\s*(" + NAME + ")\\s*,\\s*number\\s*\\)");
+
+	private ColumnarInstructions() {
+		//Utility class
+	}
+
+	/**
+	 * Apply the given instruction if it is a supported instruction on a columnar dataset of the bindings.
+	 * @return true if the instruction has been applied, false if it has to be evaluated by the VTL engine.
+	 */
+	static boolean evaluate(String vtlInstruction, VtlBindings bindings) {
+		ClauseInstruction instruction = ClauseInstruction.parse(vtlInstruction);
+		if (instruction == null || !(bindings.get(instruction.input()) instanceof ColumnarDataset dataset)) {
+			return false;
+		}
+		List<String> items = instruction.items();
+		ColumnarDataset result = switch (instruction.clause()) {
+			case "rename" -> rename(dataset, items);
+			case "keep" -> project(dataset, items, true);
+			case "drop" -> project(dataset, items, false);
+			case "calc" -> calc(dataset, items);
+			default -> null;
+		};
+		if (result == null && instruction.clause().equals("calc")) {
+			result = projectedCalc(dataset, instruction);
+		}
+		if (result == null) {
+			return false;
+		}
+		bindings.put(instruction.output(), result);
+		log.debug("Instruction applied on columnar dataset: {}", vtlInstruction);
+		return true;
+	}
+
+	private static ColumnarDataset rename(ColumnarDataset dataset, List<String> items) {
+		Map<String, String> newNames = new LinkedHashMap<>();
+		for (String item : items) {
+			Matcher matcher = RENAME_PATTERN.matcher(item);
+			if (!matcher.matches() || !dataset.getDataStructure().containsKey(matcher.group(1))
+					|| dataset.getDataStructure().containsKey(matcher.group(2))
+					|| newNames.containsKey(matcher.group(1)) || newNames.containsValue(matcher.group(2))) {
+				return null;
+			}
+			newNames.put(matcher.group(1), matcher.group(2));
+		}
+		return dataset.rename(newNames);
+	}
+
+	private static ColumnarDataset project(ColumnarDataset dataset, List<String> names, boolean keep) {
+		if (!names.stream().allMatch(name -> NAME_PATTERN.matcher(name).matches())
+				|| !dataset.getDataStructure().keySet().containsAll(names)) {
+			return null;
+		}
+		return keep ? dataset.keep(names) : dataset.drop(names);
+	}
+
+	/**
+	 * Calc items are evaluated on the input dataset: they are applied one after the other only if
+	 * they calculate distinct variables that are not used by the other items.
+	 */
+	private static ColumnarDataset calc(ColumnarDataset dataset, List<String> items) {
+		Set<String> calculatedNames = VtlScriptOptimizer.calculatedNames(items);
+		if (calculatedNames == null) {
+			return null;
+		}
+		ColumnarDataset result = dataset;
+		for (String item : items) {
+			Matcher matcher = CALC_PATTERN.matcher(item);
+			if (!matcher.matches()) {
+				return null;
+			}
+			Set<String> otherNames = new HashSet<>(calculatedNames);
+			otherNames.remove(matcher.group(2));
+			if (!Collections.disjoint(otherNames, ClauseInstruction.referencedNames(matcher.group(3)))) {
+				return null;
+			}
+			result = calcItem(dataset, result, matcher);
+			if (result == null) {
+				return null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Apply a calc item.
+	 * @param input  The input dataset of the instruction, on which the expression is evaluated.
+	 * @param result The dataset with the previous items applied.
+	 */
+	private static ColumnarDataset calcItem(ColumnarDataset input, ColumnarDataset result, Matcher matcher) {
+		Role role = matcher.group(1) != null && matcher.group(1).startsWith("identifier") ? Role.IDENTIFIER : Role.MEASURE;
+		String name = matcher.group(2);
+		String expression = matcher.group(3);
+		Component existing = input.getDataStructure().get(name);
+		if (existing != null && existing.getRole() == Role.IDENTIFIER) {
+			return null;
+		}
+		// String literal
+		if (expression.startsWith("\"")) {
+			String value = expression.substring(1, expression.length() - 1);
+			return result.withConstant(new Component(name, String.class, role), value);
+		}
+		// Cast of an integer variable
+		Matcher castMatcher = CAST_PATTERN.matcher(expression);
+		if (castMatcher.matches()) {
+			if (role != Role.MEASURE || !name.equals(castMatcher.group(1))
+					|| existing == null || existing.getType() != Long.class) {
+				return null;
+			}
+			return result.castToNumber(name);
+		}
+		// Copy of a variable
+		Component source = input.getDataStructure().get(expression);
+		if (source == null) {
+			return null;
+		}
+		return result.withColumn(new Component(name, source.getType(), role), input.getColumn(expression));
+	}
+
+	/**
+	 * Evaluate a calc instruction with the VTL engine on a projection of the dataset, and add the calculated
+	 * columns to the dataset.
+	 * @return null if the variables used can't be determined, if the evaluation fails, or if the result on the
+	 * projection doesn't have the same rows and the expected structure: the instruction is then evaluated by the
+	 * engine on the whole dataset.
+	 */
+	private static ColumnarDataset projectedCalc(ColumnarDataset dataset, ClauseInstruction instruction) {
+		Set<String> calculatedNames = VtlScriptOptimizer.calculatedNames(instruction.items());
+		if (calculatedNames == null) {
+			return null;
+		}
+		List<String> identifierNames = VtlBindings.getDatasetIdentifierNames(dataset);
+		if (identifierNames.isEmpty() || !Collections.disjoint(identifierNames, calculatedNames)) {
+			return null;
+		}
+		Set<String> projectedNames = new HashSet<>(identifierNames);
+		projectedNames.addAll(calculatedNames);
+		instruction.items().forEach(item -> projectedNames.addAll(ClauseInstruction.referencedNames(item)));
+		ColumnarDataset projection = dataset.keep(projectedNames);
+		VtlBindings projectionBindings = new VtlBindings();
+		projectionBindings.put(instruction.input(), projection);
+		Dataset projectionResult;
+		try {
+			VtlEngineProvider.eval(instruction.toVtl(), projectionBindings);
+			projectionResult = projectionBindings.getDataset(instruction.output());
+		} catch (Exception | Error e) {
+			log.debug("Calc instruction can't be evaluated on a projection: {}", e.getMessage());
+			return null;
+		}
+		List<DataPoint> dataPoints = projectionResult.getDataPoints();
+		if (dataPoints.size() != dataset.getRowsCount()) {
+			return null;
+		}
+		// The calculated columns are added as on the projection
+		ColumnarDataset expectedResult = projection;
+		ColumnarDataset result = dataset;
+		for (Component component : projectionResult.getDataStructure().values()) {
+			if (calculatedNames.contains(component.getName())) {
+				DatasetColumn column = calculatedColumn(dataPoints, component);
+				expectedResult = expectedResult.withColumn(component, column);
+				result = result.withColumn(component, column);
+			}
+		}
+		if (!new ArrayList<>(expectedResult.getDataStructure().keySet())
+				.equals(new ArrayList<>(projectionResult.getDataStructure().keySet()))
+				|| !sameIdentifiers(dataset, identifierNames, dataPoints)) {
+			return null;
+		}
+		return result;
+	}
+
+	private static DatasetColumn calculatedColumn(List<DataPoint> dataPoints, Component component) {
+		DatasetColumn.MutableColumn column = DatasetColumn.create(component.getType());
+		for (int row = 0; row < dataPoints.size(); row++) {
+			Object value = dataPoints.get(row).get(component.getName());
+			if (value != null) {
+				column.set(row, value);
+			}
+		}
+		return column;
+	}
+
+	/** Check that the rows of the result are the rows of the dataset, in the same order. */
+	private static boolean sameIdentifiers(ColumnarDataset dataset, List<String> identifierNames, List<DataPoint> dataPoints) {
+		for (String identifierName : identifierNames) {
+			DatasetColumn column = dataset.getColumn(identifierName);
+			for (int row = 0; row < dataPoints.size(); row++) {
+				if (!Objects.equals(column.get(row), dataPoints.get(row).get(identifierName))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+}
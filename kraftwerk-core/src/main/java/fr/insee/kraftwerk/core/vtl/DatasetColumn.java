@@ -0,0 +1,348 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values of a component of a ColumnarDataset.
+ * Values of the VTL types are stored in typed arrays (longs, doubles, bitsets for booleans), with a bitmap
+ * of non-null values. Columns are filled when the dataset is built (see MutableColumn), and are not modified
+ * afterwards, so that a column can be shared by several datasets.
+ * <p>
+ * Other columns are views on stored values (constant, referenced, concatenated or converted values): a selection
+ * of rows in a view is a view on the same values, so that these values are not copied.
+ */
+public abstract class DatasetColumn {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Return the value of the given row, as an object of the Java class of the component (null if no value). */
+	public abstract Object get(int row);
+
+	/**
+	 * Create an empty column for values of the given Java class.
+	 * @param type Java class of the component (String, Long, Double or Boolean for the VTL types).
+	 */
+	static MutableColumn create(Class<?> type) {
+		if (type == Long.class) {
+			return new LongValues();
+		}
+		if (type == Double.class) {
+			return new DoubleValues();
+		}
+		if (type == Boolean.class) {
+			return new BooleanValues();
+		}
+		return new ObjectValues();
+	}
+
+	/** Create a column having the same value in every row. */
+	static DatasetColumn constant(Object value) {
+		return new ConstantValue(value);
+	}
+
+	/**
+	 * Create a column whose values are stored once in another column: the value of a row is the value of the
+	 * referenced row in the given column (e.g. a root variable, stored once per questionnaire in a dataset having
+	 * one row per group instance).
+	 * @param values Column storing the values.
+	 * @param rows   Row of the values column, for each row of the created column.
+	 */
+	static DatasetColumn referenced(DatasetColumn values, int[] rows) {
+		return new ReferencedValues(values, rows);
+	}
+
+	/**
+	 * Create a column made of the rows of the given columns, one after the other.
+	 * @param parts   Columns whose rows are concatenated.
+	 * @param offsets First row of each part in the created column, followed by the rows count of the column.
+	 *                The same array can be given for several columns.
+	 */
+	static DatasetColumn concatenated(List<DatasetColumn> parts, int[] offsets) {
+		return new ConcatenatedValues(parts.toArray(new DatasetColumn[0]), offsets);
+	}
+
+	/** Create a column with the values of the given integer column, converted to Double. */
+	static DatasetColumn toNumber(DatasetColumn longValues) {
+		return new NumberValues(longValues);
+	}
+
+	/**
+	 * Return a column with the values of the selected rows, in the given order.
+	 * @param type Java class of the component.
+	 */
+	DatasetColumn select(Selection selection, Class<?> type) {
+		int[] rows = selection.rows;
+		MutableColumn selectedColumn = create(type);
+		for (int row = 0; row < rows.length; row++) {
+			Object value = rows[row] >= 0 ? get(rows[row]) : null;
+			if (value != null) {
+				selectedColumn.set(row, value);
+			}
+		}
+		return selectedColumn;
+	}
+
+	/**
+	 * Rows selected in the columns of a dataset, a negative row giving no value.
+	 * The row arrays computed for a selection are shared by the views it is applied on.
+	 */
+	static class Selection {
+
+		private final int[] rows;
+		private final boolean ascending;
+		private final boolean missingRows;
+		/** Keys: rows of referenced values. Values: the selected rows of the referenced values. */
+		private final Map<int[], int[]> referencedRows = new IdentityHashMap<>();
+		/** Keys: offsets of concatenated columns. Values: the selection in each part. */
+		private final Map<int[], PartsSelection> partsSelections = new IdentityHashMap<>();
+
+		Selection(int[] rows) {
+			this.rows = rows;
+			boolean isAscending = true;
+			boolean hasMissingRows = false;
+			for (int row = 0; row < rows.length; row++) {
+				hasMissingRows |= rows[row] < 0;
+				isAscending &= row == 0 || rows[row - 1] <= rows[row];
+			}
+			this.ascending = isAscending && !hasMissingRows;
+			this.missingRows = hasMissingRows;
+		}
+
+		private int[] referencedRows(int[] valuesRows) {
+			return referencedRows.computeIfAbsent(valuesRows, key -> {
+				int[] selectedRows = new int[rows.length];
+				for (int row = 0; row < rows.length; row++) {
+					selectedRows[row] = rows[row] >= 0 && rows[row] < valuesRows.length ? valuesRows[rows[row]] : -1;
+				}
+				return selectedRows;
+			});
+		}
+
+		/** Return the selection in each part, null if the rows are not in ascending order. */
+		private PartsSelection partsSelection(int[] offsets) {
+			if (!ascending) {
+				return null;
+			}
+			return partsSelections.computeIfAbsent(offsets, key -> {
+				int partsCount = offsets.length - 1;
+				Selection[] selections = new Selection[partsCount];
+				int[] selectedOffsets = new int[offsets.length];
+				int row = 0;
+				for (int part = 0; part < partsCount; part++) {
+					int start = row;
+					while (row < rows.length && rows[row] < offsets[part + 1]) {
+						row++;
+					}
+					int[] partRows = new int[row - start];
+					for (int i = 0; i < partRows.length; i++) {
+						partRows[i] = rows[start + i] - offsets[part];
+					}
+					selections[part] = new Selection(partRows);
+					selectedOffsets[part] = start;
+				}
+				selectedOffsets[partsCount] = rows.length;
+				return new PartsSelection(selections, selectedOffsets);
+			});
+		}
+	}
+
+	private record PartsSelection(Selection[] selections, int[] offsets) {
+	}
+
+	/** Column filled row by row, by the builders of the datasets. */
+	abstract static class MutableColumn extends DatasetColumn {
+
+		/** Set the value of the given row, the column being extended if needed. */
+		abstract void set(int row, Object value);
+	}
+
+	private static class ObjectValues extends MutableColumn {
+
+		private Object[] values = new Object[INITIAL_CAPACITY];
+
+		@Override
+		public Object get(int row) {
+			return row < values.length ? values[row] : null;
+		}
+
+		@Override
+		void set(int row, Object value) {
+			if (row >= values.length) {
+				values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+			}
+			values[row] = value;
+		}
+	}
+
+	private static class LongValues extends MutableColumn {
+
+		private long[] values = new long[INITIAL_CAPACITY];
+		private final BitSet nonNullRows = new BitSet();
+
+		@Override
+		public Object get(int row) {
+			return nonNullRows.get(row) ? values[row] : null;
+		}
+
+		@Override
+		void set(int row, Object value) {
+			if (value == null) {
+				nonNullRows.clear(row);
+				return;
+			}
+			if (row >= values.length) {
+				values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+			}
+			values[row] = ((Number) value).longValue();
+			nonNullRows.set(row);
+		}
+	}
+
+	private static class DoubleValues extends MutableColumn {
+
+		private double[] values = new double[INITIAL_CAPACITY];
+		private final BitSet nonNullRows = new BitSet();
+
+		@Override
+		public Object get(int row) {
+			return nonNullRows.get(row) ? values[row] : null;
+		}
+
+		@Override
+		void set(int row, Object value) {
+			if (value == null) {
+				nonNullRows.clear(row);
+				return;
+			}
+			if (row >= values.length) {
+				values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+			}
+			values[row] = ((Number) value).doubleValue();
+			nonNullRows.set(row);
+		}
+	}
+
+	private static class BooleanValues extends MutableColumn {
+
+		private final BitSet trueRows = new BitSet();
+		private final BitSet nonNullRows = new BitSet();
+
+		@Override
+		public Object get(int row) {
+			return nonNullRows.get(row) ? trueRows.get(row) : null;
+		}
+
+		@Override
+		void set(int row, Object value) {
+			nonNullRows.set(row, value != null);
+			trueRows.set(row, Boolean.TRUE.equals(value));
+		}
+	}
+
+	private static class ConstantValue extends DatasetColumn {
+
+		private final Object value;
+
+		ConstantValue(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		public Object get(int row) {
+			return value;
+		}
+
+		@Override
+		DatasetColumn select(Selection selection, Class<?> type) {
+			return selection.missingRows ? super.select(selection, type) : this;
+		}
+	}
+
+	private static class ReferencedValues extends DatasetColumn {
+
+		private final DatasetColumn values;
+		private final int[] rows;
+
+		ReferencedValues(DatasetColumn values, int[] rows) {
+			this.values = values;
+			this.rows = rows;
+		}
+
+		@Override
+		public Object get(int row) {
+			return row < rows.length && rows[row] >= 0 ? values.get(rows[row]) : null;
+		}
+
+		/** The selected column references the same values, they are not copied. */
+		@Override
+		DatasetColumn select(Selection selection, Class<?> type) {
+			return new ReferencedValues(values, selection.referencedRows(rows));
+		}
+	}
+
+	private static class ConcatenatedValues extends DatasetColumn {
+
+		private final DatasetColumn[] parts;
+		private final int[] offsets;
+
+		ConcatenatedValues(DatasetColumn[] parts, int[] offsets) {
+			this.parts = parts;
+			this.offsets = offsets;
+		}
+
+		@Override
+		public Object get(int row) {
+			if (row < 0 || row >= offsets[parts.length]) {
+				return null;
+			}
+			// Last part starting before the row (empty parts have the same offset as the next part)
+			int part = Arrays.binarySearch(offsets, row);
+			if (part < 0) {
+				part = -part - 2;
+			}
+			while (offsets[part + 1] <= row) {
+				part++;
+			}
+			return parts[part].get(row - offsets[part]);
+		}
+
+		/** If the rows are in ascending order, the rows are selected in each part. */
+		@Override
+		DatasetColumn select(Selection selection, Class<?> type) {
+			PartsSelection partsSelection = selection.partsSelection(offsets);
+			if (partsSelection == null) {
+				return super.select(selection, type);
+			}
+			DatasetColumn[] selectedParts = new DatasetColumn[parts.length];
+			for (int part = 0; part < parts.length; part++) {
+				selectedParts[part] = parts[part].select(partsSelection.selections()[part], type);
+			}
+			return new ConcatenatedValues(selectedParts, partsSelection.offsets());
+		}
+	}
+
+	private static class NumberValues extends DatasetColumn {
+
+		private final DatasetColumn longValues;
+
+		NumberValues(DatasetColumn longValues) {
+			this.longValues = longValues;
+		}
+
+		@Override
+		public Object get(int row) {
+			Object value = longValues.get(row);
+			return value != null ? ((Number) value).doubleValue() : null;
+		}
+
+		@Override
+		DatasetColumn select(Selection selection, Class<?> type) {
+			return new NumberValues(longValues.select(selection, Long.class));
+		}
+	}
+
+}
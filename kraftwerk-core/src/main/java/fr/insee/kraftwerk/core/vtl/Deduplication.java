@@ -0,0 +1,88 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.InMemoryDataset;
+import fr.insee.vtl.model.Structured.Component;
+import fr.insee.vtl.model.Structured.DataPoint;
+import fr.insee.vtl.model.Structured.DataStructure;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Removal of the duplicated rows of a dataset, replacing the VTL instruction "DS := union(DS, DS);".
+ * <p>
+ * As with the union, two rows are duplicates if they have the same identifiers, and the first one is kept.
+ * If the dataset has no identifier, two rows are duplicates if all their values are equal.
+ * The rows are read once, only the keys of the rows already read are kept in memory.
+ */
+@Log4j2
+public class Deduplication {
+
+	private Deduplication() {
+		//Utility class
+	}
+
+	/**
+	 * Return the dataset without its duplicated rows.
+	 * The dataset itself is returned if it has no duplicated rows.
+	 */
+	public static Dataset removeDuplicates(Dataset dataset) {
+		DataStructure dataStructure = dataset.getDataStructure();
+		int[] keyIndexes = keyIndexes(dataStructure);
+		ColumnarDataset columnarDataset = dataset instanceof ColumnarDataset columnar ? columnar : null;
+		List<DataPoint> dataPoints = columnarDataset == null ? dataset.getDataPoints() : null;
+		int rowsCount = columnarDataset != null ? columnarDataset.getRowsCount() : dataPoints.size();
+		//
+		Set<List<Object>> keys = new HashSet<>();
+		int[] keptRows = new int[rowsCount];
+		int keptCount = 0;
+		for (int row = 0; row < rowsCount; row++) {
+			Object[] key = new Object[keyIndexes.length];
+			for (int i = 0; i < keyIndexes.length; i++) {
+				key[i] = columnarDataset != null ?
+						columnarDataset.getColumn(keyIndexes[i]).get(row) : dataPoints.get(row).get(keyIndexes[i]);
+			}
+			if (keys.add(Arrays.asList(key))) {
+				keptRows[keptCount++] = row;
+			}
+		}
+		if (keptCount == rowsCount) {
+			return dataset;
+		}
+		log.debug("{} duplicated rows removed", rowsCount - keptCount);
+		keptRows = Arrays.copyOf(keptRows, keptCount);
+		if (columnarDataset != null) {
+			return columnarDataset.selectRows(keptRows);
+		}
+		List<List<Object>> keptDataPoints = new ArrayList<>(keptCount);
+		for (int row : keptRows) {
+			keptDataPoints.add(dataPoints.get(row));
+		}
+		return new InMemoryDataset(keptDataPoints, dataStructure);
+	}
+
+	/** Return the positions of the identifiers, of all the components if there is no identifier. */
+	private static int[] keyIndexes(DataStructure dataStructure) {
+		List<Component> components = new ArrayList<>(dataStructure.values());
+		int[] identifierIndexes = new int[components.size()];
+		int identifiersCount = 0;
+		for (int i = 0; i < components.size(); i++) {
+			if (components.get(i).getRole() == Dataset.Role.IDENTIFIER) {
+				identifierIndexes[identifiersCount++] = i;
+			}
+		}
+		if (identifiersCount == 0) {
+			for (int i = 0; i < components.size(); i++) {
+				identifierIndexes[i] = i;
+			}
+			return identifierIndexes;
+		}
+		return Arrays.copyOf(identifierIndexes, identifiersCount);
+	}
+
+}
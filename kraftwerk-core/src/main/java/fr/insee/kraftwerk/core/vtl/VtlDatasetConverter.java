@@ -0,0 +1,276 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.metadata.Variable;
+import fr.insee.kraftwerk.core.metadata.VariableType;
+import fr.insee.kraftwerk.core.metadata.VariablesMap;
+import fr.insee.kraftwerk.core.rawdata.GroupData;
+import fr.insee.kraftwerk.core.rawdata.GroupInstance;
+import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
+import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.Structured.Component;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class to convert a SurveyRawData object into a Trevas dataset (a ColumnarDataset), in memory.
+ * The dataset has the same structure and data points as the one that would be read from
+ * the JSON file written by VtlJsonDatasetWriter: values are converted to the Java class of their
+ * VTL type, values of integer, number and boolean columns being read without String conversion.
+ * A value that can't be converted to the type of its variable is null in the dataset
+ * (these values are reported as errors, see ColumnStore.getInvalidValuesErrors).
+ * As VtlJsonDatasetWriter, the converter handles at most one level of groups under the root:
+ * a row is written for each instance of the groups of the root instance, their subgroups are not read.
+ * <p>
+ * With the normalized storage, the rows are the same, but the values of the root level are stored once per
+ * questionnaire instead of being repeated in the row of each group instance: the columns of the root variables
+ * reference a root table (see DatasetColumn.referenced). The rows are denormalized only when the data points
+ * are read (e.g. by the VTL engine).
+ * The root table stays shared by the datasets derived by the processing steps: the instructions applied on
+ * columnar datasets and the calc instructions (see ColumnarInstructions), the native reconciliation and the
+ * information levels split. A dataset produced by another instruction of the VTL engine (e.g. of a user VTL script)
+ * is stored in rows.
+ */
+@Log4j2
+public class VtlDatasetConverter {
+
+	private final SurveyRawData surveyData;
+	private final VariablesMap variablesMap;
+	private final boolean normalized;
+
+	/*
+	 * Column number of each component in the dataset. Keys: a variable or group name.
+	 */
+	private final Map<String, Integer> columnsMapping = new HashMap<>();
+	/*
+	 * Type of each component in the dataset, in the order of the columns.
+	 */
+	private final List<VariableType> columnsTypes = new ArrayList<>();
+
+	/**
+	 * @param surveyData Survey data parsed into a SurveyRawData object.
+	 */
+	public VtlDatasetConverter(SurveyRawData surveyData) {
+		this(surveyData, false);
+	}
+
+	/**
+	 * @param surveyData Survey data parsed into a SurveyRawData object.
+	 * @param normalized If true, the values of the root level are stored once per questionnaire.
+	 */
+	public VtlDatasetConverter(SurveyRawData surveyData, boolean normalized) {
+		this.surveyData = surveyData;
+		this.variablesMap = surveyData.getVariablesMap();
+		this.normalized = normalized;
+	}
+
+	/**
+	 * Convert the survey data into a Trevas dataset.
+	 *
+	 * @return An in memory VTL dataset.
+	 */
+	public ColumnarDataset convert() {
+		List<Component> components = dataStructure();
+		if (normalized) {
+			return normalizedDataset(components);
+		}
+		ColumnarDataset.Builder builder = ColumnarDataset.builder(components);
+		addDataPoints(builder);
+		return builder.build();
+	}
+
+	private List<Component> dataStructure() {
+
+		List<Component> components = new ArrayList<>();
+
+		// Root level identifier
+		addComponent(components, Constants.ROOT_IDENTIFIER_NAME, VariableType.STRING, Dataset.Role.IDENTIFIER);
+		// Group identifiers
+		for (String groupName : variablesMap.getSubGroupNames()) {
+			// The group name is the identifier variable for the group
+			addComponent(components, groupName, VariableType.STRING, Dataset.Role.IDENTIFIER);
+		}
+
+		// Variables
+		for (String variableName : variablesMap.getVariableNames()) {
+			Variable variable = variablesMap.getVariable(variableName);
+			addComponent(components, variableName, variable.getType(), Dataset.Role.MEASURE);
+		}
+
+		return components;
+	}
+
+	private void addComponent(List<Component> components, String name, VariableType type, Dataset.Role role) {
+		if (type == null) {
+			log.debug("null variable type given to the dataset converter, this should NEVER happen!");
+			type = VariableType.STRING;
+		}
+		components.add(new Component(name, vtlClass(type), role));
+		columnsMapping.put(name, columnsTypes.size());
+		columnsTypes.add(type);
+	}
+
+	private void addDataPoints(ColumnarDataset.Builder builder) {
+
+		for (QuestionnaireData questionnaireData : surveyData.getQuestionnaires()) {
+			GroupInstance rootInstance = questionnaireData.getAnswers();
+
+			Object[] rowValues = new Object[columnsTypes.size()];
+
+			// Root level identifier
+			rowValues[0] = questionnaireData.getIdentifier();
+
+			// Root variables values
+			addValuesToRow(rootInstance, rowValues);
+
+			boolean emptySubGroups = true;
+
+			for (String groupName : rootInstance.getSubGroupNames()) {
+				GroupData groupData = rootInstance.getSubGroup(groupName);
+
+				// Group values: one row per group instance
+				for (String groupId : groupData.getInstanceIds()) {
+					Object[] groupRowValues = rowValues.clone();
+					GroupInstance groupInstance = groupData.getInstance(groupId);
+					groupRowValues[columnsMapping.get(groupName)] = groupInstance.getId();
+					addValuesToRow(groupInstance, groupRowValues);
+					builder.addRow(groupRowValues);
+					emptySubGroups = false;
+				}
+			}
+
+			// If no subgroups or if all subgroups are empty, write a single line
+			if (emptySubGroups) {
+				builder.addRow(rowValues);
+			}
+		}
+	}
+
+	/**
+	 * Values are stored in two tables: the values of the root instances (one row per questionnaire), and the values
+	 * of the group instances (one row per row of the dataset). A column having values in a single table is read in
+	 * this table, the root table being referenced by the rows. The values of a column having values in both tables
+	 * (which should not happen) are merged as in the denormalized rows: a value of a group instance replaces the
+	 * value of the root instance.
+	 */
+	private ColumnarDataset normalizedDataset(List<Component> components) {
+		int columnsCount = components.size();
+		List<DatasetColumn.MutableColumn> rootColumns = new ArrayList<>();
+		List<DatasetColumn.MutableColumn> groupColumns = new ArrayList<>();
+		BitSet[] groupValuesRows = new BitSet[columnsCount];
+		for (int column = 0; column < columnsCount; column++) {
+			rootColumns.add(DatasetColumn.create(components.get(column).getType()));
+			groupColumns.add(DatasetColumn.create(components.get(column).getType()));
+			groupValuesRows[column] = new BitSet();
+		}
+		BitSet rootValuesColumns = new BitSet();
+		int[] rootRows = new int[surveyData.getQuestionnaires().size()];
+		int rowsCount = 0;
+
+		for (int questionnaireIndex = 0; questionnaireIndex < surveyData.getQuestionnaires().size(); questionnaireIndex++) {
+			QuestionnaireData questionnaireData = surveyData.getQuestionnaires().get(questionnaireIndex);
+			GroupInstance rootInstance = questionnaireData.getAnswers();
+			int rootRow = questionnaireIndex;
+
+			// Root level identifier and root variables values
+			rootColumns.get(0).set(rootRow, questionnaireData.getIdentifier());
+			rootValuesColumns.set(0);
+			addValues(rootInstance, (value, column) -> {
+				if (value != null) {
+					rootColumns.get(column).set(rootRow, value);
+					rootValuesColumns.set(column);
+				}
+			});
+
+			boolean emptySubGroups = true;
+			for (String groupName : rootInstance.getSubGroupNames()) {
+				GroupData groupData = rootInstance.getSubGroup(groupName);
+				for (String groupId : groupData.getInstanceIds()) {
+					GroupInstance groupInstance = groupData.getInstance(groupId);
+					int row = rowsCount++;
+					if (row == rootRows.length) {
+						rootRows = Arrays.copyOf(rootRows, rootRows.length * 2);
+					}
+					rootRows[row] = rootRow;
+					int groupColumn = columnsMapping.get(groupName);
+					groupColumns.get(groupColumn).set(row, groupInstance.getId());
+					groupValuesRows[groupColumn].set(row);
+					addValues(groupInstance, (value, column) -> {
+						if (value != null) {
+							groupColumns.get(column).set(row, value);
+						}
+						groupValuesRows[column].set(row);
+					});
+					emptySubGroups = false;
+				}
+			}
+			if (emptySubGroups) {
+				if (rowsCount == rootRows.length) {
+					rootRows = Arrays.copyOf(rootRows, rootRows.length * 2 + 1);
+				}
+				rootRows[rowsCount++] = rootRow;
+			}
+		}
+
+		int[] rows = Arrays.copyOf(rootRows, rowsCount);
+		List<DatasetColumn> columns = new ArrayList<>();
+		for (int column = 0; column < columnsCount; column++) {
+			if (groupValuesRows[column].isEmpty()) {
+				columns.add(DatasetColumn.referenced(rootColumns.get(column), rows));
+			} else if (!rootValuesColumns.get(column)) {
+				columns.add(groupColumns.get(column));
+			} else {
+				DatasetColumn.MutableColumn mergedColumn = DatasetColumn.create(components.get(column).getType());
+				for (int row = 0; row < rowsCount; row++) {
+					Object value = groupValuesRows[column].get(row) ?
+							groupColumns.get(column).get(row) : rootColumns.get(column).get(rows[row]);
+					if (value != null) {
+						mergedColumn.set(row, value);
+					}
+				}
+				columns.add(mergedColumn);
+			}
+		}
+		return ColumnarDataset.of(components, columns, rowsCount);
+	}
+
+	private void addValuesToRow(GroupInstance groupInstance, Object[] rowValues) {
+		addValues(groupInstance, (value, column) -> rowValues[column] = value);
+	}
+
+	/** Give each value of the group instance, converted to the type of its column, with the column number. */
+	private void addValues(GroupInstance groupInstance, ObjIntConsumer<Object> valueConsumer) {
+		for (String variableName : groupInstance.getVariableNames()) {
+			Integer column = columnsMapping.get(variableName);
+			if (column != null) {
+				valueConsumer.accept(switch (columnsTypes.get(column)) {
+					case INTEGER -> groupInstance.getLongValue(variableName);
+					case NUMBER -> groupInstance.getDoubleValue(variableName);
+					case BOOLEAN -> groupInstance.getBooleanValue(variableName);
+					default -> groupInstance.getValue(variableName);
+				}, column);
+			} else {
+				log.debug(String.format("Variable named \"%s\" found in data object is unknown.", variableName));
+			}
+		}
+	}
+
+	/** Java class of the values of the given type in Trevas datasets. */
+	private static Class<?> vtlClass(VariableType variableType) {
+		return switch (variableType.getVtlType()) {
+			case "INTEGER" -> Long.class;
+			case "NUMBER" -> Double.class;
+			case "BOOLEAN" -> Boolean.class;
+			default -> String.class;
+		};
+	}
+
+}
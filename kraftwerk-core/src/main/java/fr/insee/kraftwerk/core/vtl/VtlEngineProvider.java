@@ -0,0 +1,95 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.insee.vtl.jackson.TrevasModule;
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.InMemoryDataset;
+import fr.insee.vtl.model.Structured.Component;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Provider of the Trevas objects shared by the VtlExecute instances.
+ * <ul>
+ *     <li>The VTL engine factory is discovered once. Each thread gets its own engine (with its own context),
+ *     created when first used.</li>
+ *     <li>A single mapper (with the Trevas module) is used to read and write JSON datasets.
+ *     A mapper is thread-safe once configured.</li>
+ * </ul>
+ */
+@Log4j2
+public class VtlEngineProvider {
+
+	private static final ScriptEngineFactory ENGINE_FACTORY = new ScriptEngineManager()
+			.getEngineByName("vtl").getFactory();
+
+	private static final ThreadLocal<ScriptEngine> ENGINE = ThreadLocal.withInitial(ENGINE_FACTORY::getScriptEngine);
+
+	private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new TrevasModule());
+
+	private VtlEngineProvider() {
+		//Utility class
+	}
+
+	/** Return the VTL engine of the current thread. */
+	public static ScriptEngine getEngine() {
+		return ENGINE.get();
+	}
+
+	/**
+	 * Evaluate the given VTL script with the engine of the current thread.
+	 * The bindings are set in the engine context during the evaluation only (the Trevas engine reads and writes
+	 * the datasets in its own context), so that the engine doesn't keep a reference to the datasets afterwards.
+	 *
+	 * @param vtlScript VTL instructions.
+	 * @param bindings  Bindings containing the datasets, updated by the engine.
+	 */
+	public static Object eval(String vtlScript, Bindings bindings) throws ScriptException {
+		ScriptEngine engine = getEngine();
+		ScriptContext context = engine.getContext();
+		context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+		try {
+			return engine.eval(vtlScript);
+		} finally {
+			context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+		}
+	}
+
+	/** Return the mapper to convert JSON files into VTL datasets. */
+	public static ObjectMapper getMapper() {
+		return MAPPER;
+	}
+
+	/**
+	 * Load the classes of the engine and of the mapper, by evaluating a small script and serializing its result,
+	 * so that the first processing doesn't pay this cost.
+	 */
+	public static void warmUp() {
+		long start = System.currentTimeMillis();
+		VtlBindings bindings = new VtlBindings();
+		List<List<Object>> dataPoints = new ArrayList<>();
+		dataPoints.add(new ArrayList<>(List.of("1", 1L)));
+		bindings.put("WARM_UP", new InMemoryDataset(dataPoints, List.of(
+				new Component("ID", String.class, Dataset.Role.IDENTIFIER),
+				new Component("VALUE", Long.class, Dataset.Role.MEASURE))));
+		try {
+			eval("WARM_UP_2 := WARM_UP [calc VALUE_2 := cast(VALUE, number) * 2] [filter VALUE_2 > 0];"
+					+ "WARM_UP_3 := union(WARM_UP_2, WARM_UP_2);", bindings);
+			MAPPER.readValue(MAPPER.writeValueAsString(bindings.getDataset("WARM_UP_3")), Dataset.class);
+			log.info("VTL engine warmed up in {} ms", System.currentTimeMillis() - start);
+		} catch (Exception e) {
+			log.warn("Unable to warm up the VTL engine", e);
+		}
+	}
+
+}
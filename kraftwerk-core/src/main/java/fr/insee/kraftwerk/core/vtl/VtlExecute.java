@@ -1,16 +1,12 @@
 package fr.insee.kraftwerk.core.vtl;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
-import javax.script.ScriptContext;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.springframework.stereotype.Service;
@@ -22,7 +18,6 @@ import fr.insee.kraftwerk.core.KraftwerkError;
 import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
 import fr.insee.kraftwerk.core.utils.FileUtils;
 import fr.insee.kraftwerk.core.utils.TextFileWriter;
-import fr.insee.vtl.jackson.TrevasModule;
 import fr.insee.vtl.model.Dataset;
 import lombok.extern.log4j.Log4j2;
 
@@ -33,45 +28,34 @@ import lombok.extern.log4j.Log4j2;
 @Service
 public class VtlExecute {
 
-    /** Mapper to convert json files into VTL Datasets. */
+    /** Mapper to convert json files into VTL Datasets (shared, see VtlEngineProvider). */
     private final ObjectMapper mapper;
-    /** Engine that will execute VTL instructions */
-    private final ScriptEngine engine;
 
 
     public VtlExecute(){
-        mapper = new ObjectMapper();
-        mapper.registerModule(new TrevasModule());
-        // Engine
-        engine = new ScriptEngineManager()
-                .getEngineByName("vtl");
+        mapper = VtlEngineProvider.getMapper();
     }
     
     /**
      * Transform the given data object into a Trevas VTL dataset, and put it in the bindings.
-     * The variables map of the given data object is also stored and can later be get using the method
-     * getDatasetVariablesMap.
+     * The dataset is built in memory (see VtlDatasetConverter).
      * The given binding name will be the reference name of the dataset during the evaluation of VTL scripts.
      *
      * @param surveyRawData Data object.
-     * Path to the local json file.
      * @param bindingName
      * The name the dataset will be referred to when executing VTL instructions.
      */
     public void convertToVtlDataset(SurveyRawData surveyRawData, String bindingName, VtlBindings bindings){
-        // Write data in a json file
-        var vtlJsonDatasetWriter = new VtlJsonDatasetWriter(surveyRawData, bindingName);
-        String tempDatasetPath = vtlJsonDatasetWriter.writeVtlJsonDataset();
-        // Give this json file to the mapper to put a Dataset in the bindings
-        putVtlDataset(tempDatasetPath, bindingName, bindings);
-        // Delete temp file
-        Path tempDataset = Paths.get(tempDatasetPath);
-        File fileTempDataset = tempDataset.toFile();
-        if (fileTempDataset.delete()){
-            log.debug("File {} deleted",tempDatasetPath);
-        } else {
-            log.debug("Impossible to delete file {}",tempDatasetPath);
-        }
+        convertToVtlDataset(surveyRawData, bindingName, bindings, false);
+    }
+
+    /**
+     * Same as convertToVtlDataset(SurveyRawData, String, VtlBindings), the values of the root level
+     * being stored once per questionnaire if normalized is true.
+     */
+    public void convertToVtlDataset(SurveyRawData surveyRawData, String bindingName, VtlBindings bindings, boolean normalized){
+        Dataset vtlDataset = new VtlDatasetConverter(surveyRawData, normalized).convert();
+        bindings.put(bindingName, vtlDataset);
     }
 
 
@@ -156,13 +140,8 @@ public class VtlExecute {
     public void evalVtlScript(String vtlScript, VtlBindings bindings, List<KraftwerkError> errors){
         if(vtlScript != null && !vtlScript.equals("")) {
             try {
-                // set script context
-                ScriptContext context = engine.getContext();
-                context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
-                // eval
-                engine.eval(vtlScript);
-                // overwrite bindings
-                bindings = (VtlBindings) engine.getContext().getBindings(ScriptContext.ENGINE_SCOPE);
+                // eval with the engine of the current thread, the bindings are updated by the engine
+                VtlEngineProvider.eval(vtlScript, bindings);
 
             } catch (ScriptException e) {
                 log.warn("ScriptException - Some VTL instruction given is invalid and has been skipped");
@@ -195,20 +174,50 @@ public class VtlExecute {
         }
     }
 
+    /** Evaluate a single VTL instruction. Simple instructions on columnar datasets are applied without the engine. */
+    private void evalVtlInstruction(String vtlInstruction, VtlBindings bindings, List<KraftwerkError> errors) {
+        if (!ColumnarInstructions.evaluate(vtlInstruction, bindings)) {
+            evalVtlScript(vtlInstruction, bindings, errors);
+        }
+    }
+
     /**
      * Evaluate the given VTL instructions and update the bindings.
      * The name of the input datasets in the script must refer to the names given in the bindings.
+     * Consecutive clauses on the same dataset are fused before the evaluation (see VtlScriptOptimizer).
      *
      * @param vtlScript
      * A string containing vtl instructions.
+     * @return The script evaluated, in which the instructions are fused (the given script if it is null or empty).
+     * A fused instruction that failed is replaced by the original instructions, evaluated instead.
      */
-    public void evalVtlScript(VtlScript vtlScript, VtlBindings bindings, List<KraftwerkError> errors){
+    public VtlScript evalVtlScript(VtlScript vtlScript, VtlBindings bindings, List<KraftwerkError> errors){
         if(vtlScript != null && !vtlScript.isEmpty()) {
-            for(String vtlInstruction : vtlScript) {
-                evalVtlScript(vtlInstruction, bindings, errors);
+            VtlScript evaluatedScript = new VtlScript();
+            for(VtlScriptOptimizer.FusedInstruction fusedInstruction : VtlScriptOptimizer.fuseInstructions(vtlScript)) {
+                if (fusedInstruction.instructions().size() == 1) {
+                    evaluatedScript.add(fusedInstruction.instruction());
+                    evalVtlInstruction(fusedInstruction.instruction(), bindings, errors);
+                } else {
+                    // If the fused instruction fails, the original instructions are evaluated one by one,
+                    // so that only the failing ones are skipped and reported
+                    List<KraftwerkError> fusedErrors = new ArrayList<>();
+                    evalVtlInstruction(fusedInstruction.instruction(), bindings, fusedErrors);
+                    if (fusedErrors.isEmpty()) {
+                        evaluatedScript.add(fusedInstruction.instruction());
+                    } else {
+                        log.debug("Fused VTL instruction failed, instructions evaluated one by one: {}", fusedInstruction.instruction());
+                        fusedInstruction.instructions().forEach(vtlInstruction -> {
+                            evaluatedScript.add(vtlInstruction);
+                            evalVtlInstruction(vtlInstruction, bindings, errors);
+                        });
+                    }
+                }
             }
+            return evaluatedScript;
         } else {
             log.info("null or empty VTL instructions list given. VTL bindings has not been changed.");
+            return vtlScript;
         }
     }
 
@@ -9,7 +9,6 @@ import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -191,9 +190,13 @@ public class VtlJsonDatasetWriter {
 	private void addValuesToRow(GroupInstance groupInstance, String[] rowValues) {
 		for (String variableName : groupInstance.getVariableNames()) {
 			if (columnsMapping.get(variableName) != null) {
-				String value = groupInstance.getValue(variableName);
-				if (variablesMap.getVariable(variableName).getType() == VariableType.BOOLEAN) { 
-					value = convertBooleanValue(value);
+				String value;
+				if (variablesMap.getVariable(variableName).getType() == VariableType.BOOLEAN) {
+					// Compatible boolean values are converted to "true" or "false"
+					Boolean booleanValue = groupInstance.getBooleanValue(variableName);
+					value = booleanValue != null ? booleanValue.toString() : null;
+				} else {
+					value = groupInstance.getValue(variableName);
 				}
 				rowValues[columnsMapping.get(variableName)] = value;
 			} else {
@@ -210,20 +213,4 @@ public class VtlJsonDatasetWriter {
 		return variableType.getVtlType();
 	}
 
-	/** Compatible boolean values for "true */
-	private static final Set<String> trueValues = Set.of("true", "1");
-	/** Compatible boolean values for "false" */
-	private static final Set<String> falseValues = Set.of("false", "0");
-
-	/** Method to convert compatible boolean values to "true" or "false". */
-	private static String convertBooleanValue(String value) {
-		if (value != null) {
-			if (trueValues.contains(value)) return "true";
-			else if (falseValues.contains(value)) return "false";
-			else return null;
-		} else {
-			return null;
-		}
-	}
-
 }
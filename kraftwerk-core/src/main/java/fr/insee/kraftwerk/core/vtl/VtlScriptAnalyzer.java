@@ -0,0 +1,137 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Analysis of the assignments of a VTL script, to find the variables of a dataset that the script modifies.
+ * <p>
+ * The statements that assign another dataset are ignored. The statements that assign the dataset must be single
+ * clauses on the dataset itself ("DS := DS [clause items];"):
+ * <ul>
+ *     <li>calc: the calculated variables are modified;</li>
+ *     <li>rename: the renamed variables and their new names are modified;</li>
+ *     <li>drop: the dropped variables are modified;</li>
+ *     <li>filter: no variable is modified (only rows are removed).</li>
+ * </ul>
+ * Any other assignment of the dataset (keep, joins, unions, several clauses...) can modify any variable:
+ * the script is then not analyzed.
+ */
+@Log4j2
+public class VtlScriptAnalyzer {
+
+	private static final Pattern ASSIGNMENT_PATTERN = Pattern.compile("\\s*(\\w+)\\s*(:=|<-).*", Pattern.DOTALL);
+
+	private VtlScriptAnalyzer() {
+		//Utility class
+	}
+
+	/**
+	 * Return the variables of the dataset modified by the script.
+	 * @param vtlScript   A string containing vtl instructions.
+	 * @param datasetName Name of the dataset.
+	 * @return The names of the modified variables, null if the script can't be analyzed.
+	 */
+	public static Set<String> modifiedVariables(String vtlScript, String datasetName) {
+		List<String> statements = splitStatements(vtlScript);
+		if (statements == null) {
+			log.debug("VTL script can't be split into statements");
+			return null;
+		}
+		Set<String> modifiedVariables = new LinkedHashSet<>();
+		for (String statement : statements) {
+			Matcher matcher = ASSIGNMENT_PATTERN.matcher(statement);
+			if (!matcher.matches()) {
+				log.debug("VTL statement not analyzed: {}", statement);
+				return null;
+			}
+			if (!matcher.group(1).equals(datasetName)) {
+				continue;
+			}
+			Set<String> statementVariables = modifiedVariables(ClauseInstruction.parse(statement + ";"), datasetName);
+			if (statementVariables == null) {
+				log.debug("VTL statement not analyzed: {}", statement);
+				return null;
+			}
+			modifiedVariables.addAll(statementVariables);
+		}
+		return modifiedVariables;
+	}
+
+	private static Set<String> modifiedVariables(ClauseInstruction instruction, String datasetName) {
+		if (instruction == null || !instruction.input().equals(datasetName)) {
+			return null;
+		}
+		switch (instruction.clause()) {
+			case "calc":
+				return VtlScriptOptimizer.calculatedNames(instruction.items());
+			case "rename":
+				Set<String> names = new LinkedHashSet<>();
+				for (String item : instruction.items()) {
+					Matcher matcher = VtlScriptOptimizer.RENAME_ITEM_PATTERN.matcher(item);
+					if (!matcher.matches()) {
+						return null;
+					}
+					names.add(matcher.group(1));
+					names.add(matcher.group(2));
+				}
+				return names;
+			case "drop":
+				return new LinkedHashSet<>(instruction.items());
+			case "filter":
+				return Set.of();
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Split a script into statements, on the semicolons that are not in string literals. Block comments are removed.
+	 * @return The non blank statements without their semicolon, null if the script has line comments
+	 * or unbalanced quotes or comments.
+	 */
+	static List<String> splitStatements(String vtlScript) {
+		List<String> statements = new ArrayList<>();
+		StringBuilder statement = new StringBuilder();
+		boolean inString = false;
+		for (int i = 0; i < vtlScript.length(); i++) {
+			char c = vtlScript.charAt(i);
+			if (!inString && vtlScript.startsWith("/*", i)) {
+				int end = vtlScript.indexOf("*/", i + 2);
+				if (end < 0) {
+					return null;
+				}
+				i = end + 1;
+				statement.append(' ');
+			} else if (!inString && vtlScript.startsWith("//", i)) {
+				return null;
+			} else if (!inString && c == ';') {
+				addStatement(statements, statement);
+				statement.setLength(0);
+			} else {
+				if (c == '"') {
+					inString = !inString;
+				}
+				statement.append(c);
+			}
+		}
+		if (inString) {
+			return null;
+		}
+		addStatement(statements, statement);
+		return statements;
+	}
+
+	private static void addStatement(List<String> statements, StringBuilder statement) {
+		if (!statement.toString().isBlank()) {
+			statements.add(statement.toString().trim());
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Optimizer of VTL scripts, that fuses consecutive clauses of the same kind on the same dataset
+ * into a single instruction, so that the dataset is computed once instead of once per instruction.
+ * <p>
+ * Two instructions "X := Y [clause items1];" and "X := X [clause items2];" are fused into
+ * "X := Y [clause items1, items2];" when the result is the same:
+ * <ul>
+ *     <li>rename: no variable is renamed twice, and the names involved are distinct;</li>
+ *     <li>calc: the calculated variables are distinct, and the second expressions don't use the variables
+ *     calculated by the first ones (calc expressions are evaluated on the input dataset);</li>
+ *     <li>keep: the second variables are all kept by the first clause (the second clause alone is kept);</li>
+ *     <li>drop: the dropped variables are distinct;</li>
+ *     <li>filter: the conditions are combined with "and".</li>
+ * </ul>
+ * Other instructions are left unchanged.
+ */
+@Log4j2
+public class VtlScriptOptimizer {
+
+	static final Pattern RENAME_ITEM_PATTERN = Pattern.compile("([A-Za-z_][\\w.]*)\\s+to\\s+([A-Za-z_][\\w.]*)");
+	private static final Pattern CALC_ITEM_PATTERN = Pattern.compile(
+			"(?:(?:identifier|measure|attribute)\\s+)?([A-Za-z_][\\w.]*)\\s*:=\\s*(.+)", Pattern.DOTALL);
+
+	private VtlScriptOptimizer() {
+		//Utility class
+	}
+
+	/** Return a script in which consecutive clauses that can be fused are fused. The given script is not modified. */
+	public static VtlScript optimize(VtlScript vtlScript) {
+		VtlScript optimizedScript = new VtlScript();
+		for (FusedInstruction fusedInstruction : fuseInstructions(vtlScript)) {
+			optimizedScript.add(fusedInstruction.instruction());
+		}
+		if (optimizedScript.size() < vtlScript.size()) {
+			log.debug("VTL script optimized: {} instructions fused into {}", vtlScript.size(), optimizedScript.size());
+		}
+		return optimizedScript;
+	}
+
+	/**
+	 * Instruction of an optimized script.
+	 * @param instruction  The VTL instruction.
+	 * @param instructions The instructions of the original script that have been fused (the instruction alone if
+	 *                     it has not been fused).
+	 */
+	record FusedInstruction(String instruction, List<String> instructions) {}
+
+	/** Return the instructions of the optimized script, with the original instructions fused in each one. */
+	static List<FusedInstruction> fuseInstructions(VtlScript vtlScript) {
+		List<FusedInstruction> fusedInstructions = new ArrayList<>();
+		ClauseInstruction previous = null;
+		for (String vtlInstruction : vtlScript) {
+			ClauseInstruction current = ClauseInstruction.parse(vtlInstruction);
+			ClauseInstruction fused = previous != null && current != null ? fuse(previous, current) : null;
+			if (fused != null) {
+				FusedInstruction last = fusedInstructions.remove(fusedInstructions.size() - 1);
+				fusedInstructions.add(new FusedInstruction(fused.toVtl(), concat(last.instructions(), List.of(vtlInstruction))));
+				previous = fused;
+			} else {
+				fusedInstructions.add(new FusedInstruction(vtlInstruction, List.of(vtlInstruction)));
+				previous = current;
+			}
+		}
+		return fusedInstructions;
+	}
+
+	/** Return the instruction equivalent to the two given instructions, null if they can't be fused. */
+	static ClauseInstruction fuse(ClauseInstruction first, ClauseInstruction second) {
+		if (!first.clause().equals(second.clause())
+				|| !second.input().equals(first.output()) || !second.output().equals(first.output())) {
+			return null;
+		}
+		List<String> items = switch (first.clause()) {
+			case "rename" -> fuseRenames(first.items(), second.items());
+			case "calc" -> fuseCalcs(first.items(), second.items());
+			case "keep" -> first.items().containsAll(second.items()) ? second.items() : null;
+			case "drop" -> Collections.disjoint(first.items(), second.items()) ? concat(first.items(), second.items()) : null;
+			case "filter" -> List.of(String.format("(%s) and (%s)", first.items().get(0), second.items().get(0)));
+			default -> null;
+		};
+		return items != null ? new ClauseInstruction(first.output(), first.input(), first.clause(), items) : null;
+	}
+
+	private static List<String> fuseRenames(List<String> firstItems, List<String> secondItems) {
+		Set<String> names = new HashSet<>();
+		for (String item : concat(firstItems, secondItems)) {
+			Matcher matcher = RENAME_ITEM_PATTERN.matcher(item);
+			if (!matcher.matches() || !names.add(matcher.group(1)) || !names.add(matcher.group(2))) {
+				return null;
+			}
+		}
+		return concat(firstItems, secondItems);
+	}
+
+	private static List<String> fuseCalcs(List<String> firstItems, List<String> secondItems) {
+		Set<String> firstNames = calculatedNames(firstItems);
+		Set<String> secondNames = calculatedNames(secondItems);
+		if (firstNames == null || secondNames == null || !Collections.disjoint(firstNames, secondNames)) {
+			return null;
+		}
+		for (String item : secondItems) {
+			Matcher matcher = CALC_ITEM_PATTERN.matcher(item);
+			if (matcher.matches() && !Collections.disjoint(firstNames, ClauseInstruction.referencedNames(matcher.group(2)))) {
+				return null;
+			}
+		}
+		return concat(firstItems, secondItems);
+	}
+
+	/** Return the names of the variables calculated by the given calc items, null if an item can't be parsed. */
+	static Set<String> calculatedNames(List<String> calcItems) {
+		Set<String> names = new HashSet<>();
+		for (String item : calcItems) {
+			Matcher matcher = CALC_ITEM_PATTERN.matcher(item);
+			if (!matcher.matches() || !names.add(matcher.group(1))) {
+				return null;
+			}
+		}
+		return names;
+	}
+
+	private static List<String> concat(List<String> firstItems, List<String> secondItems) {
+		List<String> items = new ArrayList<>(firstItems);
+		items.addAll(secondItems);
+		return items;
+	}
+
+}
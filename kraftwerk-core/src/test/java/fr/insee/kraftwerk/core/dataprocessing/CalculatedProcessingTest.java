@@ -5,20 +5,27 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import fr.insee.kraftwerk.core.KraftwerkError;
 import fr.insee.kraftwerk.core.metadata.CalculatedVariables;
 import fr.insee.kraftwerk.core.metadata.CalculatedVariables.CalculatedVariable;
+import fr.insee.kraftwerk.core.metadata.ErrorCalculatedCycle;
 import fr.insee.kraftwerk.core.metadata.Variable;
 import fr.insee.kraftwerk.core.metadata.VariableType;
 import fr.insee.kraftwerk.core.metadata.VariablesMap;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.kraftwerk.core.vtl.VtlScript;
+import fr.insee.kraftwerk.core.vtl.VtlScriptOptimizer;
 import fr.insee.vtl.model.Dataset;
 import fr.insee.vtl.model.Dataset.Role;
 import fr.insee.vtl.model.InMemoryDataset;
@@ -98,4 +105,78 @@ class CalculatedProcessingTest {
         assertEquals(2L, outDataset.getDataPoints().get(0).get("FOO1"));
     }
 
+    @Test
+    void testIfSameLevelCalculatedAreFused() {
+        //
+        CalculatedVariables calculatedVariables = new CalculatedVariables();
+        calculatedVariables.putVariable(new CalculatedVariable("BAR1", "BAR2 + FOO", List.of("BAR2", "FOO")));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR2", "1"));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR3", "FOO", List.of("FOO")));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR4", "BAR1 + BAR2", List.of("BAR1", "BAR2")));
+        //
+        CalculatedProcessing processing = new CalculatedProcessing(vtlBindings, calculatedVariables);
+        VtlScript vtlScript = VtlScriptOptimizer.optimize(processing.generateVtlInstructions("TEST"));
+
+        //
+        assertEquals(new VtlScript(
+                "TEST := TEST [calc BAR2 := 1, BAR3 := FOO];",
+                "TEST := TEST [calc BAR1 := BAR2 + FOO];",
+                "TEST := TEST [calc BAR4 := BAR1 + BAR2];"), vtlScript);
+    }
+
+    @Test
+    void testIfCycleIsReported() {
+        //
+        CalculatedVariables calculatedVariables = new CalculatedVariables();
+        calculatedVariables.putVariable(new CalculatedVariable("BAR1", "BAR2 + 1", List.of("BAR2")));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR2", "BAR1 + 1", List.of("BAR1")));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR3", "BAR1", List.of("BAR1")));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR4", "1"));
+        Dataset fooDataset = new InMemoryDataset(
+                List.of(List.of("A")),
+                List.of(new Structured.Component("ID", String.class, Role.IDENTIFIER)));
+        VtlBindings vtlBindings = new VtlBindings();
+        vtlBindings.put("TEST", fooDataset);
+        List<KraftwerkError> cycleErrors = new ArrayList<>();
+        //
+        CalculatedProcessing processing = new CalculatedProcessing(vtlBindings, calculatedVariables);
+        processing.applyAutomatedVtlInstructions("TEST", cycleErrors);
+
+        //
+        assertEquals(1, cycleErrors.size());
+        assertEquals(new ErrorCalculatedCycle(Set.of("BAR1", "BAR2", "BAR3"), "TEST"), cycleErrors.get(0));
+        assertTrue(vtlBindings.getDataset("TEST").getDataStructure().containsKey("BAR4"));
+        assertFalse(vtlBindings.getDataset("TEST").getDataStructure().containsKey("BAR1"));
+    }
+
+    @Test
+    void testIfDependantCalculatedAreProcessedAfterUserScript(@TempDir Path tempDir) throws IOException {
+        //
+        CalculatedVariables calculatedVariables = new CalculatedVariables();
+        calculatedVariables.putVariable(new CalculatedVariable("BAR1", "FOO || \"1\"", List.of("FOO")));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR2", "BAR1 || \"2\"", List.of("BAR1")));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR3", "\"3\""));
+        calculatedVariables.putVariable(new CalculatedVariable("BAR4", "\"4\""));
+        Dataset fooDataset = new InMemoryDataset(
+                List.of(List.of("A", "X")),
+                List.of(
+                        new Structured.Component("ID", String.class, Role.IDENTIFIER),
+                        new Structured.Component("FOO", String.class, Role.MEASURE)));
+        VtlBindings vtlBindings = new VtlBindings();
+        vtlBindings.put("TEST", fooDataset);
+        Path userVtlPath = tempDir.resolve("calculated.vtl");
+        Files.writeString(userVtlPath, "TEST := TEST [calc FOO := \"Y\", BAR3 := \"user\"];");
+        //
+        CalculatedProcessing processing = new CalculatedProcessing(vtlBindings, calculatedVariables);
+        processing.applyCalculatedVtlTransformations("TEST", userVtlPath, errors);
+
+        //
+        Structured.DataPoint dataPoint = vtlBindings.getDataset("TEST").getDataPoints().get(0);
+        assertEquals("Y", dataPoint.get("FOO"));
+        assertEquals("Y1", dataPoint.get("BAR1"));
+        assertEquals("Y12", dataPoint.get("BAR2"));
+        assertEquals("3", dataPoint.get("BAR3"));
+        assertEquals("4", dataPoint.get("BAR4"));
+    }
+
 }
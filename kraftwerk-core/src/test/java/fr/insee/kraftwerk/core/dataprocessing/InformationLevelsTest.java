@@ -1,9 +1,11 @@
 package fr.insee.kraftwerk.core.dataprocessing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -12,10 +14,14 @@ import org.junit.jupiter.api.Test;
 
 import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.KraftwerkError;
+import fr.insee.kraftwerk.core.vtl.ColumnarDataset;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
+import fr.insee.kraftwerk.core.vtl.VtlExecute;
+import fr.insee.kraftwerk.core.vtl.VtlScript;
 import fr.insee.vtl.model.Dataset;
 import fr.insee.vtl.model.Dataset.Role;
 import fr.insee.vtl.model.InMemoryDataset;
+import fr.insee.vtl.model.Structured;
 
 class InformationLevelsTest {
 	
@@ -45,6 +51,57 @@ class InformationLevelsTest {
 					"FOO", Role.MEASURE, "LOOP.FOO1", Role.MEASURE)
 	);
 
+	Dataset testDatasetWithModesAndDuplicates = new InMemoryDataset(
+			List.of(
+					Arrays.asList("T01", "CAPI", "LOOP-01", "foo1", 1L, "foo11", true),
+					Arrays.asList("T01", "CAPI", "LOOP-02", "foo1", 1L, "foo12", null),
+					Arrays.asList("T01", "CAPI", "LOOP-02", "foo1", 1L, "foo12bis", false),
+					Arrays.asList("T01", "CAWI", "LOOP-01", "bar1", null, "bar11", false),
+					Arrays.asList("T02", "CAWI", "", "foo2", 2L, null, null),
+					Arrays.asList("T03", "CAWI", null, null, null, null, null)
+			),
+			List.of(
+					new Structured.Component(rootId, String.class, Role.IDENTIFIER),
+					new Structured.Component(Constants.MODE_VARIABLE_NAME, String.class, Role.IDENTIFIER),
+					new Structured.Component("LOOP", String.class, Role.IDENTIFIER),
+					new Structured.Component("FOO", String.class, Role.MEASURE),
+					new Structured.Component("AGE", Long.class, Role.MEASURE),
+					new Structured.Component("LOOP.FOO1", String.class, Role.MEASURE),
+					new Structured.Component("LOOP.BOO", Boolean.class, Role.MEASURE)
+			)
+	);
+
+	/** The datasets created without the VTL engine must be the same as with the VTL instructions. */
+	@Test
+	void informationLevelsSplit_sameAsVtl() {
+		ColumnarDataset.Builder builder = ColumnarDataset.builder(
+				new ArrayList<>(testDatasetWithModesAndDuplicates.getDataStructure().values()));
+		testDatasetWithModesAndDuplicates.getDataAsList().forEach(row -> builder.addRow(row.toArray()));
+		for (Dataset multimodeDataset : List.of(testDataset, testDatasetWithPartialIdNull, testDatasetWithModesAndDuplicates,
+				builder.build())) {
+			VtlBindings vtlBindings = new VtlBindings();
+			vtlBindings.put("MULTIMODE", multimodeDataset);
+			VtlBindings splitBindings = new VtlBindings();
+			splitBindings.put("MULTIMODE", multimodeDataset);
+			//
+			InformationLevelsProcessing processing = new InformationLevelsProcessing(vtlBindings);
+			VtlScript vtlScript = processing.generateVtlInstructions("MULTIMODE");
+			for (String datasetName : List.of(Constants.ROOT_GROUP_NAME, "LOOP")) {
+				vtlScript.add(String.format("%1$s := union(%1$s, %1$s);", datasetName));
+			}
+			new VtlExecute().evalVtlScript(vtlScript, vtlBindings, new ArrayList<>());
+			new InformationLevelsProcessing(splitBindings).applyAutomatedVtlInstructions("MULTIMODE", new ArrayList<>());
+			//
+			for (String datasetName : List.of(Constants.ROOT_GROUP_NAME, "LOOP")) {
+				Dataset vtlDataset = vtlBindings.getDataset(datasetName);
+				Dataset splitDataset = splitBindings.getDataset(datasetName);
+				assertInstanceOf(ColumnarDataset.class, splitDataset);
+				assertEquals(vtlDataset.getDataStructure(), splitDataset.getDataStructure());
+				assertEquals(vtlDataset.getDataAsList(), splitDataset.getDataAsList());
+			}
+		}
+	}
+
 	@Test
 	void applyInformationLevelsProcessing() {
 		List<KraftwerkError> errors = new ArrayList<>();
@@ -1,9 +1,11 @@
 package fr.insee.kraftwerk.core.dataprocessing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -15,10 +17,12 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.KraftwerkError;
+import fr.insee.kraftwerk.core.vtl.ColumnarDataset;
 import fr.insee.kraftwerk.core.vtl.VtlBindings;
 import fr.insee.vtl.model.Dataset;
 import fr.insee.vtl.model.Dataset.Role;
 import fr.insee.vtl.model.InMemoryDataset;
+import fr.insee.vtl.model.Structured;
 
 public class ReconciliationTest {
 
@@ -69,6 +73,37 @@ public class ReconciliationTest {
 
 	Map<String, Dataset> testDatasets = Map.of("CAPI", capiDataset, "CAWI", cawiDataset, "PAPI", papiDataset);
 
+	InMemoryDataset typedCapiDataset = new InMemoryDataset(
+			List.of(
+					Arrays.asList("T01", "LOOP-01", 7L, "foo", 4L, "capi1"),
+					Arrays.asList("T02", "LOOP-01", 8L, null, null, "capi2")
+			),
+			List.of(
+					new Structured.Component("ID", String.class, Role.IDENTIFIER),
+					new Structured.Component("LOOP", String.class, Role.IDENTIFIER),
+					new Structured.Component("AGE", Long.class, Role.MEASURE),
+					new Structured.Component("FOO", String.class, Role.MEASURE),
+					new Structured.Component("INCOME", Long.class, Role.MEASURE),
+					new Structured.Component("CAPI_SPECIFIC", String.class, Role.MEASURE)
+			)
+	);
+
+	InMemoryDataset typedCawiDataset = new InMemoryDataset(
+			List.of(
+					Arrays.asList("T02", "LOOP-01", "bar", 3L, 1.5, true),
+					Arrays.asList("T02", "LOOP-02", "bar", null, null, false),
+					Arrays.asList("T03", "LOOP-01", null, 5L, 2d, null)
+			),
+			List.of(
+					new Structured.Component("ID", String.class, Role.IDENTIFIER),
+					new Structured.Component("LOOP", String.class, Role.IDENTIFIER),
+					new Structured.Component("FOO", String.class, Role.MEASURE),
+					new Structured.Component("AGE", Long.class, Role.MEASURE),
+					new Structured.Component("INCOME", Double.class, Role.MEASURE),
+					new Structured.Component("CAWI_SPECIFIC", Boolean.class, Role.MEASURE)
+			)
+	);
+
 	@BeforeEach
 	public void initVtlBindings() {
 		vtlBindings = new VtlBindings();
@@ -131,6 +166,40 @@ public class ReconciliationTest {
 				multimodeDataset.getDataStructure().keySet());
 	}
 
+	/** The native reconciliation must give the same multimode dataset as the VTL instructions. */
+	@ParameterizedTest
+	@ValueSource(strings = {"CAPI,CAWI", "CAWI,CAPI", "CAPI,PAPI", "CAWI,PAPI", "CAPI,CAWI,PAPI", "TYPED_CAPI,TYPED_CAWI"})
+	public void nativeReconciliation_sameAsVtl(String modes) {
+		Map<String, Dataset> datasets = Map.of("CAPI", capiDataset, "CAWI", cawiDataset, "PAPI", papiDataset,
+				"TYPED_CAPI", typedCapiDataset, "TYPED_CAWI", typedCawiDataset);
+		VtlBindings nativeBindings = new VtlBindings();
+		for (String mode : modes.split(",")) {
+			vtlBindings.put(mode, datasets.get(mode));
+			nativeBindings.put(mode, datasets.get(mode));
+		}
+		//
+		new ReconciliationProcessing(vtlBindings).applyVtlTransformations("MULTIMODE", null, errors);
+		new ReconciliationProcessing(nativeBindings, true).applyVtlTransformations("MULTIMODE", null, errors);
+		//
+		Dataset vtlDataset = vtlBindings.getDataset("MULTIMODE");
+		Dataset nativeDataset = nativeBindings.getDataset("MULTIMODE");
+		assertEquals(vtlDataset.getDataStructure(), nativeDataset.getDataStructure());
+		assertEquals(vtlDataset.getDataAsList(), nativeDataset.getDataAsList());
+	}
+
+	@Test
+	public void nativeReconciliation_fallbackToVtl() {
+		vtlBindings.put("TYPED_CAPI", typedCapiDataset);
+		vtlBindings.put("TYPED_CAWI", typedCawiDataset);
+		new ReconciliationProcessing(vtlBindings, true).applyVtlTransformations("MULTIMODE", null, errors);
+		assertInstanceOf(ColumnarDataset.class, vtlBindings.getDataset("MULTIMODE"));
+		// FOO is specific to CAPI and CAWI: the VTL instructions are used
+		initVtlBindings();
+		testDatasets.forEach(vtlBindings::put);
+		new ReconciliationProcessing(vtlBindings, true).applyVtlTransformations("MULTIMODE", null, errors);
+		assertInstanceOf(InMemoryDataset.class, vtlBindings.getDataset("MULTIMODE"));
+	}
+
 	@Test
 	public void applyReconciliation_threeModes() {
 		vtlBindings.put("CAPI", cawiDataset);
@@ -2,12 +2,19 @@ package fr.insee.kraftwerk.core.metadata;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import fr.insee.kraftwerk.core.TestConstants;
 
@@ -66,4 +73,48 @@ class LunaticReaderTest {
         assertEquals(683, variables.getVariables().size());
        
     }
+
+    @Test
+    void questionnaireParsedOnce(@TempDir Path tempDir) throws IOException {
+        Path lunaticFile = tempDir.resolve("questionnaire.json");
+        Files.copy(lunaticSamplesPath.resolve("log2021x21_tel.json"), lunaticFile);
+        //
+        LunaticQuestionnaire questionnaire = LunaticReader.getQuestionnaire(lunaticFile);
+        //
+        assertSame(questionnaire, LunaticReader.getQuestionnaire(lunaticFile));
+        assertEquals(questionnaire.getQuestionnaireModelId(), LunaticReader.getQuestionnaireModelId(lunaticFile));
+        assertTrue(LunaticReader.getCalculatedFromLunatic(lunaticFile).containsKey("AGE"));
+        // A modified file is parsed again
+        Files.setLastModifiedTime(lunaticFile, FileTime.fromMillis(0));
+        assertNotSame(questionnaire, LunaticReader.getQuestionnaire(lunaticFile));
+    }
+
+    @Test
+    void questionnaireViewsAreNotShared() {
+        Path lunaticFile = lunaticSamplesPath.resolve("log2021x21_web.json");
+        //
+        VariablesMap variables = LunaticReader.getVariablesFromLunatic(lunaticFile);
+        variables.removeVariable(variables.getVariableNames().iterator().next());
+        //
+        assertEquals(683, LunaticReader.getVariablesFromLunatic(lunaticFile).getVariables().size());
+        //
+        LunaticReader.getCalculatedFromLunatic(lunaticFile).getDependantVariables("AGE").clear();
+        assertEquals(3, LunaticReader.getCalculatedFromLunatic(lunaticFile).getDependantVariables("AGE").size());
+    }
+
+    @Test
+    void questionnaireViewReadIndependently(@TempDir Path tempDir) throws IOException {
+        Path lunaticFile = tempDir.resolve("questionnaire.json");
+        Files.writeString(lunaticFile, """
+                {"id": "model", "variables": [{"name": "NAME", "variableType": "COLLECTED"}], "components": []}
+                """);
+        //
+        LunaticQuestionnaire questionnaire = LunaticReader.getQuestionnaire(lunaticFile);
+        //
+        assertEquals("model", questionnaire.getQuestionnaireModelId());
+        assertEquals(List.of("NAME"), questionnaire.getVariableNames());
+        assertTrue(questionnaire.getVariablesMap().hasVariable("NAME"));
+        // No lunaticModelVersion: the calculated variables can't be read
+        assertThrows(NullPointerException.class, questionnaire::getCalculatedVariables);
+    }
 }
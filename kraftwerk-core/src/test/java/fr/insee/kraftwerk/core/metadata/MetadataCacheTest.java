@@ -0,0 +1,196 @@
+package fr.insee.kraftwerk.core.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.exceptions.KraftwerkException;
+
+class MetadataCacheTest {
+
+	private final AtomicInteger readsCount = new AtomicInteger();
+
+	@AfterEach
+	void resetCacheFolder() {
+		Constants.setMetadataCacheFolder(null);
+	}
+
+	private VariablesMap read(URL ddiUrl) {
+		readsCount.incrementAndGet();
+		try {
+			return DDIReader.getVariablesFromDDI(ddiUrl);
+		} catch (KraftwerkException e) {
+			return null;
+		}
+	}
+
+	private static URL simpsonsUrl() throws MalformedURLException {
+		return Constants.convertToUrl(DDIReaderTest.DDI_FOLDER + "/" + DDIReaderTest.DDI_SIMPSONS_V1);
+	}
+
+	@Test
+	void getVariablesMap_readOnce() throws MalformedURLException {
+		MetadataCache metadataCache = new MetadataCache();
+		URL ddiUrl = simpsonsUrl();
+		//
+		VariablesMap first = metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		first.removeVariable("SUM_EXPENSES");
+		VariablesMap second = metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		//
+		assertEquals(1, readsCount.get());
+		assertNotSame(first, second);
+		assertTrue(second.hasVariable("SUM_EXPENSES"));
+		assertEquals(first.getGroupNames(), second.getGroupNames());
+		// Groups of the variables are the groups of the map
+		assertSame(second.getGroup("FAVOURITE_CHARACTERS"), second.getVariable("FAVOURITE_CHARACTERS11").getGroup());
+	}
+
+	@Test
+	void getVariablesMap_otherKind() throws MalformedURLException {
+		MetadataCache metadataCache = new MetadataCache();
+		URL ddiUrl = simpsonsUrl();
+		//
+		metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		metadataCache.getVariablesMap("OTHER", ddiUrl, null, () -> read(ddiUrl));
+		//
+		assertEquals(2, readsCount.get());
+	}
+
+	@Test
+	void getVariablesMap_failedReadNotCached() throws MalformedURLException {
+		MetadataCache metadataCache = new MetadataCache();
+		URL ddiUrl = simpsonsUrl();
+		//
+		assertNull(metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> null));
+		metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		//
+		assertEquals(1, readsCount.get());
+	}
+
+	@Test
+	void getVariablesMap_diskCache(@TempDir Path cacheFolder) throws IOException {
+		Constants.setMetadataCacheFolder(cacheFolder);
+		URL ddiUrl = simpsonsUrl();
+		//
+		new MetadataCache().getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		VariablesMap variablesMap = new MetadataCache().getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		//
+		assertEquals(1, readsCount.get());
+		assertTrue(variablesMap.hasVariable("SUM_EXPENSES"));
+		try (var cacheFiles = Files.list(cacheFolder)) {
+			assertEquals(1, cacheFiles.count());
+		}
+		assertFalse(new MetadataCache().getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl)).getVariableNames().isEmpty());
+	}
+
+	/** Variable class that is not expected in a cache file. */
+	static class UnexpectedVariable extends Variable {
+		private static final long serialVersionUID = 1L;
+
+		UnexpectedVariable(Group group) {
+			super("UNEXPECTED", group, VariableType.STRING);
+		}
+	}
+
+	@Test
+	void getVariablesMap_diskCacheUnexpectedClass(@TempDir Path cacheFolder) throws IOException {
+		Constants.setMetadataCacheFolder(cacheFolder);
+		URL ddiUrl = simpsonsUrl();
+		new MetadataCache().getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		Path cacheFile;
+		try (var cacheFiles = Files.list(cacheFolder)) {
+			cacheFile = cacheFiles.findFirst().orElseThrow();
+		}
+		VariablesMap unexpected = new VariablesMap();
+		unexpected.putVariable(new UnexpectedVariable(unexpected.getRootGroup()));
+		try (ObjectOutputStream outputStream = new ObjectOutputStream(Files.newOutputStream(cacheFile))) {
+			outputStream.writeObject(unexpected);
+		}
+		//
+		VariablesMap variablesMap = new MetadataCache().getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+		//
+		assertEquals(2, readsCount.get());
+		assertFalse(variablesMap.hasVariable("UNEXPECTED"));
+	}
+
+	/** Serve the Simpsons DDI, with an ETag if given, and count the GET requests. */
+	private static HttpServer ddiServer(String eTag, AtomicInteger getsCount) throws IOException {
+		byte[] ddi = Files.readAllBytes(Path.of(DDIReaderTest.DDI_FOLDER, DDIReaderTest.DDI_SIMPSONS_V1));
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/ddi.xml", exchange -> {
+			if (eTag != null) {
+				exchange.getResponseHeaders().add("ETag", eTag);
+			}
+			if ("HEAD".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(200, -1);
+			} else {
+				getsCount.incrementAndGet();
+				exchange.sendResponseHeaders(200, ddi.length);
+				try (OutputStream outputStream = exchange.getResponseBody()) {
+					outputStream.write(ddi);
+				}
+			}
+			exchange.close();
+		});
+		server.start();
+		return server;
+	}
+
+	@Test
+	void getVariablesMap_remoteDdiDownloadedOnce() throws IOException {
+		AtomicInteger getsCount = new AtomicInteger();
+		HttpServer server = ddiServer("\"v1\"", getsCount);
+		try {
+			MetadataCache metadataCache = new MetadataCache();
+			URL ddiUrl = new URL("http://localhost:" + server.getAddress().getPort() + "/ddi.xml");
+			//
+			metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+			VariablesMap variablesMap = metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+			//
+			assertEquals(1, readsCount.get());
+			assertEquals(1, getsCount.get());
+			assertTrue(variablesMap.hasVariable("SUM_EXPENSES"));
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void getVariablesMap_remoteDdiWithoutValidator() throws IOException {
+		AtomicInteger getsCount = new AtomicInteger();
+		HttpServer server = ddiServer(null, getsCount);
+		try {
+			MetadataCache metadataCache = new MetadataCache();
+			URL ddiUrl = new URL("http://localhost:" + server.getAddress().getPort() + "/ddi.xml");
+			//
+			metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+			metadataCache.getVariablesMap("DDI", ddiUrl, null, () -> read(ddiUrl));
+			//
+			assertEquals(2, readsCount.get());
+			assertEquals(2, getsCount.get());
+		} finally {
+			server.stop(0);
+		}
+	}
+
+}
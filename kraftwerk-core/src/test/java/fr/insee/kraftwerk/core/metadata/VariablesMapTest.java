@@ -145,6 +145,62 @@ public class VariablesMapTest {
         assertNull(variablesMap.getMcqGroup("UNKNOWN_QUESTION"));
     }
     
+    @Test
+    void testLookupsAfterModifications() {
+        // Lookups before the modifications
+        assertTrue(variablesMap.getGroupVariableNames("CARS_LOOP").contains("CAR_COLOR"));
+        assertEquals("INDIVIDUALS_LOOP.CARS_LOOP.CAR_COLOR", variablesMap.getFullyQualifiedName("CAR_COLOR"));
+        assertFalse(variablesMap.hasMcq("RELATIONSHIP"));
+        assertTrue(variablesMap.getPaperUcq().isEmpty());
+        //
+        Group individualsGroup = variablesMap.getGroup("INDIVIDUALS_LOOP");
+        variablesMap.putVariable(McqVariable.builder()
+                .name("RELATIONSHIP_A").group(individualsGroup).questionItemName("RELATIONSHIP").text("Spouse").build());
+        UcqVariable gender = new UcqVariable("GENDER", individualsGroup, VariableType.STRING);
+        gender.addModality("1", "Male");
+        variablesMap.putVariable(new PaperUcq("GENDER_1", gender, "1"));
+        variablesMap.removeVariable("CAR_COLOR");
+        Group bikesGroup = new Group("BIKES_LOOP", "INDIVIDUALS_LOOP");
+        variablesMap.putGroup(bikesGroup);
+        variablesMap.putVariable(new Variable("CAR_COLOR", bikesGroup, VariableType.STRING));
+        //
+        assertFalse(variablesMap.getGroupVariableNames("CARS_LOOP").contains("CAR_COLOR"));
+        assertEquals(List.of("CAR_COLOR"), variablesMap.getGroupVariableNamesAsList("BIKES_LOOP"));
+        assertEquals("INDIVIDUALS_LOOP.BIKES_LOOP.CAR_COLOR", variablesMap.getFullyQualifiedName("CAR_COLOR"));
+        assertTrue(variablesMap.hasMcq("RELATIONSHIP"));
+        assertTrue(variablesMap.hasMcq("relationship"));
+        assertFalse(variablesMap.hasMcq(null));
+        assertSame(individualsGroup, variablesMap.getMcqGroup("RELATIONSHIP"));
+        assertEquals(List.of("GENDER_1"), variablesMap.getPaperUcq().stream().map(Variable::getName).toList());
+        assertTrue(variablesMap.getGroupVariableNamesAsList("UNKNOWN_LOOP").isEmpty());
+    }
+
+    @Test
+    void testOverlay() {
+        variablesMap.updateMaxLengthData("ADDRESS", 12);
+        VariablesMap overlay = variablesMap.overlay();
+        //
+        overlay.putVariable(new Variable("REGION", overlay.getRootGroup(), VariableType.STRING));
+        overlay.removeVariable("CAR_COLOR");
+        overlay.putGroup(new Group("BIKES_LOOP", "INDIVIDUALS_LOOP"));
+        overlay.updateMaxLengthData("ADDRESS", 30);
+        overlay.updateMaxLengthData("FIRST_NAME", 5);
+        // Overlay
+        assertTrue(overlay.hasVariable("REGION"));
+        assertFalse(overlay.hasVariable("CAR_COLOR"));
+        assertTrue(overlay.hasGroup("BIKES_LOOP"));
+        assertEquals(30, overlay.getMaxLengthData("ADDRESS"));
+        assertEquals(5, overlay.getMaxLengthData("FIRST_NAME"));
+        assertSame(variablesMap.getVariable("ADDRESS"), overlay.getVariable("ADDRESS"));
+        assertEquals("INDIVIDUALS_LOOP.FIRST_NAME", overlay.getFullyQualifiedName("FIRST_NAME"));
+        // Base map
+        assertFalse(variablesMap.hasVariable("REGION"));
+        assertTrue(variablesMap.hasVariable("CAR_COLOR"));
+        assertFalse(variablesMap.hasGroup("BIKES_LOOP"));
+        assertEquals(12, variablesMap.getMaxLengthData("ADDRESS"));
+        assertEquals(0, variablesMap.getMaxLengthData("FIRST_NAME"));
+    }
+
     @Test
     void testGetVariablesNames() {
     	variablesMap = createCompleteFakeVariablesMap();
@@ -1,5 +1,6 @@
 package fr.insee.kraftwerk.core.outputs;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -8,6 +9,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +27,7 @@ import fr.insee.kraftwerk.core.metadata.VariableType;
 import fr.insee.kraftwerk.core.metadata.VariablesMap;
 import fr.insee.kraftwerk.core.utils.CsvUtils;
 import fr.insee.kraftwerk.core.utils.FileUtils;
+import fr.insee.kraftwerk.core.vtl.ColumnarDataset;
 import fr.insee.vtl.model.Dataset;
 import fr.insee.vtl.model.Dataset.Role;
 import fr.insee.vtl.model.InMemoryDataset;
@@ -95,6 +99,40 @@ class CsvTableWriterTest {
 
 	}
 
+	@Test
+	void writeCsvFromColumnarDatasetTest() throws IOException, CsvException {
+		Path columnarFilePath = Paths.get(TestConstants.UNIT_TESTS_DUMP, "test_columnar.csv");
+		Files.deleteIfExists(outTestFilePath);
+		Files.deleteIfExists(columnarFilePath);
+		FileUtils.createDirectoryIfNotExist(outTestFilePath.getParent());
+		//
+		List<Structured.Component> components = List.of(
+				new Structured.Component("ID", String.class, Role.IDENTIFIER),
+				new Structured.Component("FOO_STR", String.class, Role.MEASURE),
+				new Structured.Component("FOO_NUM", Double.class, Role.MEASURE),
+				new Structured.Component("FOO_BOO", Boolean.class, Role.MEASURE));
+		List<Object[]> values = List.of(
+				new Object[] {"T01", "foo\nbar", 1.5, true},
+				new Object[] {"T02", null, null, false},
+				new Object[] {"T03", "foo", 3d, null});
+		ColumnarDataset.Builder builder = ColumnarDataset.builder(components);
+		List<List<Object>> dataPoints = new ArrayList<>();
+		for (Object[] rowValues : values) {
+			builder.addRow(rowValues);
+			dataPoints.add(Arrays.asList(rowValues));
+		}
+		//
+		CsvTableWriter.writeCsvTable(new InMemoryDataset(dataPoints, components), outTestFilePath, new HashMap<>(), "RACINE");
+		CsvTableWriter.writeCsvTable(builder.build(), columnarFilePath, new HashMap<>(), "RACINE");
+		//
+		List<String[]> rows = CsvUtils.getReader(outTestFilePath).readAll();
+		List<String[]> columnarRows = CsvUtils.getReader(columnarFilePath).readAll();
+		assertEquals(4, columnarRows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			assertArrayEquals(rows.get(i), columnarRows.get(i));
+		}
+	}
+
 	@Test
 	void getDataPointValueTest() {
 		/*
@@ -0,0 +1,127 @@
+package fr.insee.kraftwerk.core.parsers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.kraftwerk.core.TestConstants;
+import fr.insee.kraftwerk.core.exceptions.NullException;
+import fr.insee.kraftwerk.core.metadata.Variable;
+import fr.insee.kraftwerk.core.metadata.VariableType;
+import fr.insee.kraftwerk.core.metadata.VariablesMap;
+import fr.insee.kraftwerk.core.metadata.VariablesMapTest;
+import fr.insee.kraftwerk.core.rawdata.GroupData;
+import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
+import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+
+class LunaticJsonDataParserTest {
+
+	private final String dataSamplesFolder = TestConstants.UNIT_TESTS_DIRECTORY + "/data/lunatic_json";
+
+	private SurveyRawData createSurveyRawData() {
+		SurveyRawData data = new SurveyRawData("TEST");
+		VariablesMap variablesMap = VariablesMapTest.createVariablesMap_oneLevel();
+		variablesMap.putVariable(new Variable("REGION", variablesMap.getRootGroup(), VariableType.STRING));
+		variablesMap.putVariable(new Variable("HOUSEHOLD_SIZE", variablesMap.getRootGroup(), VariableType.INTEGER));
+		variablesMap.putVariable(new Variable("FULL_NAME", variablesMap.getGroup("INDIVIDUALS_LOOP"), VariableType.STRING));
+		data.setVariablesMap(variablesMap);
+		return data;
+	}
+
+	@Test
+	void parseLunaticJson_fileNotFound() {
+		SurveyRawData data = createSurveyRawData();
+		LunaticJsonDataParser parser = new LunaticJsonDataParser(data);
+		Path dataPath = Path.of("notfound.json");
+
+		assertThrows(NullException.class, () -> parser.parseDataFile(dataPath));
+	}
+
+	@Test
+	void parseLunaticJson_folderSameResultWithThreads(@TempDir Path dataFolder) throws IOException, NullException {
+		//
+		Files.writeString(dataFolder.resolve("b.json"), "{\"id\": \"B\", \"data\": {}}");
+		Files.writeString(dataFolder.resolve("a.json"), "{\"id\": \"A\", \"data\": {}}");
+		Files.writeString(dataFolder.resolve("c.json"), "{\"id\": ");
+		Files.writeString(dataFolder.resolve("d.json"), "{\"id\": \"D\", \"data\": {}}");
+
+		//
+		for (int threads : new int[] { 1, 3 }) {
+			SurveyRawData data = createSurveyRawData();
+			LunaticJsonDataParser parser = new LunaticJsonDataParser(data);
+			parser.setParsingThreads(threads);
+			parser.parseSurveyData(dataFolder);
+			// Files in name order, the malformed file is skipped
+			assertEquals(List.of("A", "B", "D"), data.getIdSurveyUnits());
+		}
+	}
+
+	@Test
+	void parseLunaticJson_singleSurveyUnit() throws NullException {
+		//
+		SurveyRawData data = createSurveyRawData();
+		LunaticJsonDataParser parser = new LunaticJsonDataParser(data);
+		parser.parseSurveyData(Paths.get(dataSamplesFolder + "/fake-lunatic-data-single.json"));
+
+		//
+		assertEquals(1, data.getQuestionnairesCount());
+		QuestionnaireData questionnaire = data.getQuestionnaires().get(0);
+		assertEquals("T0000001", questionnaire.getIdentifier());
+		assertEquals("742 Evergreen Terrace", questionnaire.getValue("ADDRESS"));
+		assertEquals("20000", questionnaire.getValue("HOUSEHOLD_INCOME"));
+		assertNull(questionnaire.getValue("UNKNOWN_VARIABLE"));
+		assertFalse(data.getVariablesMap().hasVariable("UNKNOWN_VARIABLE"));
+	}
+
+	@Test
+	void parseLunaticJson_array() throws NullException {
+		//
+		SurveyRawData data = createSurveyRawData();
+		LunaticJsonDataParser parser = new LunaticJsonDataParser(data);
+		parser.parseSurveyData(Paths.get(dataSamplesFolder + "/fake-lunatic-data-array.json"));
+
+		//
+		assertEquals(List.of("T0000001", "T0000002"), data.getIdSurveyUnits());
+		//
+		QuestionnaireData q1 = data.getQuestionnaires().get(0);
+		assertEquals("742 Evergreen Terrace", q1.getValue("ADDRESS"));
+		assertEquals("Springfield", q1.getValue("REGION"));
+		assertEquals("3", q1.getValue("HOUSEHOLD_SIZE"));
+		assertEquals(21, data.getVariablesMap().getMaxLengthData("ADDRESS"));
+		GroupData individuals = q1.getAnswers().getSubGroup("INDIVIDUALS_LOOP");
+		assertEquals("Homer", individuals.getValue("FIRST_NAME", 0));
+		assertNull(individuals.getValue("FIRST_NAME", 1));
+		assertEquals("Bart", individuals.getValue("FIRST_NAME", 2));
+		assertEquals("Simpson", individuals.getValue("LAST_NAME", 2));
+		assertEquals("Marge Simpson", individuals.getValue("FULL_NAME", 1));
+		//
+		QuestionnaireData q2 = data.getQuestionnaires().get(1);
+		assertEquals("T0000002", q2.getIdentifier());
+		assertEquals("", q2.getValue("ADDRESS"));
+	}
+
+	@Test
+	void parseLunaticJson_ndjson() throws NullException {
+		//
+		SurveyRawData data = createSurveyRawData();
+		LunaticJsonDataParser parser = new LunaticJsonDataParser(data);
+		parser.parseSurveyData(Paths.get(dataSamplesFolder + "/fake-lunatic-data-ndjson.json"));
+
+		//
+		assertEquals(List.of("T0000021", "T0000022"), data.getIdSurveyUnits());
+		assertEquals("1000 Mammon Street", data.getQuestionnaires().get(0).getValue("ADDRESS"));
+		GroupData individuals = data.getQuestionnaires().get(1).getAnswers().getSubGroup("INDIVIDUALS_LOOP");
+		assertEquals("Todd", individuals.getValue("FIRST_NAME", 2));
+	}
+
+}
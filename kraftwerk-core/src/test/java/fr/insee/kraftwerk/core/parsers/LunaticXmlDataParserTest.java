@@ -3,6 +3,7 @@ package fr.insee.kraftwerk.core.parsers;
 import static org.junit.Assert.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -58,6 +59,24 @@ class LunaticXmlDataParserTest {
 		}
 	}
 
+	@Test
+	void parseLunaticDataFolder_parallel() throws NullException {
+		//
+		SurveyRawData data = new SurveyRawData("TEST");
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("FOO", variablesMap.getRootGroup(), VariableType.STRING));
+		data.setVariablesMap(variablesMap);
+		Path dataPath = Paths.get(dataSamplesFolder + "/lunatic_xml/fake-multiple-files");
+		LunaticXmlDataParser parser = new LunaticXmlDataParser(data);
+		parser.setParsingThreads(3);
+		parser.parseSurveyData(dataPath);
+
+		// Results are merged in file names order
+		List<String> expectedIds = List.of("T0000001", "T0000021", "T0000022", "T0000003");
+		assertEquals(expectedIds, data.getIdSurveyUnits());
+		assertEquals(expectedIds, data.getQuestionnaires().stream().map(QuestionnaireData::getIdentifier).toList());
+	}
+
 	@Test
 	void parseLunaticXml_rootOnly() throws NullException {
 		//
@@ -107,6 +126,73 @@ class LunaticXmlDataParserTest {
 		checkLevelOneContent(data);
 	}
 
+	@Test
+	void parseLunaticXml_oneLevel_splitFile() throws NullException {
+		//
+		SurveyRawData data = new SurveyRawData("TEST");
+		data.setVariablesMap(VariablesMapTest.createVariablesMap_oneLevel());
+		Path dataPath = Paths.get(dataSamplesFolder + "/lunatic_xml/fake-lunatic-data-1.xml");
+		LunaticXmlDataParser parser = new LunaticXmlDataParser(data);
+		parser.setParsingThreads(2);
+		parser.parseSurveyData(dataPath);
+
+		//
+		assertEquals(5, data.getQuestionnairesCount());
+		//
+		checkRootContent(data);
+		checkLevelOneContent(data);
+	}
+
+	@Test
+	void parseLunaticXml_splitFileInterrupted() throws NullException {
+		//
+		SurveyRawData data = new SurveyRawData("TEST");
+		data.setVariablesMap(VariablesMapTest.createVariablesMap_oneLevel());
+		Path dataPath = Paths.get(dataSamplesFolder + "/lunatic_xml/fake-lunatic-data-1.xml");
+		LunaticXmlDataParser parser = new LunaticXmlDataParser(data);
+		parser.setParsingThreads(2);
+		Thread.currentThread().interrupt();
+		parser.parseSurveyData(dataPath);
+
+		// The chunks have been read before the file is released, the interrupt status is kept
+		assertTrue(Thread.interrupted());
+	}
+
+	@Test
+	void parseLunaticXml_externalAndCalculated() throws NullException {
+		//
+		SurveyRawData data = new SurveyRawData("TEST");
+		VariablesMap variablesMap = VariablesMapTest.createVariablesMap_oneLevel();
+		variablesMap.putVariable(new Variable("FULL_NAME", variablesMap.getGroup("INDIVIDUALS_LOOP"), VariableType.STRING));
+		data.setVariablesMap(variablesMap);
+		Path dataPath = Paths.get(dataSamplesFolder + "/lunatic_xml/fake-lunatic-data-external-calculated.xml");
+		LunaticXmlDataParser parser = new LunaticXmlDataParser(data);
+		parser.parseSurveyData(dataPath);
+
+		//
+		assertEquals(2, data.getQuestionnairesCount());
+		assertEquals(List.of("T0000001", "T0000002"), data.getIdSurveyUnits());
+		//
+		QuestionnaireData q1 = data.getQuestionnaires().get(0);
+		assertEquals("742 Evergreen Terrace", q1.getValue("ADDRESS"));
+		assertEquals("Springfield", q1.getValue("REGION"));
+		assertEquals("3", q1.getValue("HOUSEHOLD_SIZE"));
+		assertNull(q1.getValue("FILTER_RESULT_ADDRESS"));
+		assertTrue(variablesMap.hasVariable("REGION"));
+		assertEquals(21, variablesMap.getMaxLengthData("ADDRESS"));
+		//
+		GroupData individuals = q1.getAnswers().getSubGroup("INDIVIDUALS_LOOP");
+		assertEquals("Homer", individuals.getValue("FIRST_NAME", 0));
+		assertNull(individuals.getValue("FIRST_NAME", 1));
+		assertEquals("Bart & co", individuals.getValue("FIRST_NAME", 2));
+		assertEquals("Simpson", individuals.getValue("LAST_NAME", 2));
+		assertNull(individuals.getValue("LAST_NAME", 1));
+		assertEquals("Marge Simpson", individuals.getValue("FULL_NAME", 1));
+		//
+		QuestionnaireData q2 = data.getQuestionnaires().get(1);
+		assertNull(q2.getValue("ADDRESS"));
+	}
+
 	public void checkLevelOneContent(SurveyRawData data) {
 		// Simpson's family
 		GroupData individuals1 = data.getQuestionnaires().get(0).getAnswers().getSubGroup("INDIVIDUALS_LOOP");
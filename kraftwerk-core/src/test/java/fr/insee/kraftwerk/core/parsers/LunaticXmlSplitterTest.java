@@ -0,0 +1,129 @@
+package fr.insee.kraftwerk.core.parsers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.insee.kraftwerk.core.TestConstants;
+import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+
+class LunaticXmlSplitterTest {
+
+	private final String dataSamplesFolder = TestConstants.UNIT_TESTS_DIRECTORY + "/data/lunatic_xml";
+
+	@Test
+	void split_chunksOfSurveyUnits() throws IOException, XMLStreamException {
+		//
+		try (LunaticXmlSplitter splitter = new LunaticXmlSplitter(Paths.get(dataSamplesFolder + "/fake-lunatic-data-1.xml"))) {
+			List<LunaticXmlSplitter.Chunk> chunks = splitter.split(3);
+
+			//
+			assertTrue(chunks.size() > 1);
+			assertEquals(5, chunks.stream().mapToInt(LunaticXmlSplitter.Chunk::getSurveyUnitsCount).sum());
+			// Each chunk is a readable document, in file order
+			assertEquals(List.of("T0000001", "T0000091", "T0000002", "T0000003", "T0000004"), readIdentifiers(splitter, chunks));
+		}
+	}
+
+	@Test
+	void split_namespacesDeclaredInChunks(@TempDir Path tempDir) throws IOException, XMLStreamException {
+		//
+		Path dataFile = tempDir.resolve("data.xml");
+		Files.writeString(dataFile, """
+				<?xml version="1.0" encoding="UTF-8"?>
+				<Campaign xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" attr="a > b">
+				<SurveyUnits xmlns:k='urn:kraftwerk'>
+				<SurveyUnit><Id>1</Id><Data><COLLECTED><NAME><COLLECTED xsi:nil="true"/></NAME></COLLECTED></Data></SurveyUnit>
+				<SurveyUnit><Id>2</Id><k:Comment>test</k:Comment></SurveyUnit>
+				</SurveyUnits></Campaign>
+				""", StandardCharsets.UTF_8);
+
+		//
+		try (LunaticXmlSplitter splitter = new LunaticXmlSplitter(dataFile)) {
+			List<LunaticXmlSplitter.Chunk> chunks = splitter.split(2);
+			assertEquals(2, chunks.size());
+			assertEquals(List.of("1", "2"), readIdentifiers(splitter, chunks));
+		}
+	}
+
+	@Test
+	void split_conflictingNamespacesNotSplit(@TempDir Path tempDir) throws IOException {
+		//
+		Path dataFile = tempDir.resolve("data.xml");
+		Files.writeString(dataFile, """
+				<?xml version="1.0" encoding="UTF-8"?>
+				<Campaign xmlns:k="urn:first"><Info xmlns:k="urn:second"/><SurveyUnits>
+				<SurveyUnit><Id>1</Id></SurveyUnit>
+				<SurveyUnit><Id>2</Id></SurveyUnit>
+				</SurveyUnits></Campaign>
+				""", StandardCharsets.UTF_8);
+
+		//
+		try (LunaticXmlSplitter splitter = new LunaticXmlSplitter(dataFile)) {
+			assertTrue(splitter.split(2).isEmpty());
+		}
+	}
+
+	private List<String> readIdentifiers(LunaticXmlSplitter splitter, List<LunaticXmlSplitter.Chunk> chunks)
+			throws IOException, XMLStreamException {
+		LunaticXmlDataParser parser = new LunaticXmlDataParser(new SurveyRawData("TEST"));
+		List<String> identifiers = new ArrayList<>();
+		for (LunaticXmlSplitter.Chunk chunk : chunks) {
+			try (InputStream inputStream = splitter.openChunk(chunk)) {
+				parser.readSurveyUnits(inputStream, surveyUnit -> identifiers.add(surveyUnit.identifier));
+			}
+		}
+		return identifiers;
+	}
+
+	@Test
+	void split_ignoreCommentsAndCdata(@TempDir Path tempDir) throws IOException {
+		//
+		Path dataFile = tempDir.resolve("data.xml");
+		Files.writeString(dataFile, """
+				<?xml version="1.0" encoding="UTF-8"?>
+				<Campaign><SurveyUnits>
+				<!-- <SurveyUnit> -->
+				<SurveyUnit><Id>1</Id><Data><![CDATA[</SurveyUnit>]]></Data></SurveyUnit>
+				<SurveyUnit><Id>2</Id></SurveyUnit>
+				</SurveyUnits></Campaign>
+				""", StandardCharsets.UTF_8);
+		List<LunaticXmlSplitter.Chunk> chunks;
+		try (LunaticXmlSplitter splitter = new LunaticXmlSplitter(dataFile)) {
+			chunks = splitter.split(2);
+		}
+
+		//
+		assertEquals(2, chunks.size());
+		assertEquals(1, chunks.get(0).getSurveyUnitsCount());
+		assertEquals(1, chunks.get(1).getSurveyUnitsCount());
+	}
+
+	@Test
+	void split_utf16NotSplit(@TempDir Path tempDir) throws IOException {
+		//
+		Path dataFile = tempDir.resolve("data.xml");
+		Files.writeString(dataFile,
+				"<?xml version=\"1.0\" encoding=\"UTF-16\"?><Campaign><SurveyUnit/></Campaign>",
+				StandardCharsets.UTF_16);
+
+		//
+		try (LunaticXmlSplitter splitter = new LunaticXmlSplitter(dataFile)) {
+			assertTrue(splitter.split(2).isEmpty());
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package fr.insee.kraftwerk.core.parsers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.insee.kraftwerk.core.TestConstants;
+import fr.insee.kraftwerk.core.exceptions.NullException;
+import fr.insee.kraftwerk.core.metadata.VariablesMapTest;
+import fr.insee.kraftwerk.core.rawdata.GroupData;
+import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
+import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+
+class XformsDataParserTest {
+
+	private final String dataSamplesFolder = TestConstants.UNIT_TESTS_DIRECTORY + "/data/xforms";
+
+	@Test
+	void parseXformsFile_notFound() {
+		SurveyRawData data = new SurveyRawData("TEST");
+		XformsDataParser parser = new XformsDataParser(data);
+
+		parser.parseDataFile(Path.of("notfound.xml"));
+		assertEquals(0, data.getQuestionnairesCount());
+	}
+
+	@Test
+	void parseXformsFile() throws NullException {
+		//
+		SurveyRawData data = new SurveyRawData("TEST");
+		data.setVariablesMap(VariablesMapTest.createVariablesMap_oneLevel());
+		XformsDataParser parser = new XformsDataParser(data);
+		parser.parseSurveyData(Paths.get(dataSamplesFolder + "/fake-xforms-data.xml"));
+
+		//
+		assertEquals(List.of("X0000001", "X0000002"), data.getIdSurveyUnits());
+		//
+		QuestionnaireData q1 = data.getQuestionnaires().get(0);
+		assertEquals("742 Evergreen Terrace", q1.getValue("ADDRESS"));
+		assertNull(q1.getValue("UNKNOWN_VARIABLE"));
+		GroupData individuals = q1.getAnswers().getSubGroup("INDIVIDUALS_LOOP");
+		assertEquals("Homer", individuals.getValue("FIRST_NAME", "INDIVIDUALS_LOOP-01"));
+		assertEquals("Simpson & co", individuals.getValue("LAST_NAME", "INDIVIDUALS_LOOP-01"));
+		assertEquals("Marge", individuals.getValue("FIRST_NAME", "INDIVIDUALS_LOOP-02"));
+		//
+		QuestionnaireData q2 = data.getQuestionnaires().get(1);
+		assertEquals("", q2.getValue("ADDRESS"));
+		assertEquals("20000", q2.getValue("HOUSEHOLD_INCOME"));
+	}
+
+}
@@ -0,0 +1,158 @@
+package fr.insee.kraftwerk.core.rawdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.KraftwerkError;
+import fr.insee.kraftwerk.core.metadata.ErrorVariableType;
+import fr.insee.kraftwerk.core.metadata.UcqVariable;
+import fr.insee.kraftwerk.core.metadata.Variable;
+import fr.insee.kraftwerk.core.metadata.VariableType;
+import fr.insee.kraftwerk.core.metadata.VariablesMap;
+
+class ColumnTest {
+
+	@Test
+	void dictionaryEncoding() {
+		StringColumn column = new StringColumn("FOO", new ValueDictionary(ColumnStore.LOW_CARDINALITY_LIMIT));
+		column.putValue(0, "a");
+		column.putValue(1, null);
+		column.putValue(3, "a");
+		//
+		assertTrue(column.isDictionaryEncoded());
+		assertEquals(1, column.getDictionary().size());
+		assertEquals("a", column.getValue(3));
+		assertEquals(0, column.getCode(0));
+		assertEquals(-1, column.getCode(1));
+		assertNull(column.getValue(1));
+		assertTrue(column.hasValue(1));
+		assertFalse(column.hasValue(2));
+		assertEquals(3, column.getValuesCount());
+	}
+
+	@Test
+	void dictionaryEncoding_shortCodes() {
+		StringColumn column = new StringColumn("FOO", new ValueDictionary(ColumnStore.UCQ_DICTIONARY_LIMIT));
+		for (int i = 0; i < 1000; i++) {
+			column.putValue(i, Integer.toString(i));
+		}
+		//
+		assertTrue(column.isDictionaryEncoded());
+		assertEquals("42", column.getValue(42));
+		assertEquals(999, column.getCode(999));
+		assertEquals("999", column.getValue(999));
+	}
+
+	@Test
+	void dictionaryFull_plainValues() {
+		StringColumn column = new StringColumn("FOO", new ValueDictionary(ColumnStore.LOW_CARDINALITY_LIMIT));
+		for (int i = 0; i < 1000; i++) {
+			column.putValue(i, "value " + i);
+		}
+		//
+		assertFalse(column.isDictionaryEncoded());
+		assertEquals("value 0", column.getValue(0));
+		assertEquals("value 999", column.getValue(999));
+		assertEquals(1000, column.getValuesCount());
+	}
+
+	@Test
+	void ucqDictionary_seededWithModalities() {
+		VariablesMap variablesMap = new VariablesMap();
+		UcqVariable ucqVariable = new UcqVariable("GENDER", variablesMap.getRootGroup(), VariableType.STRING);
+		ucqVariable.addModality("1", "Male");
+		ucqVariable.addModality("2", "Female");
+		variablesMap.putVariable(ucqVariable);
+		SurveyRawData data = new SurveyRawData("TEST");
+		data.setVariablesMap(variablesMap);
+		QuestionnaireData questionnaireData = new QuestionnaireData();
+		questionnaireData.getAnswers().putValue("GENDER", "2");
+		data.addQuestionnaire(questionnaireData);
+		//
+		StringColumn column = (StringColumn) data.getColumnStore().getTable(Constants.ROOT_GROUP_NAME).getColumn("GENDER");
+		assertEquals(1, column.getCode(0));
+		assertEquals(0, column.getDictionary().getCode("1"));
+		assertEquals("2", questionnaireData.getValue("GENDER"));
+	}
+
+	@Test
+	void typedColumns() {
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("AGE", variablesMap.getRootGroup(), VariableType.INTEGER));
+		variablesMap.putVariable(new Variable("INCOME", variablesMap.getRootGroup(), VariableType.NUMBER));
+		variablesMap.putVariable(new Variable("OWNER", variablesMap.getRootGroup(), VariableType.BOOLEAN));
+		variablesMap.putVariable(new Variable("BIRTH", variablesMap.getRootGroup(), VariableType.DATE));
+		SurveyRawData data = new SurveyRawData("TEST");
+		data.setVariablesMap(variablesMap);
+		List<String[]> rows = List.of(
+				new String[] {"40", "20000", "true", "1983-05-12"},
+				new String[] {"007", "3.50", "1", "1983-05"},
+				new String[] {"", "-0.25", "0", null},
+				new String[] {"forty", "3,5", "yes", "12/05/1983"});
+		for (String[] row : rows) {
+			QuestionnaireData questionnaireData = new QuestionnaireData();
+			questionnaireData.getAnswers().putValue("AGE", row[0]);
+			questionnaireData.getAnswers().putValue("INCOME", row[1]);
+			questionnaireData.getAnswers().putValue("OWNER", row[2]);
+			questionnaireData.getAnswers().putValue("BIRTH", row[3]);
+			data.addQuestionnaire(questionnaireData);
+		}
+		// Values are given back as they were read
+		for (int i = 0; i < rows.size(); i++) {
+			QuestionnaireData questionnaireData = data.getQuestionnaires().get(i);
+			assertEquals(rows.get(i)[0], questionnaireData.getValue("AGE"));
+			assertEquals(rows.get(i)[1], questionnaireData.getValue("INCOME"));
+			assertEquals(rows.get(i)[2], questionnaireData.getValue("OWNER"));
+			assertEquals(rows.get(i)[3], questionnaireData.getValue("BIRTH"));
+		}
+		// Typed values
+		GroupTable rootTable = data.getColumnStore().getTable(Constants.ROOT_GROUP_NAME);
+		IntegerColumn ageColumn = (IntegerColumn) rootTable.getColumn("AGE");
+		NumberColumn incomeColumn = (NumberColumn) rootTable.getColumn("INCOME");
+		BooleanColumn ownerColumn = (BooleanColumn) rootTable.getColumn("OWNER");
+		DateColumn birthColumn = (DateColumn) rootTable.getColumn("BIRTH");
+		assertEquals(40L, ageColumn.getLong(0));
+		assertFalse(ageColumn.hasTypedValue(1));
+		assertEquals(-0.25, incomeColumn.getDouble(2));
+		assertTrue(ownerColumn.getBoolean(1));
+		assertFalse(ownerColumn.getBoolean(2));
+		assertEquals(LocalDate.of(1983, 5, 12), birthColumn.getDate(0));
+		assertFalse(birthColumn.hasTypedValue(2));
+		// Invalid values are reported
+		List<KraftwerkError> errors = data.getColumnStore().getInvalidValuesErrors("TEST");
+		assertEquals(4, errors.size());
+		assertEquals("forty", ((ErrorVariableType) errors.get(0)).getInvalidValueExample());
+		assertEquals(1, ((ErrorVariableType) errors.get(0)).getInvalidValuesCount());
+	}
+
+	@Test
+	void booleanValues() {
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("FILTER_RESULT_FOO", variablesMap.getRootGroup(), VariableType.BOOLEAN));
+		SurveyRawData data = new SurveyRawData("TEST");
+		data.setVariablesMap(variablesMap);
+		for (String value : new String[] {"true", "0", "", "yes"}) {
+			QuestionnaireData questionnaireData = new QuestionnaireData();
+			questionnaireData.getAnswers().putValue("FILTER_RESULT_FOO", value);
+			// Same conversion before and after the questionnaire is added
+			Boolean detachedValue = questionnaireData.getAnswers().getBooleanValue("FILTER_RESULT_FOO");
+			data.addQuestionnaire(questionnaireData);
+			assertEquals(detachedValue, questionnaireData.getAnswers().getBooleanValue("FILTER_RESULT_FOO"));
+		}
+		//
+		assertEquals(Boolean.TRUE, data.getQuestionnaires().get(0).getAnswers().getBooleanValue("FILTER_RESULT_FOO"));
+		assertEquals(Boolean.FALSE, data.getQuestionnaires().get(1).getAnswers().getBooleanValue("FILTER_RESULT_FOO"));
+		assertNull(data.getQuestionnaires().get(2).getAnswers().getBooleanValue("FILTER_RESULT_FOO"));
+		assertNull(data.getQuestionnaires().get(3).getAnswers().getBooleanValue("FILTER_RESULT_FOO"));
+		assertNull(data.getQuestionnaires().get(3).getAnswers().getBooleanValue("UNKNOWN"));
+	}
+
+}
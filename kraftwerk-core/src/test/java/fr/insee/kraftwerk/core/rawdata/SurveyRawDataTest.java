@@ -1,11 +1,16 @@
 package fr.insee.kraftwerk.core.rawdata;
 
+import fr.insee.kraftwerk.core.Constants;
 import fr.insee.kraftwerk.core.metadata.VariablesMapTest;
 import fr.insee.kraftwerk.core.metadata.VariablesMap;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Test;
 
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SurveyRawDataTest {
 
@@ -42,6 +47,28 @@ public class SurveyRawDataTest {
 				.getValue("CAR_COLOR"));
 	}
 
+	@Test
+	public void columnStoreTest() {
+		SurveyRawData testData = createFakeCawiSurveyRawData();
+		ColumnStore columnStore = testData.getColumnStore();
+		//
+		GroupTable rootTable = columnStore.getTable(Constants.ROOT_GROUP_NAME);
+		GroupTable carsTable = columnStore.getTable("CARS_LOOP");
+		assertEquals(2, rootTable.getRowsCount());
+		assertEquals(4, carsTable.getRowsCount());
+		assertEquals("Flanders", rootTable.getColumn("LAST_NAME").getValue(1));
+		assertEquals("CARS_LOOP-2", carsTable.getInstanceId(3));
+		assertEquals(1, carsTable.getParentRow(3));
+		assertEquals("Blue", carsTable.getValue("CAR_COLOR", 3));
+		// Values put after the questionnaire has been added go to the store
+		QuestionnaireData q2 = testData.getQuestionnaires().get(1);
+		q2.getAnswers().getSubGroup("CARS_LOOP").getInstance("CARS_LOOP-3").putValue("CAR_COLOR", null);
+		assertEquals(5, carsTable.getRowsCount());
+		assertTrue(carsTable.getColumn("CAR_COLOR").hasValue(4));
+		assertNull(q2.getAnswers().getSubGroup("CARS_LOOP").getValue("CAR_COLOR", "CARS_LOOP-3"));
+		assertEquals(Set.of("FIRST_NAME", "LAST_NAME", "AGE"), q2.getAnswers().getVariableNames());
+	}
+
 
 
 	/* Methods used for functional testing */
@@ -0,0 +1,65 @@
+package fr.insee.kraftwerk.core.sequence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import fr.insee.kraftwerk.core.KraftwerkError;
+import fr.insee.kraftwerk.core.metadata.ErrorVariableLength;
+import fr.insee.kraftwerk.core.metadata.MetadataUtils;
+import fr.insee.kraftwerk.core.metadata.Variable;
+import fr.insee.kraftwerk.core.metadata.VariableType;
+import fr.insee.kraftwerk.core.metadata.VariablesMap;
+
+class UnimodalSequenceTest {
+
+	@Test
+	void checkVariablesLength_twoFiles() {
+		//GIVEN
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("ADDRESS", variablesMap.getRootGroup(), VariableType.STRING, "10"));
+		Map<String, VariablesMap> metadataVariables = Map.of("CAWI", variablesMap);
+		List<KraftwerkError> errors = new ArrayList<>();
+		UnimodalSequence unimodalSequence = new UnimodalSequence();
+
+		//WHEN : each file is processed on its own overlay of the metadata
+		for (int fileMaxLength : new int[] { 25, 15 }) {
+			Map<String, VariablesMap> fileMetadataVariables = MetadataUtils.overlay(metadataVariables);
+			fileMetadataVariables.get("CAWI").updateMaxLengthData("ADDRESS", fileMaxLength);
+			unimodalSequence.checkVariablesLength("CAWI", fileMetadataVariables.get("CAWI"), errors);
+			MetadataUtils.mergeMaxLengthsData(metadataVariables, fileMetadataVariables);
+		}
+
+		//THEN : the maximum length of all the files is reported once
+		assertEquals(25, variablesMap.getMaxLengthData("ADDRESS"));
+		assertEquals(1, errors.size());
+		assertEquals(25, ((ErrorVariableLength) errors.get(0)).getMaxLengthData());
+	}
+
+	@Test
+	void checkVariablesLength_greaterLengthInSecondFile() {
+		//GIVEN
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("ADDRESS", variablesMap.getRootGroup(), VariableType.STRING, "10"));
+		Map<String, VariablesMap> metadataVariables = Map.of("CAWI", variablesMap);
+		List<KraftwerkError> errors = new ArrayList<>();
+		UnimodalSequence unimodalSequence = new UnimodalSequence();
+
+		//WHEN
+		for (int fileMaxLength : new int[] { 15, 25 }) {
+			Map<String, VariablesMap> fileMetadataVariables = MetadataUtils.overlay(metadataVariables);
+			fileMetadataVariables.get("CAWI").updateMaxLengthData("ADDRESS", fileMaxLength);
+			unimodalSequence.checkVariablesLength("CAWI", fileMetadataVariables.get("CAWI"), errors);
+			MetadataUtils.mergeMaxLengthsData(metadataVariables, fileMetadataVariables);
+		}
+
+		//THEN
+		assertEquals(1, errors.size());
+		assertEquals(25, ((ErrorVariableLength) errors.get(0)).getMaxLengthData());
+	}
+
+}
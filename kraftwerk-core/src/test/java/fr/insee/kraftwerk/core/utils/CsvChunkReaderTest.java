@@ -0,0 +1,127 @@
+package fr.insee.kraftwerk.core.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+
+class CsvChunkReaderTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void readRecords_quotedLineBreaks() throws IOException, CsvValidationException {
+		//
+		Path csvFile = writeQuotedLineBreaksFile();
+
+		//
+		List<String[]> records;
+		try (CsvChunkReader csvChunkReader = new CsvChunkReader(csvFile, ';', StandardCharsets.UTF_8, 4)) {
+			assertArrayEquals(new String[] { "ID", "NAME", "COMMENT" }, csvChunkReader.readHeader());
+			records = csvChunkReader.readRecords(Function.identity());
+		}
+
+		//
+		List<String[]> expectedRecords = readSequentially(csvFile);
+		assertEquals(500, records.size());
+		assertEquals(expectedRecords.size(), records.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertArrayEquals(expectedRecords.get(i), records.get(i));
+		}
+		assertEquals("Name;42", records.get(42)[1]);
+		// The file is released once the reader is closed
+		Files.delete(csvFile);
+	}
+
+	@Test
+	void readRecords_singleThread() throws IOException, CsvValidationException {
+		//
+		Path csvFile = writeQuotedLineBreaksFile();
+
+		//
+		List<String[]> records;
+		try (CsvChunkReader csvChunkReader = new CsvChunkReader(csvFile, ';', StandardCharsets.UTF_8, 1)) {
+			assertArrayEquals(new String[] { "ID", "NAME", "COMMENT" }, csvChunkReader.readHeader());
+			records = csvChunkReader.readRecords(Function.identity());
+		}
+
+		//
+		List<String[]> expectedRecords = readSequentially(csvFile);
+		assertEquals(expectedRecords.size(), records.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertArrayEquals(expectedRecords.get(i), records.get(i));
+		}
+	}
+
+	@Test
+	void readRecords_interrupted() throws IOException, CsvValidationException {
+		//
+		Path csvFile = writeQuotedLineBreaksFile();
+
+		//
+		try (CsvChunkReader csvChunkReader = new CsvChunkReader(csvFile, ';', StandardCharsets.UTF_8, 4)) {
+			csvChunkReader.readHeader();
+			Thread.currentThread().interrupt();
+			try {
+				csvChunkReader.readRecords(Function.identity());
+			} catch (IllegalStateException e) {
+				// Interrupted before all the chunks were read
+			}
+		}
+
+		// The chunks have been read before the file is released, the interrupt status is kept
+		assertTrue(Thread.interrupted());
+		Files.delete(csvFile);
+	}
+
+	private Path writeQuotedLineBreaksFile() throws IOException {
+		StringBuilder content = new StringBuilder("ID;NAME;COMMENT\n");
+		for (int i = 0; i < 500; i++) {
+			content.append(String.format("%d;\"Name;%d\";\"first line%nsecond \"\"line\"\" \\\" %d\"%n", i, i, i));
+		}
+		Path csvFile = tempDir.resolve("data.csv");
+		Files.writeString(csvFile, content.toString(), StandardCharsets.UTF_8);
+		return csvFile;
+	}
+
+	@Test
+	void readHeader_emptyFile() throws IOException, CsvValidationException {
+		Path csvFile = tempDir.resolve("empty.csv");
+		Files.writeString(csvFile, "");
+		try (CsvChunkReader csvChunkReader = new CsvChunkReader(csvFile, ',', StandardCharsets.UTF_8, 2)) {
+			assertNull(csvChunkReader.readHeader());
+			assertEquals(0, csvChunkReader.readRecords(Function.identity()).size());
+		}
+	}
+
+	private List<String[]> readSequentially(Path csvFile) throws IOException, CsvValidationException {
+		List<String[]> records = new ArrayList<>();
+		try (CSVReader csvReader = new CSVReaderBuilder(new FileReader(csvFile.toFile(), StandardCharsets.UTF_8))
+				.withCSVParser(new CSVParserBuilder().withSeparator(';').build()).withSkipLines(1).build()) {
+			String[] nextRecord;
+			while ((nextRecord = csvReader.readNext()) != null) {
+				records.add(nextRecord);
+			}
+		}
+		return records;
+	}
+
+}
@@ -1,9 +1,15 @@
 package fr.insee.kraftwerk.core.utils.xsl;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import java.net.MalformedURLException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
 import org.xmlunit.assertj3.XmlAssert;
 
 import fr.insee.kraftwerk.core.TestConstants;
@@ -25,4 +31,23 @@ class SaxonTransformerTest  {
         //
         XmlAssert.assertThat(inContent).and(outContent).areSimilar();
     }
+
+    @Test
+    void applyXsltScript_toSaxHandler() throws MalformedURLException {
+        String xsltTestScript = TestConstants.UNIT_TESTS_DIRECTORY + "/utils/xsl/do-nothing.xsl";
+        String inXmlFile = TestConstants.UNIT_TESTS_DIRECTORY + "/utils/xsl/note.xml";
+        List<String> elementNames = new ArrayList<>();
+        DefaultHandler handler = new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                elementNames.add(qName);
+            }
+        };
+        //
+        SaxonTransformer saxonTransformer = new SaxonTransformer();
+        saxonTransformer.xslTransform(Path.of(inXmlFile).toUri().toURL(), xsltTestScript, handler);
+        saxonTransformer.xslTransform(Path.of(inXmlFile).toUri().toURL(), xsltTestScript, handler);
+        //
+        assertEquals(List.of("note", "to", "from", "heading", "body", "note", "to", "from", "heading", "body"), elementNames);
+    }
 }
@@ -0,0 +1,218 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import fr.insee.kraftwerk.core.Constants;
+import fr.insee.kraftwerk.core.KraftwerkError;
+import fr.insee.kraftwerk.core.dataprocessing.GroupProcessing;
+import fr.insee.kraftwerk.core.dataprocessing.InformationLevelsProcessing;
+import fr.insee.kraftwerk.core.dataprocessing.ReconciliationProcessing;
+import fr.insee.kraftwerk.core.metadata.Group;
+import fr.insee.kraftwerk.core.metadata.Variable;
+import fr.insee.kraftwerk.core.metadata.VariableType;
+import fr.insee.kraftwerk.core.metadata.VariablesMap;
+import fr.insee.kraftwerk.core.rawdata.QuestionnaireData;
+import fr.insee.kraftwerk.core.rawdata.SurveyRawData;
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.InMemoryDataset;
+import fr.insee.vtl.model.Structured.Component;
+
+class ColumnarDatasetTest {
+
+	private static final List<Component> COMPONENTS = List.of(
+			new Component("ID", String.class, Dataset.Role.IDENTIFIER),
+			new Component("NAME", String.class, Dataset.Role.MEASURE),
+			new Component("AGE", Long.class, Dataset.Role.MEASURE),
+			new Component("INCOME", Double.class, Dataset.Role.MEASURE),
+			new Component("OWNER", Boolean.class, Dataset.Role.MEASURE));
+
+	private static final List<Object[]> ROWS = List.of(
+			new Object[] {"S1", "Homer", 40L, 20000d, true},
+			new Object[] {"S2", null, null, null, null},
+			new Object[] {"S3", "Ned", 7L, -0.25, false});
+
+	private final VtlExecute vtlExecute = new VtlExecute();
+
+	private static ColumnarDataset columnarDataset() {
+		ColumnarDataset.Builder builder = ColumnarDataset.builder(COMPONENTS);
+		ROWS.forEach(builder::addRow);
+		return builder.build();
+	}
+
+	private static Dataset inMemoryDataset() {
+		List<List<Object>> dataPoints = new ArrayList<>();
+		ROWS.forEach(row -> dataPoints.add(Arrays.asList(row)));
+		return new InMemoryDataset(dataPoints, COMPONENTS);
+	}
+
+	@Test
+	void columnarDataset_values() {
+		ColumnarDataset dataset = columnarDataset();
+		//
+		assertEquals(inMemoryDataset().getDataStructure(), dataset.getDataStructure());
+		assertEquals(inMemoryDataset().getDataAsList(), dataset.getDataAsList());
+		assertEquals(3, dataset.getDataPoints().size());
+		assertEquals("Ned", dataset.getDataPoints().get(2).get("NAME"));
+		assertEquals(40L, dataset.getValue("AGE", 0));
+		assertEquals(Boolean.FALSE, dataset.getValue("OWNER", 2));
+	}
+
+	@Test
+	void rename_sharesColumns() {
+		ColumnarDataset dataset = columnarDataset();
+		ColumnarDataset renamed = dataset.rename(Map.of("NAME", "GROUP.NAME"));
+		//
+		assertSame(dataset.getColumn("NAME"), renamed.getColumn("GROUP.NAME"));
+		assertSame(dataset.getColumn("AGE"), renamed.getColumn("AGE"));
+		assertFalse(renamed.getDataStructure().containsKey("NAME"));
+	}
+
+	/** Instructions applied on columnar datasets must give the same results as the VTL engine. */
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"OUT := DS [rename NAME to GROUP.NAME];",
+			"OUT := DS [rename NAME to FIRST_NAME, AGE to YEARS];",
+			"OUT := DS [keep OWNER, NAME];",
+			"OUT := DS [keep ID, OWNER, NAME];",
+			"OUT := DS [drop NAME];",
+			"OUT := DS [calc MODE := \"CAWI\"];",
+			"OUT := DS [calc NAME := \"Bart\"];",
+			"OUT := DS [calc identifier NAME := NAME];",
+			"OUT := DS [calc AGE := cast(AGE, number)];",
+			"OUT := DS [calc INCOME := cast(INCOME, number)];",
+			"OUT := DS [calc ADULT := AGE >= 18, NAME := upper(NAME)];",
+			"OUT := DS [calc identifier NAME_ID := NAME || \"_\" || ID];"
+	})
+	void instructions_sameAsEngine(String instruction) {
+		VtlBindings columnarBindings = new VtlBindings();
+		columnarBindings.put("DS", columnarDataset());
+		VtlBindings engineBindings = new VtlBindings();
+		engineBindings.put("DS", inMemoryDataset());
+		//
+		assertTrue(ColumnarInstructions.evaluate(instruction, columnarBindings));
+		vtlExecute.evalVtlScript(instruction, engineBindings, new ArrayList<>());
+		//
+		Dataset columnarResult = columnarBindings.getDataset("OUT");
+		Dataset engineResult = engineBindings.getDataset("OUT");
+		assertInstanceOf(ColumnarDataset.class, columnarResult);
+		assertEquals(engineResult.getDataStructure(), columnarResult.getDataStructure());
+		assertEquals(engineResult.getDataAsList(), columnarResult.getDataAsList());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"OUT := DS [rename UNKNOWN to FOO];",
+			"OUT := DS [rename NAME to AGE];",
+			"OUT := DS [keep UNKNOWN];",
+			"OUT := DS [calc ID := \"foo\"];",
+			"OUT := DS [calc ADULT := UNKNOWN >= 18];",
+			"OUT := DS [filter AGE > 10];"
+	})
+	void instructions_leftToEngine(String instruction) {
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("DS", columnarDataset());
+		//
+		assertFalse(ColumnarInstructions.evaluate(instruction, bindings));
+		assertFalse(bindings.containsKey("OUT"));
+	}
+
+	/** Calc instructions evaluated by the engine on a projection only add the calculated columns. */
+	@Test
+	void calcOnProjection_sharesColumns() {
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("DS", columnarDataset());
+		//
+		assertTrue(ColumnarInstructions.evaluate("OUT := DS [calc ADULT := AGE >= 18];", bindings));
+		//
+		ColumnarDataset result = (ColumnarDataset) bindings.getDataset("OUT");
+		assertSame(((ColumnarDataset) bindings.getDataset("DS")).getColumn("NAME"), result.getColumn("NAME"));
+		assertEquals(Boolean.TRUE, result.getValue("ADULT", 0));
+		assertEquals(Boolean.FALSE, result.getValue("ADULT", 2));
+	}
+
+	/**
+	 * The values of the root level of normalized datasets stay shared through the calculated variables,
+	 * the reconciliation and the information levels split, the results being the same as with denormalized datasets.
+	 */
+	@Test
+	void normalizedDatasets_rootValuesShared() {
+		VtlBindings bindings = processModes(false);
+		VtlBindings normalizedBindings = processModes(true);
+		//
+		for (String datasetName : List.of(Constants.ROOT_GROUP_NAME, "GROUP_A")) {
+			Dataset dataset = bindings.getDataset(datasetName);
+			Dataset normalizedDataset = normalizedBindings.getDataset(datasetName);
+			assertEquals(dataset.getDataStructure(), normalizedDataset.getDataStructure());
+			assertEquals(dataset.getDataAsList(), normalizedDataset.getDataAsList());
+		}
+		for (String datasetName : List.of("CAWI", "MULTIMODE", Constants.ROOT_GROUP_NAME, "GROUP_A")) {
+			DatasetColumn nameColumn = ((ColumnarDataset) normalizedBindings.getDataset(datasetName)).getColumn("NAME");
+			assertFalse(nameColumn instanceof DatasetColumn.MutableColumn, datasetName);
+		}
+		assertEquals(6, normalizedBindings.getDataset(Constants.ROOT_GROUP_NAME).getDataPoints().size());
+	}
+
+	/** Convert two modes, calculate a variable and prefix the group variables, then reconcile and split them. */
+	private VtlBindings processModes(boolean normalized) {
+		VtlBindings bindings = new VtlBindings();
+		List<KraftwerkError> errors = new ArrayList<>();
+		for (String mode : List.of("CAWI", "PAPI")) {
+			SurveyRawData surveyRawData = surveyRawData(mode);
+			vtlExecute.convertToVtlDataset(surveyRawData, mode, bindings, normalized);
+			vtlExecute.evalVtlScript(new VtlScript(String.format("%1$s := %1$s [calc AGE_10 := AGE + 10];", mode)),
+					bindings, errors);
+			new GroupProcessing(bindings, surveyRawData.getVariablesMap()).applyVtlTransformations(mode, null, errors);
+		}
+		new ReconciliationProcessing(bindings, true).applyVtlTransformations("MULTIMODE", null, errors);
+		new InformationLevelsProcessing(bindings).applyVtlTransformations("MULTIMODE", null, errors);
+		assertTrue(errors.isEmpty());
+		return bindings;
+	}
+
+	private static SurveyRawData surveyRawData(String mode) {
+		SurveyRawData surveyRawData = new SurveyRawData();
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("AGE", variablesMap.getRootGroup(), VariableType.INTEGER));
+		variablesMap.putVariable(new Variable("NAME", variablesMap.getRootGroup(), VariableType.STRING));
+		variablesMap.putGroup(new Group("GROUP_A", variablesMap.getRootGroup().getName()));
+		variablesMap.putVariable(new Variable("FOO_A", variablesMap.getGroup("GROUP_A"), VariableType.STRING));
+		surveyRawData.setVariablesMap(variablesMap);
+		for (int i = 0; i < 3; i++) {
+			QuestionnaireData questionnaire = new QuestionnaireData();
+			questionnaire.setIdentifier(mode + i);
+			questionnaire.putValue(String.valueOf(40 + i), "AGE");
+			questionnaire.putValue(mode + "_name" + i, "NAME");
+			for (int j = 0; j < i; j++) {
+				questionnaire.putValue("foo_a" + i + j, "FOO_A", Pair.of("GROUP_A", j));
+			}
+			surveyRawData.addQuestionnaire(questionnaire);
+		}
+		return surveyRawData;
+	}
+
+	@Test
+	void engineReadsColumnarDataset() {
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("DS", columnarDataset());
+		//
+		vtlExecute.evalVtlScript("OUT := DS [filter AGE > 10];", bindings, new ArrayList<>());
+		//
+		assertEquals(1, bindings.getDataset("OUT").getDataPoints().size());
+		assertEquals("S1", bindings.getDataset("OUT").getDataPoints().get(0).get("ID"));
+	}
+
+}
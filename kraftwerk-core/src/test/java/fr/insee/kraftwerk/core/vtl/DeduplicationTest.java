@@ -0,0 +1,81 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.Dataset.Role;
+import fr.insee.vtl.model.InMemoryDataset;
+import fr.insee.vtl.model.Structured.Component;
+
+class DeduplicationTest {
+
+	Dataset testDataset = new InMemoryDataset(
+			List.of(
+					Arrays.asList("S1", "Homer", 40L),
+					Arrays.asList("S2", "Marge", null),
+					Arrays.asList("S1", "Bart", 10L),
+					Arrays.asList("S2", "Marge", null),
+					Arrays.asList("S3", null, 8L)
+			),
+			List.of(
+					new Component("ID", String.class, Role.IDENTIFIER),
+					new Component("NAME", String.class, Role.MEASURE),
+					new Component("AGE", Long.class, Role.MEASURE)
+			)
+	);
+
+	Dataset testDatasetWithoutIdentifiers = new InMemoryDataset(
+			testDataset.getDataAsList(),
+			List.of(
+					new Component("ID", String.class, Role.MEASURE),
+					new Component("NAME", String.class, Role.MEASURE),
+					new Component("AGE", Long.class, Role.MEASURE)
+			)
+	);
+
+	@Test
+	void removeDuplicates_sameAsUnion() {
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("DS", testDataset);
+		new VtlExecute().evalVtlScript("DS := union(DS, DS);", bindings, new ArrayList<>());
+		Dataset unionDataset = bindings.getDataset("DS");
+		ColumnarDataset.Builder builder = ColumnarDataset.builder(new ArrayList<>(testDataset.getDataStructure().values()));
+		testDataset.getDataAsList().forEach(row -> builder.addRow(row.toArray()));
+		//
+		Dataset inMemoryResult = Deduplication.removeDuplicates(testDataset);
+		Dataset columnarResult = Deduplication.removeDuplicates(builder.build());
+		//
+		assertEquals(3, unionDataset.getDataPoints().size());
+		assertEquals(unionDataset.getDataStructure(), inMemoryResult.getDataStructure());
+		assertEquals(unionDataset.getDataAsList(), inMemoryResult.getDataAsList());
+		assertInstanceOf(ColumnarDataset.class, columnarResult);
+		assertEquals(unionDataset.getDataAsList(), columnarResult.getDataAsList());
+	}
+
+	@Test
+	void removeDuplicates_noDuplicates() {
+		ColumnarDataset.Builder builder = ColumnarDataset.builder(new ArrayList<>(testDataset.getDataStructure().values()));
+		builder.addRow(new Object[] {"S1", "Homer", 40L});
+		builder.addRow(new Object[] {"S2", "Marge", null});
+		ColumnarDataset dataset = builder.build();
+		//
+		assertSame(dataset, Deduplication.removeDuplicates(dataset));
+	}
+
+	@Test
+	void removeDuplicates_withoutIdentifiers() {
+		Dataset result = Deduplication.removeDuplicates(testDatasetWithoutIdentifiers);
+		//
+		assertEquals(4, result.getDataPoints().size());
+		assertEquals("Bart", result.getDataPoints().get(2).get("NAME"));
+	}
+
+}
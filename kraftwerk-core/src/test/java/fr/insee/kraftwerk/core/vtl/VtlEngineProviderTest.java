@@ -0,0 +1,43 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.junit.jupiter.api.Test;
+
+class VtlEngineProviderTest {
+
+	@Test
+	void warmUp() {
+		assertDoesNotThrow(VtlEngineProvider::warmUp);
+	}
+
+	@Test
+	void oneEnginePerThread() throws InterruptedException, ExecutionException {
+		ScriptEngine engine = VtlEngineProvider.getEngine();
+		//
+		assertSame(engine, VtlEngineProvider.getEngine());
+		assertNotSame(engine, CompletableFuture.supplyAsync(VtlEngineProvider::getEngine).get());
+	}
+
+	@Test
+	void eval_bindingsNotKeptByEngine() throws ScriptException {
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("a", 1L);
+		//
+		VtlEngineProvider.eval("b := a + 1;", bindings);
+		//
+		assertTrue(bindings.containsKey("b"));
+		assertTrue(VtlEngineProvider.getEngine().getContext().getBindings(ScriptContext.ENGINE_SCOPE).isEmpty());
+	}
+
+}
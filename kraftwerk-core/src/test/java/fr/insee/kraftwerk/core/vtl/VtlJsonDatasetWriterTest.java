@@ -210,4 +210,90 @@ class VtlJsonDatasetWriterTest {
 		assertEquals(4, dataset.getDataPoints().size());
 	}
 
+	@Test
+	void convertToVtlDataset_sameAsJsonDataset() {
+		//
+		SurveyRawData srd = new SurveyRawData();
+		//
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("AGE", variablesMap.getRootGroup(), VariableType.INTEGER));
+		variablesMap.putVariable(new Variable("INCOME", variablesMap.getRootGroup(), VariableType.NUMBER));
+		variablesMap.putVariable(new Variable("OWNER", variablesMap.getRootGroup(), VariableType.BOOLEAN));
+		variablesMap.putVariable(new Variable("BIRTH", variablesMap.getRootGroup(), VariableType.DATE));
+		variablesMap.putGroup(new Group("GROUP_A", variablesMap.getRootGroup().getName()));
+		variablesMap.putVariable(new Variable("FOO_A", variablesMap.getGroup("GROUP_A"), VariableType.STRING));
+		srd.setVariablesMap(variablesMap);
+		//
+		List<String[]> rows = List.of(
+				new String[] {"40", "20000", "true", "1983-05-12"},
+				new String[] {"007", "3.50", "1", "1983-05"},
+				new String[] {"", "-0.25", "0", null});
+		for (int i = 0; i < rows.size(); i++) {
+			QuestionnaireData questionnaire = new QuestionnaireData();
+			questionnaire.setIdentifier("S000000" + i);
+			questionnaire.putValue(rows.get(i)[0], "AGE");
+			questionnaire.putValue(rows.get(i)[1], "INCOME");
+			questionnaire.putValue(rows.get(i)[2], "OWNER");
+			questionnaire.putValue(rows.get(i)[3], "BIRTH");
+			questionnaire.putValue("foo_a" + i, "FOO_A", Pair.of("GROUP_A", 0));
+			srd.addQuestionnaire(questionnaire);
+		}
+
+		//
+		vtlExecute.convertToVtlDataset(srd, "test", vtlBindings);
+		String tempDatasetPath = new VtlJsonDatasetWriter(srd, "test_json").writeVtlJsonDataset();
+		vtlExecute.putVtlDataset(tempDatasetPath, "test_json", vtlBindings);
+
+		//
+		Dataset dataset = vtlBindings.getDataset("test");
+		Dataset jsonDataset = vtlBindings.getDataset("test_json");
+		assertEquals(jsonDataset.getDataStructure(), dataset.getDataStructure());
+		assertEquals(jsonDataset.getDataAsList(), dataset.getDataAsList());
+		assertEquals(7L, dataset.getDataPoints().get(1).get("AGE"));
+		assertEquals(Boolean.FALSE, dataset.getDataPoints().get(2).get("OWNER"));
+	}
+
+	@Test
+	void convertToVtlDataset_normalizedSameAsDenormalized() {
+		//
+		SurveyRawData srd = new SurveyRawData();
+		//
+		VariablesMap variablesMap = new VariablesMap();
+		variablesMap.putVariable(new Variable("AGE", variablesMap.getRootGroup(), VariableType.INTEGER));
+		variablesMap.putVariable(new Variable("NAME", variablesMap.getRootGroup(), VariableType.STRING));
+		variablesMap.putGroup(new Group("GROUP_A", variablesMap.getRootGroup().getName()));
+		variablesMap.putVariable(new Variable("FOO_A", variablesMap.getGroup("GROUP_A"), VariableType.STRING));
+		variablesMap.putVariable(new Variable("NUM_A", variablesMap.getGroup("GROUP_A"), VariableType.NUMBER));
+		srd.setVariablesMap(variablesMap);
+		//
+		for (int i = 0; i < 4; i++) {
+			QuestionnaireData questionnaire = new QuestionnaireData();
+			questionnaire.setIdentifier("S000000" + i);
+			questionnaire.putValue(String.valueOf(40 + i), "AGE");
+			questionnaire.putValue("name" + i, "NAME");
+			for (int j = 0; j < i; j++) {
+				questionnaire.putValue("foo_a" + i + j, "FOO_A", Pair.of("GROUP_A", j));
+				questionnaire.putValue(String.valueOf(j * 1.5), "NUM_A", Pair.of("GROUP_A", j));
+			}
+			srd.addQuestionnaire(questionnaire);
+		}
+		// Group value also given at the root level
+		srd.getQuestionnaires().get(3).putValue("root_foo", "FOO_A");
+
+		//
+		vtlExecute.convertToVtlDataset(srd, "test", vtlBindings);
+		vtlExecute.convertToVtlDataset(srd, "test_normalized", vtlBindings, true);
+
+		//
+		Dataset dataset = vtlBindings.getDataset("test");
+		Dataset normalizedDataset = vtlBindings.getDataset("test_normalized");
+		assertEquals(7, normalizedDataset.getDataPoints().size());
+		assertEquals(dataset.getDataStructure(), normalizedDataset.getDataStructure());
+		assertEquals(dataset.getDataAsList(), normalizedDataset.getDataAsList());
+		// Rows selection keeps the values of the root level shared
+		ColumnarDataset selectedDataset = ((ColumnarDataset) normalizedDataset).selectRows(new int[] {6, 0});
+		assertEquals("name3", selectedDataset.getValue("NAME", 0));
+		assertEquals(40L, selectedDataset.getValue("AGE", 1));
+	}
+
 }
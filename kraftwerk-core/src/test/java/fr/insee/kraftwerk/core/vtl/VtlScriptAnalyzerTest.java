@@ -0,0 +1,37 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class VtlScriptAnalyzerTest {
+
+	@Test
+	void modifiedVariables_clauses() {
+		String vtlScript = "/* user script; */ DS := DS [calc FOO := \"A,B\", identifier BAR := 1];"
+				+ "OTHER := DS [calc NOT_MODIFIED := 1];"
+				+ "DS := DS [rename OLD to NEW];"
+				+ "DS := DS [drop DROPPED];"
+				+ "DS := DS [filter FOO <> \"\"];";
+		assertEquals(Set.of("FOO", "BAR", "OLD", "NEW", "DROPPED"), VtlScriptAnalyzer.modifiedVariables(vtlScript, "DS"));
+	}
+
+	@Test
+	void modifiedVariables_notAnalyzed() {
+		assertNull(VtlScriptAnalyzer.modifiedVariables("DS := DS [keep FOO];", "DS"));
+		assertNull(VtlScriptAnalyzer.modifiedVariables("DS := OTHER [calc FOO := 1];", "DS"));
+		assertNull(VtlScriptAnalyzer.modifiedVariables("DS := left_join(DS, OTHER);", "DS"));
+		assertNull(VtlScriptAnalyzer.modifiedVariables("DS := DS [calc FOO := 1]; // comment", "DS"));
+	}
+
+	@Test
+	void splitStatements() {
+		assertEquals(List.of("A := B", "C := D [calc E := \";\"]"), VtlScriptAnalyzer.splitStatements("A := B; C := D [calc E := \";\"]; "));
+		assertNull(VtlScriptAnalyzer.splitStatements("A := B /* not closed"));
+	}
+
+}
@@ -0,0 +1,141 @@
+package fr.insee.kraftwerk.core.vtl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.insee.kraftwerk.core.KraftwerkError;
+import fr.insee.vtl.model.Dataset;
+import fr.insee.vtl.model.InMemoryDataset;
+import fr.insee.vtl.model.Structured.Component;
+
+class VtlScriptOptimizerTest {
+
+	private final VtlExecute vtlExecute = new VtlExecute();
+
+	private static Dataset dataset() {
+		List<List<Object>> dataPoints = new ArrayList<>();
+		dataPoints.add(new ArrayList<>(List.of("S1", "Homer", 40L)));
+		dataPoints.add(new ArrayList<>(List.of("S2", "Ned", 7L)));
+		return new InMemoryDataset(dataPoints, List.of(
+				new Component("ID", String.class, Dataset.Role.IDENTIFIER),
+				new Component("NAME", String.class, Dataset.Role.MEASURE),
+				new Component("AGE", Long.class, Dataset.Role.MEASURE)));
+	}
+
+	private static VtlScript optimize(String... instructions) {
+		VtlScript script = new VtlScript();
+		script.addAll(List.of(instructions));
+		return VtlScriptOptimizer.optimize(script);
+	}
+
+	@Test
+	void renames_fused() {
+		VtlScript optimized = optimize(
+				"DS := DS [rename NAME to G.NAME];",
+				"DS := DS [rename AGE to G.AGE];");
+		assertEquals(new VtlScript("DS := DS [rename NAME to G.NAME, AGE to G.AGE];"), optimized);
+	}
+
+	@Test
+	void renames_notFused_sameVariable() {
+		VtlScript script = new VtlScript("DS := DS [rename NAME to FOO];", "DS := DS [rename FOO to BAR];");
+		assertEquals(script, VtlScriptOptimizer.optimize(script));
+	}
+
+	@Test
+	void calcs_fused() {
+		VtlScript optimized = optimize(
+				"DS := DS [calc AGE := cast(AGE, number)];",
+				"DS := DS [calc MODE := \"CAWI\"];");
+		assertEquals(new VtlScript("DS := DS [calc AGE := cast(AGE, number), MODE := \"CAWI\"];"), optimized);
+	}
+
+	@Test
+	void calcs_notFused_dependentExpression() {
+		VtlScript script = new VtlScript("DS := DS [calc FOO := AGE * 2];", "DS := DS [calc BAR := FOO + 1];");
+		assertEquals(script, VtlScriptOptimizer.optimize(script));
+	}
+
+	@Test
+	void keepAndDropAndFilter_fused() {
+		assertEquals(new VtlScript("OUT := DS [keep NAME];"),
+				optimize("OUT := DS [keep NAME, AGE];", "OUT := OUT [keep NAME];"));
+		assertEquals(new VtlScript("DS := DS [drop NAME, AGE];"),
+				optimize("DS := DS [drop NAME];", "DS := DS [drop AGE];"));
+		assertEquals(new VtlScript("DS := DS [filter (AGE > 5) and (NAME <> \"Ned\")];"),
+				optimize("DS := DS [filter AGE > 5];", "DS := DS [filter NAME <> \"Ned\"];"));
+	}
+
+	@Test
+	void otherInstructions_unchanged() {
+		VtlScript script = new VtlScript(
+				"DS := DS [rename NAME to FOO];",
+				"OTHER := DS [rename AGE to BAR];",
+				"DS := DS [calc MODE := \"CAWI\"];",
+				"DS := union(DS, DS);",
+				"DS := DS [calc MODE2 := \"CAPI\"];");
+		assertEquals(script, VtlScriptOptimizer.optimize(script));
+	}
+
+	@Test
+	void fusedScript_sameAsEngine() {
+		VtlScript script = new VtlScript(
+				"DS := DS [calc AGE := cast(AGE, number)];",
+				"DS := DS [calc MODE := \"CAWI\"];",
+				"DS := DS [rename NAME to G.NAME];",
+				"DS := DS [rename MODE to G.MODE];",
+				"DS := DS [filter AGE > 5];",
+				"DS := DS [filter G.NAME <> \"Ned\"];");
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("DS", dataset());
+		VtlBindings optimizedBindings = new VtlBindings();
+		optimizedBindings.put("DS", dataset());
+		//
+		for (String instruction : script) {
+			vtlExecute.evalVtlScript(instruction, bindings, new ArrayList<>());
+		}
+		vtlExecute.evalVtlScript(VtlScriptOptimizer.optimize(script).toString(), optimizedBindings, new ArrayList<>());
+		//
+		assertEquals(3, VtlScriptOptimizer.optimize(script).size());
+		assertEquals(bindings.getDataset("DS").getDataStructure(), optimizedBindings.getDataset("DS").getDataStructure());
+		assertEquals(bindings.getDataset("DS").getDataAsList(), optimizedBindings.getDataset("DS").getDataAsList());
+	}
+
+	@Test
+	void evalVtlScript_returnsFusedScript() {
+		VtlScript script = new VtlScript(
+				"DS := DS [calc MODE := \"CAWI\"];",
+				"DS := DS [rename MODE to G.MODE];",
+				"DS := DS [rename NAME to G.NAME];");
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("DS", dataset());
+		//
+		VtlScript evaluatedScript = vtlExecute.evalVtlScript(script, bindings, new ArrayList<>());
+		//
+		assertEquals(VtlScriptOptimizer.optimize(script), evaluatedScript);
+		assertEquals(2, evaluatedScript.size());
+	}
+
+	@Test
+	void fusedInstructionFails_evaluatedOneByOne() {
+		VtlBindings bindings = new VtlBindings();
+		bindings.put("DS", dataset());
+		List<KraftwerkError> errors = new ArrayList<>();
+		//
+		VtlScript script = new VtlScript(
+				"DS := DS [calc MODE := \"CAWI\"];",
+				"DS := DS [calc FOO := UNKNOWN_VARIABLE];");
+		VtlScript evaluatedScript = vtlExecute.evalVtlScript(script, bindings, errors);
+		//
+		assertTrue(bindings.getDataset("DS").getDataStructure().containsKey("MODE"));
+		assertEquals(1, errors.size());
+		// The script given back is the one evaluated: the original instructions
+		assertEquals(script, evaluatedScript);
+	}
+
+}